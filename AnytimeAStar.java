@@ -0,0 +1,333 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * This class implements anytime repairing A* (ARA*), which finds a first solution quickly with a 
+ * heavily weighted heuristic and then improves it by searching again with smaller and smaller 
+ * weights down to 1.  Each iteration is a weighted A* search with cost g + floor(w * h) as described 
+ * in SearchContext, but it reuses the work of the iterations before it: every state keeps the 
+ * shortest path found to it, and an iteration starts from the states whose path became shorter 
+ * after they were expanded instead of from s0. 
+ * 
+ * Within an iteration a state is expanded at most once.  A state whose path becomes shorter after 
+ * its expansion is not put back on OPEN but set aside on the list INCONS, so an iteration expands 
+ * little more than a single weighted search would.  An iteration ends when the shortest solution 
+ * found so far costs no more than every state on OPEN.  If h is admissible, that solution is then at 
+ * most bound times as long as the shortest one, where bound is the smaller of the weight and the 
+ * length of the solution divided by the smallest g + h on OPEN or INCONS.  Before the next iteration 
+ * the weight is lowered by a fixed step and the states of INCONS are added to OPEN. 
+ * 
+ * Every shorter solution is copied onto states of its own and reported to the listener of the 
+ * context with SearchListener.improved() together with its bound, so that a caller can take the 
+ * best solution so far at any time.  DoubleMoveHeuristic is not admissible, so with it there is no 
+ * bound: a solution is reported only if it is shorter, with the bound Double.NaN.  The search ends 
+ * after the iteration with weight 1, whose solution is optimal if h is admissible, or when its time 
+ * budget runs out or it is cancelled; it then returns the best solution found. 
+ * 
+ * All heuristics and their moves as given by EightPuzzle.moves() are supported. 
+ */
+public class AnytimeAStar
+{
+	public static final double INITIAL_WEIGHT = 2.5;   // weight of the first iteration by default
+	public static final double WEIGHT_STEP = 0.5;      // decrease of the weight between iterations by default
+	
+	private final SearchContext context;
+	private final State s0;
+	private final double step;
+	private final long deadline;       // System.nanoTime() at which to stop, or Long.MAX_VALUE
+	
+	private Frontier OPEN;
+	private final StateIndex SEEN = new StateIndex();    // every state generated, with its shortest path
+	private final StateIndex CLOSE = new StateIndex();   // states expanded in the current iteration
+	private final StateIndex INCONS = new StateIndex();  // expanded states whose path has become shorter
+	private final List<State> inconsistent = new ArrayList<>();   // the states of INCONS in order
+	
+	private State incumbent;   // the goal state on SEEN, null until the goal has been generated
+	private State best;        // copy of the best solution reported, null if none
+	private double bound = Double.POSITIVE_INFINITY;   // bound of best, NaN if h is not admissible
+	
+	
+	private AnytimeAStar(State s0, SearchContext context, double step, long budgetNanos)
+	{
+		this.s0 = s0;
+		this.context = context;
+		this.step = step;
+		long now = System.nanoTime();
+		this.deadline = budgetNanos <= 0 || now + budgetNanos < now ? Long.MAX_VALUE : now + budgetNanos;
+	}
+	
+	
+	/**
+	 * Solve the puzzle with ARA* from INITIAL_WEIGHT down to 1 in steps of WEIGHT_STEP, without a time 
+	 * budget. 
+	 * 
+	 * Precondition: the puzzle is solvable with the initial state s0. 
+	 * 
+	 * @param s0  initial state 
+	 * @param h   heuristic 
+	 * @return    solution string in the format of EightPuzzle.solutionPath() 
+	 */
+	public static String solve(State s0, Heuristic h)
+	{
+		return EightPuzzle.solutionPath(goal(s0, h));
+	}
+	
+	
+	/**
+	 * Same as solve(s0, h) but returns the goal state. 
+	 * 
+	 * @param s0  initial state 
+	 * @param h   heuristic 
+	 * @return    the goal state, linked to a copy of s0 by its predecessors, or null if the search 
+	 *            failed 
+	 */
+	static State goal(State s0, Heuristic h)
+	{
+		SearchContext context = new SearchContext(h, s0.goal(), INITIAL_WEIGHT);
+		return search(s0, context, WEIGHT_STEP, 0);
+	}
+	
+	
+	/**
+	 * Run ARA* on a copy of s0, starting with the weight of the context.  The weight of the context is 
+	 * lowered as the search proceeds. 
+	 * 
+	 * @param s0           initial state 
+	 * @param context      context of this search, whose listener is told of every shorter solution 
+	 * @param step         decrease of the weight between iterations 
+	 * @param budgetNanos  time after which the search stops, or 0 for none 
+	 * @return the goal state of the best solution found, linked to a copy of s0 by its predecessors, 
+	 *         or null if none was found before OPEN ran empty, the budget ran out or the search was 
+	 *         cancelled 
+	 * @throws IllegalArgumentException if step is not positive 
+	 */
+	public static State search(State s0, SearchContext context, double step, long budgetNanos)
+			throws IllegalArgumentException
+	{
+		if (!(step > 0))
+		{
+			throw new IllegalArgumentException("step must be positive");
+		}
+		AnytimeAStar ara = new AnytimeAStar(s0, context, step, budgetNanos);
+		long start = System.nanoTime();
+		ara.run();
+		context.finished(ara.best, start);
+		return ara.best;
+	}
+	
+	
+	/**
+	 * Iterate until the weight 1 has been searched or the search is stopped. 
+	 */
+	private void run()
+	{
+		State root = (State) s0.clone();
+		OPEN = FrontierType.BucketQueue.create(context);
+		OPEN.addState(root);
+		SEEN.put(root);
+		if (root.isGoalState())
+		{
+			incumbent = root;
+		}
+		while (true)
+		{
+			if (!improve())
+			{
+				return;
+			}
+			double w = context.weight;
+			publish(w);
+			if (w == 1 || (OPEN.size() == 0 && inconsistent.isEmpty()))
+			{
+				return;
+			}
+			context.weight = Math.max(1, w - step);
+			reorder();
+		}
+	}
+	
+	
+	/**
+	 * One iteration: expand states until the best solution costs no more than any state on OPEN. 
+	 * 
+	 * @return false if the search was stopped 
+	 */
+	private boolean improve()
+	{
+		MoveTable moveTable = context.moveTable;
+		SearchStats stats = context.stats;
+		SearchListener listener = context.listener;
+		while (OPEN.size() > 0 && (incumbent == null || incumbent.numMoves > OPEN.peek().cost()))
+		{
+			if (context.isCancelled() || System.nanoTime() > deadline)
+			{
+				return false;
+			}
+			State popped = OPEN.remove();
+			stats.expanded++;
+			CLOSE.put(popped);
+			if (listener != null)
+			{
+				listener.expanded(context, popped);
+			}
+			for (Move m : moveTable.moves(popped.blankIndex()))
+			{
+				State child = popped.successor(m);
+				if (child == null)
+				{
+					continue;
+				}
+				stats.generated++;
+				State old = SEEN.get(child);
+				if (old == null)
+				{
+					SEEN.put(child);
+					OPEN.addState(child);
+					if (child.isGoalState())
+					{
+						incumbent = child;
+					}
+					continue;
+				}
+				if (old.numMoves <= child.numMoves)
+				{
+					continue;
+				}
+				// a shorter path to a state seen before
+				old.predecessor = popped;
+				old.move = child.move;
+				old.numMoves = child.numMoves;
+				if (OPEN.findState(old) != null)
+				{
+					stats.duplicatesOpen++;
+					OPEN.update(old);
+				}
+				else if (CLOSE.get(old) != null)
+				{
+					stats.duplicatesClosed++;
+					if (INCONS.get(old) == null)
+					{
+						INCONS.put(old);
+						inconsistent.add(old);
+					}
+				}
+				else
+				{
+					stats.reopened++;     // expanded in an earlier iteration only
+					OPEN.addState(old);
+				}
+			}
+			stats.sizes(OPEN.size(), CLOSE.size());
+		}
+		return true;
+	}
+	
+	
+	/**
+	 * Report the solution of the iteration with weight w if it is shorter than the best one so far 
+	 * or has a tighter bound.  Without an admissible heuristic the bound is Double.NaN. 
+	 * 
+	 * @param w  weight of the iteration 
+	 */
+	private void publish(double w)
+	{
+		if (incumbent == null)
+		{
+			return;
+		}
+		State goal = copy(incumbent);
+		// the smallest unweighted cost of a state that may still lead to a shorter solution
+		int min = Integer.MAX_VALUE;
+		List<State> open = drain();
+		for (State s : open)
+		{
+			min = Math.min(min, s.numMoves + s.estimate());
+			OPEN.addState(s);
+		}
+		for (State s : inconsistent)
+		{
+			min = Math.min(min, s.numMoves + s.estimate());
+		}
+		double b = context.heuristic == Heuristic.DoubleMoveHeuristic ? Double.NaN 
+				: min == Integer.MAX_VALUE ? 1 : Math.min(w, Math.max(1, (double) goal.numMoves / min));
+		if (best != null && goal.numMoves >= best.numMoves)
+		{
+			if (Double.isNaN(b) || b >= bound)
+			{
+				return;
+			}
+		}
+		else
+		{
+			best = goal;
+		}
+		bound = Math.min(bound, b);
+		if (context.listener != null)
+		{
+			context.listener.improved(context, best, bound);
+		}
+	}
+	
+	
+	/**
+	 * Start the next iteration: put the states of INCONS on OPEN, forget which states were expanded, 
+	 * and order OPEN by the new weight of the context. 
+	 */
+	private void reorder()
+	{
+		List<State> open = drain();
+		open.addAll(inconsistent);
+		inconsistent.clear();
+		INCONS.clear();
+		CLOSE.clear();
+		OPEN = FrontierType.BucketQueue.create(context);
+		for (State s : open)
+		{
+			OPEN.addState(s);
+		}
+	}
+	
+	
+	/**
+	 * @return the states removed from OPEN, which is left empty 
+	 */
+	private List<State> drain()
+	{
+		List<State> states = new ArrayList<>(OPEN.size());
+		while (OPEN.size() > 0)
+		{
+			states.add(OPEN.remove());
+		}
+		return states;
+	}
+	
+	
+	/**
+	 * @param goal  goal state on SEEN 
+	 * @return the goal state of a copy of its path from s0, which later iterations do not change 
+	 */
+	private State copy(State goal)
+	{
+		int count = 0;
+		for (State cur = goal; cur.predecessor != null; cur = cur.predecessor)
+		{
+			count++;
+		}
+		Move[] path = new Move[count];
+		State cur = goal;
+		for (int k = count - 1; k >= 0; k--)
+		{
+			path[k] = cur.move;
+			cur = cur.predecessor;
+		}
+		return EightPuzzle.replay(s0, context, path, count);
+	}
+}
@@ -0,0 +1,397 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.Arrays;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * This class implements the A* algorithm of EightPuzzle.search() over a NodeArena, so that the search 
+ * allocates no object per node: OPEN is a bucket queue of int node indices, CLOSED is the status of 
+ * a node in the arena, and both look boards up in the index of the arena.  State objects are only 
+ * made for the solution path, by replaying its moves from s0. 
+ * 
+ * The states are expanded in exactly the same order as by EightPuzzle.search() with a 
+ * StateBucketQueue: by non-decreasing cost, then by the TieBreaking of the context, with the same 
+ * rerouting of states on OPEN and reopening of states on CLOSED.  A bucket is a stack popped from 
+ * the top, or with FIFO from a head index that moves up until the bucket runs empty.  A rerouted 
+ * node is pushed again at its new cost rather than moved, and the entry left in its old bucket is 
+ * skipped when it comes up. 
+ * 
+ * The heuristic values are carried from a node to its successors by the same deltas as in State. 
+ * If the context has a listener, each expanded node is made into a State without a predecessor for 
+ * it; the time spent in evaluation and in the lists is not measured. 
+ */
+public class ArenaAStar
+{
+	// status of a node in the arena
+	private static final int OPEN = 1;
+	private static final int CLOSED = 2;
+	
+	private final SearchContext context;
+	private final NodeArena arena;
+	private final Goal goal;
+	private final Heuristic h;
+	private final WalkingDistance walk;    // tables of the goal if h is WalkingDistance, null otherwise
+	private final Move[] all = Move.values();
+	private final TieBreaking ties;
+	
+	private int[][] buckets = new int[64][];   // node indices by TieBreaking.bucket(), the last added on top
+	private int[] sizes = new int[64];
+	private int[] heads = new int[64];         // index of the first entry not popped yet, for FIFO
+	private int minBucket = 0;
+	
+	
+	private ArenaAStar(SearchContext context, NodeArena arena)
+	{
+		this.context = context;
+		this.arena = arena;
+		this.goal = context.goal;
+		this.h = context.heuristic;
+		this.walk = h == Heuristic.WalkingDistance ? goal.walkingDistance() : null;
+		this.ties = context.tieBreaking;
+	}
+	
+	
+	/**
+	 * Solve the puzzle with A* over a NodeArena on the Java heap. 
+	 * 
+	 * Precondition: the puzzle is solvable with the initial state s0. 
+	 * 
+	 * @param s0  initial state 
+	 * @param h   heuristic 
+	 * @return    solution string in the format of EightPuzzle.solutionPath() 
+	 */
+	public static String solve(State s0, Heuristic h)
+	{
+		SearchContext context = new SearchContext(h, s0.goal());
+		State goal = search(s0, context, false);
+		if (goal == null)
+		{
+			return context.isCancelled() ? "search cancelled" : "OPEN list empty, exit with failure";
+		}
+		return EightPuzzle.solutionPath(goal);
+	}
+	
+	
+	/**
+	 * Run A* from s0 over a new NodeArena. 
+	 * 
+	 * @param s0       initial state 
+	 * @param context  context of this search 
+	 * @param direct   whether to keep the arena outside the Java heap 
+	 * @return the goal state reached, linked to a copy of s0 by its predecessors, or null if OPEN runs 
+	 *         empty or the search is cancelled 
+	 */
+	public static State search(State s0, SearchContext context, boolean direct)
+	{
+		return search(s0, context, new NodeArena(context.goal, direct));
+	}
+	
+	
+	/**
+	 * Same as search(s0, context, direct) but over the given arena, which is cleared first, so that a 
+	 * batch of searches can reuse the memory of one arena. 
+	 * 
+	 * @param s0       initial state 
+	 * @param context  context of this search 
+	 * @param arena    arena for the goal of the context 
+	 * @return the goal state reached, linked to a copy of s0 by its predecessors, or null if OPEN runs 
+	 *         empty or the search is cancelled 
+	 */
+	static State search(State s0, SearchContext context, NodeArena arena)
+	{
+		long start = System.nanoTime();
+		arena.clear();
+		int found = new ArenaAStar(context, arena).run(s0);
+		State goal = null;
+		if (found != NodeArena.NONE)
+		{
+			Move[] path = arena.path(found);
+			goal = EightPuzzle.replay(s0, context, path, path.length);
+		}
+		context.finished(goal, start);
+		return goal;
+	}
+	
+	
+	/**
+	 * @param s0  initial state 
+	 * @return the index of the goal node, or NONE 
+	 */
+	private int run(State s0)
+	{
+		MoveTable moveTable = context.moveTable;
+		SearchStats stats = context.stats;
+		SearchListener listener = context.listener;
+		long goalLow = goal.packedLow();
+		long goalHigh = goal.packedHigh();
+		long mask = goal.mask();
+		
+		State root = (State) s0.clone();
+		root.context = context;
+		long low0 = root.packedBoard();
+		long high0 = root.packedBoardHigh();
+		int aux0 = walk == null ? 0 : walk.index(low0, high0);
+		push(arena.add(low0, high0, root.blankIndex(), NodeArena.NONE, NodeArena.NONE, 0, root.estimate(), aux0));
+		int open = 1;
+		int closed = 0;
+		while (open > 0)
+		{
+			if (context.isCancelled())
+			{
+				break;
+			}
+			int p = pop();
+			stats.expanded++;
+			open--;
+			long low = arena.low(p);
+			long high = arena.high(p);
+			if (low == goalLow && high == goalHigh)
+			{
+				return p;
+			}
+			arena.setStatus(p, CLOSED);
+			closed++;
+			if (listener != null)
+			{
+				listener.expanded(context, state(p));
+			}
+			int blank = arena.blank(p);
+			int g = arena.g(p) + 1;
+			int parent = arena.parent(p);
+			for (Move m : moveTable.moves(blank))
+			{
+				// slide each moved tile one square towards the empty square, as State.successor() does
+				int step = moveTable.step(m);
+				long t = low;
+				long th = high;
+				int to = blank;
+				for (int k = 0; k < m.numTiles(); k++)
+				{
+					int from = to + step;
+					int tile = goal.tileAt(t, th, from);
+					t = (t | goal.low(tile, to)) & ~goal.low(mask, from);
+					th = (th | goal.high(tile, to)) & ~goal.high(mask, from);
+					to = from;
+				}
+				if (parent != NodeArena.NONE && arena.low(parent) == t && arena.high(parent) == th)
+				{
+					continue;
+				}
+				stats.generated++;
+				int old = arena.find(t, th);
+				if (old == NodeArena.NONE)
+				{
+					int aux = walk == null ? 0 : walkIndex(p, low, high, step, to);
+					push(arena.add(t, th, to, p, m.ordinal(), g, estimate(p, low, high, t, th, step, to, aux), aux));
+					open++;
+				}
+				else if (arena.status(old) == OPEN)
+				{
+					stats.duplicatesOpen++;
+					if (arena.g(old) > g)
+					{
+						arena.reroute(old, p, m.ordinal(), g);
+						push(old);
+					}
+				}
+				else
+				{
+					stats.duplicatesClosed++;
+					if (arena.g(old) > g)
+					{
+						stats.reopened++;
+						arena.reroute(old, p, m.ordinal(), g);
+						push(old);
+						open++;
+						closed--;
+					}
+				}
+			}
+			stats.sizes(open, closed);
+		}
+		return NodeArena.NONE;
+	}
+	
+	
+	/**
+	 * @param i  index of a node 
+	 * @return its cost g + h, with h weighted as in State.cost() 
+	 */
+	private int cost(int i)
+	{
+		int e = arena.h(i);
+		double w = context.weight;
+		return arena.g(i) + (w == 1 ? e : (int) (w * e));
+	}
+	
+	
+	/**
+	 * Evaluate the successor of node p with the given board, as State.updateHeuristics() does. 
+	 * 
+	 * @param p      index of the parent node 
+	 * @param low    low long of the parent's board 
+	 * @param high   high long of the parent's board 
+	 * @param t      low long of the successor's board 
+	 * @param th     high long of the successor's board 
+	 * @param step   offset between consecutive moved squares 
+	 * @param blank  the successor's empty square 
+	 * @param aux    the successor's index in the walking distance tables if h is WalkingDistance 
+	 * @return the heuristic value of the successor 
+	 */
+	private int estimate(int p, long low, long high, long t, long th, int step, int blank, int aux)
+	{
+		switch (h)
+		{
+			case TileMismatch, ManhattanDist, DoubleMoveHeuristic ->
+			{
+				return arena.h(p) + delta(goal, h, low, high, arena.blank(p), step, blank);
+			}
+			case LinearConflict ->
+			{
+				return arena.h(p) + delta(goal, Heuristic.ManhattanDist, low, high, arena.blank(p), step, blank)
+						+ 2 * lineConflictDelta(goal, low, high, t, th, arena.blank(p), step, blank);
+			}
+			case WalkingDistance -> {return walk.distance(aux);}
+			default -> {return context.patterns.distance(t, th);}
+		}
+	}
+	
+	
+	/**
+	 * @return the index in the walking distance tables of the successor of node p 
+	 */
+	private int walkIndex(int p, long low, long high, int step, int blank)
+	{
+		int index = arena.aux(p);
+		for (int sq = arena.blank(p) + step; sq != blank + step; sq += step)
+		{
+			index = walk.next(index, step, goal.tileAt(low, high, sq));
+		}
+		return index;
+	}
+	
+	
+	/**
+	 * @return the change of heuristic e towards goal from the parent's board to its successor's, as 
+	 *         State.delta() 
+	 */
+	static int delta(Goal goal, Heuristic e, long low, long high, int from, int step, int blank)
+	{
+		byte[] deltaTable = goal.deltaTable(e);
+		int n = goal.size();
+		int d = 0;
+		for (int to = from; to != blank; to += step)
+		{
+			int sq = to + step;
+			d += deltaTable[(goal.tileAt(low, high, sq) * n + sq) * n + to];
+		}
+		return d + deltaTable[from * n + blank];
+	}
+	
+	
+	/**
+	 * @return the change of goal.linearConflicts() from the parent's board to its successor's, as 
+	 *         State.lineConflictDelta() 
+	 */
+	static int lineConflictDelta(Goal goal, long low, long high, long t, long th, int from, int step, int blank)
+	{
+		int width = goal.width();
+		boolean vertical = step == width || step == -width;
+		int a = vertical ? from / width : from % width;
+		int b = vertical ? blank / width : blank % width;
+		int d = 0;
+		for (int line = Math.min(a, b); line <= Math.max(a, b); line++)
+		{
+			d += goal.lineConflicts(t, th, vertical, line) - goal.lineConflicts(low, high, vertical, line);
+		}
+		return d;
+	}
+	
+	
+	/**
+	 * @param i  index of a node 
+	 * @return a State with its board, move and number of moves, without a predecessor 
+	 */
+	private State state(int i)
+	{
+		State s = new State(goal, arena.low(i), arena.high(i), arena.blank(i));
+		s.context = context;
+		s.numMoves = arena.g(i);
+		s.move = arena.move(i) == NodeArena.NONE ? null : all[arena.move(i)];
+		return s;
+	}
+	
+	
+	/**
+	 * @param i  index of a node 
+	 * @return the index of its bucket 
+	 */
+	private int bucket(int i)
+	{
+		int f = cost(i);
+		return ties.bucket(f, f - arena.g(i));
+	}
+	
+	
+	/**
+	 * Put node i on OPEN at the top of the bucket for its cost and rank. 
+	 * 
+	 * @param i 
+	 */
+	private void push(int i)
+	{
+		arena.setStatus(i, OPEN);
+		int f = bucket(i);
+		if (f >= buckets.length)
+		{
+			int length = Math.max(f + 1, buckets.length * 2);
+			buckets = Arrays.copyOf(buckets, length);
+			sizes = Arrays.copyOf(sizes, length);
+			heads = Arrays.copyOf(heads, length);
+		}
+		if (buckets[f] == null)
+		{
+			buckets[f] = new int[16];
+		}
+		else if (sizes[f] == buckets[f].length)
+		{
+			buckets[f] = Arrays.copyOf(buckets[f], sizes[f] * 2);
+		}
+		buckets[f][sizes[f]++] = i;
+		if (f < minBucket)
+		{
+			minBucket = f;
+		}
+	}
+	
+	
+	/**
+	 * Remove the first node of the first nonempty bucket from OPEN, skipping the entries of rerouted 
+	 * nodes in their old buckets. 
+	 * 
+	 * Precondition: OPEN is not empty. 
+	 * 
+	 * @return its index 
+	 */
+	private int pop()
+	{
+		while (true)
+		{
+			while (sizes[minBucket] == heads[minBucket])
+			{
+				sizes[minBucket] = heads[minBucket] = 0;
+				minBucket++;
+			}
+			int i = ties == TieBreaking.FIFO ? buckets[minBucket][heads[minBucket]++] : buckets[minBucket][--sizes[minBucket]];
+			if (arena.status(i) == OPEN && bucket(i) == minBucket)
+			{
+				return i;
+			}
+		}
+	}
+}
@@ -0,0 +1,323 @@
+package edu.iastate.cs472.proj1;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * This class solves many puzzle files at once on a fixed pool of threads.  The files are given by 
+ * a directory, all of whose regular files are read, or by a glob such as puzzles/*.txt whose last 
+ * name component is the pattern.  Each file is in the format read by State(String) and is solved by 
+ * EightPuzzle.solve8Puzzle() with the default goal for its width.  The three searches of a puzzle run 
+ * one after another on the thread that took it, so at most threads searches run at once. 
+ * 
+ * Every search keeps its state in its own objects, so the solves share nothing but the immutable 
+ * Goal tables and the read-only pattern database and oracle files. 
+ * 
+ * The solutions are printed in the order of the file names, each after a line "== file ==", while 
+ * later files are still being solved.  A solved file is kept as the goal states of its searches 
+ * until its turn comes, and its text is then written straight to the output stream in the 
+ * requested SolutionFormat, so no solution string is built.  A file that cannot be read or parsed, 
+ * one whose solve throws, and one where a search finds no solution (as SMAStar may) count as 
+ * failures and print "FAILED: " and the reason instead; the other files are still solved.  At the 
+ * end, the number of files and failures, the throughput, and the 50th and 99th percentile of the 
+ * time to solve one file are printed to System.err, followed by the totals of the SearchStats of 
+ * all searches. 
+ * 
+ * While a batch runs, those totals are also published through JMX by a SolverStats given as the 
+ * SearchListener of its searches, so that a long batch can be watched with jconsole; it is 
+ * unregistered when the batch ends.  Only the searches of the batch report to it, so batches 
+ * running at the same time are counted apart. 
+ * 
+ * runBinary() does the same for the puzzles of a PuzzleFile, writing a ResultFile.  The puzzles are 
+ * read in place from the mapped file and solved in blocks of BLOCK, each block encoded by the thread 
+ * that solved it and written in order. 
+ */
+public class BatchSolver
+{
+	private static final int BLOCK = 1024;    // puzzles solved by one task of runBinary()
+	private static final Heuristic[] HEURISTICS =    // heuristics of the goals of solutionGoals(), in order
+			{Heuristic.TileMismatch, Heuristic.ManhattanDist, Heuristic.DoubleMoveHeuristic};
+	
+	private BatchSolver() {}
+	
+	
+	/**
+	 * The outcome of solving one file. 
+	 */
+	private static class Result
+	{
+		final State s0;         // initial state, null if failed
+		final State[] goals;    // goal states of the searches as returned by EightPuzzle.solutionGoals()
+		final String text;      // the reason of the failure, null if not failed
+		final boolean failed;
+		final long nanos;       // time taken to read and solve the file
+		
+		Result(State s0, State[] goals, String text, boolean failed, long nanos)
+		{
+			this.s0 = s0;
+			this.goals = goals;
+			this.text = text;
+			this.failed = failed;
+			this.nanos = nanos;
+		}
+	}
+	
+	
+	/**
+	 * Solve every file matching the pattern. 
+	 * 
+	 * @param pattern  directory or glob of puzzle files 
+	 * @param threads  number of threads solving files, at least 1 
+	 * @param mode     search algorithm 
+	 * @param ties     tie-breaking of the searches 
+	 * @param format   format of the solutions 
+	 * @param out      stream receiving the solutions 
+	 * @return the number of failures 
+	 * @throws IOException if the files cannot be listed 
+	 * @throws IllegalArgumentException if threads < 1 
+	 */
+	public static int run(String pattern, int threads, SearchMode mode, TieBreaking ties, SolutionFormat format, 
+			PrintStream out) throws IOException, IllegalArgumentException
+	{
+		if (threads < 1)
+		{
+			throw new IllegalArgumentException("threads must be at least 1");
+		}
+		List<Path> files = listFiles(pattern);
+		SolverStats stats = new SolverStats();
+		stats.register();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		long start = System.nanoTime();
+		long[] nanos = new long[files.size()];
+		int failures = 0;
+		try
+		{
+			List<Future<Result>> results = new ArrayList<>();
+			for (Path file : files)
+			{
+				results.add(pool.submit(() -> solve(file, mode, ties, stats)));
+			}
+			for (int i = 0; i < files.size(); i++)
+			{
+				Result r = results.get(i).get();
+				out.println("== " + files.get(i) + " ==");
+				if (r.failed)
+				{
+					out.println("FAILED: " + r.text);
+				}
+				else
+				{
+					EightPuzzle.writeSolutions(r.s0, r.goals, format, out);
+					out.println();
+				}
+				out.println();
+				nanos[i] = r.nanos;
+				if (r.failed)
+				{
+					failures++;
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted", e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new IllegalStateException(e.getCause());   // solve() catches every exception
+		}
+		finally
+		{
+			pool.shutdownNow();
+			stats.unregister();
+		}
+		out.flush();
+		
+		double secs = (System.nanoTime() - start) / 1e9;
+		Arrays.sort(nanos);
+		System.err.printf("%d files, %d failed, %d threads, %.3f s, %.1f files/s, p50 %.3f ms, p99 %.3f ms%n",
+				files.size(), failures, threads, secs, files.size() / secs,
+				percentile(nanos, 50) / 1e6, percentile(nanos, 99) / 1e6);
+		System.err.println(stats);
+		return failures;
+	}
+	
+	
+	/**
+	 * Solve every puzzle of a puzzle file and write the solutions to a result file. 
+	 * 
+	 * @param puzzles  puzzle file 
+	 * @param results  result file to write, record i holding the solutions of puzzle i 
+	 * @param threads  number of threads solving puzzles, at least 1 
+	 * @param mode     search algorithm 
+	 * @param ties     tie-breaking of the searches 
+	 * @return the number of puzzles 
+	 * @throws IOException if a file cannot be read or written 
+	 * @throws IllegalArgumentException if threads < 1 or a puzzle is not valid, before anything is 
+	 *                                  solved 
+	 */
+	public static int runBinary(Path puzzles, Path results, int threads, SearchMode mode, TieBreaking ties) 
+			throws IOException, IllegalArgumentException
+	{
+		if (threads < 1)
+		{
+			throw new IllegalArgumentException("threads must be at least 1");
+		}
+		PuzzleFile in = PuzzleFile.load(puzzles);
+		in.validate();
+		SolverStats stats = new SolverStats();
+		stats.register();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		long start = System.nanoTime();
+		try (ResultFile.ResultWriter out = new ResultFile.ResultWriter(results, in.width()))
+		{
+			List<Future<byte[]>> blocks = new ArrayList<>();
+			for (int first = 0; first < in.count(); first += BLOCK)
+			{
+				int from = first;
+				int to = Math.min(first + BLOCK, in.count());
+				blocks.add(pool.submit(() -> 
+				{
+					ByteArrayOutputStream records = new ByteArrayOutputStream();
+					for (int i = from; i < to; i++)
+					{
+						State s0 = in.state(i);
+						ResultFile.encode(EightPuzzle.solutionGoals(s0, mode, stats, ties, Runnable::run), records);
+					}
+					return records.toByteArray();
+				}));
+			}
+			for (int b = 0; b < blocks.size(); b++)
+			{
+				out.add(blocks.get(b).get(), Math.min(BLOCK, in.count() - b * BLOCK));
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted", e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new IllegalStateException(e.getCause());   // the puzzles were validated up front
+		}
+		finally
+		{
+			pool.shutdownNow();
+			stats.unregister();
+		}
+		
+		double secs = (System.nanoTime() - start) / 1e9;
+		System.err.printf("%d puzzles, %d threads, %.3f s, %.1f puzzles/s%n", in.count(), threads, secs, 
+				in.count() / secs);
+		System.err.println(stats);
+		return in.count();
+	}
+	
+	
+	/**
+	 * Read and solve one file. 
+	 * 
+	 * @param file 
+	 * @param mode 
+	 * @param ties 
+	 * @param stats  listener of the searches 
+	 * @return the solution, or a failure if the file cannot be read or is not a puzzle, a search 
+	 *         throws, or a search finds no solution 
+	 */
+	private static Result solve(Path file, SearchMode mode, TieBreaking ties, SolverStats stats)
+	{
+		long start = System.nanoTime();
+		try
+		{
+			State s0 = new State(file.toString());
+			State[] goals = EightPuzzle.solutionGoals(s0, mode, stats, ties, Runnable::run);
+			for (int i = 0; goals != null && i < goals.length; i++)
+			{
+				if (goals[i] == null)
+				{
+					return new Result(null, null, "no solution found with " + HEURISTICS[i], true, 
+							System.nanoTime() - start);
+				}
+			}
+			return new Result(s0, goals, null, false, System.nanoTime() - start);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			return new Result(null, null, e.getClass().getSimpleName() + ": " + e.getMessage(), true, 
+					System.nanoTime() - start);
+		}
+	}
+	
+	
+	/**
+	 * @param pattern  directory or glob 
+	 * @return the regular files in the directory or matching the glob, sorted by name 
+	 * @throws IOException 
+	 */
+	static List<Path> listFiles(String pattern) throws IOException
+	{
+		Path path = Paths.get(pattern);
+		Path dir;
+		String glob;
+		if (Files.isDirectory(path))
+		{
+			dir = path;
+			glob = "*";
+		}
+		else
+		{
+			dir = path.getParent() == null ? Paths.get(".") : path.getParent();
+			glob = path.getFileName().toString();
+		}
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, glob))
+		{
+			for (Path p : stream)
+			{
+				if (Files.isRegularFile(p))
+				{
+					files.add(p);
+				}
+			}
+		}
+		files.sort(null);
+		return files;
+	}
+	
+	
+	/**
+	 * @param sorted  values in increasing order 
+	 * @param p       percentile, from 1 to 100 
+	 * @return the value at or below which p percent of the values lie (nearest rank), or 0 if there 
+	 *         are no values 
+	 */
+	private static long percentile(long[] sorted, int p)
+	{
+		if (sorted.length == 0)
+		{
+			return 0;
+		}
+		int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+		return sorted[Math.max(rank, 1) - 1];
+	}
+}
@@ -0,0 +1,259 @@
+package edu.iastate.cs472.proj1;
+
+/**
+ *  
+ * @author Owen Kim
+ *
+ */
+
+/**
+ * This class implements bidirectional A* search.  Since every move can be undone by its inverse, the 
+ * puzzle can be searched forward from the initial state s0 towards the goal and at the same time 
+ * backward from the goal towards s0.  The backward search works on states whose Goal is the 
+ * configuration of s0, so the same heuristic estimates the distance to s0 there.  Each step expands 
+ * a state of the direction with the smaller OPEN list. 
+ * 
+ * Whenever a state reached in one direction is also on OPEN or CLOSED of the other, the two paths 
+ * through it form a solution of length g_forward + g_backward, and the shortest one found so far is 
+ * kept as mu.  With an admissible heuristic, the smallest cost estimate on either OPEN list is a lower 
+ * bound on any solution not yet found, so the search stops with an optimal solution as soon as mu is 
+ * no larger than the greater of the two.  The forward path and the reversed backward path are then 
+ * joined into one sequence of moves from s0 to the goal. 
+ * 
+ * The heuristics and the allowed moves are the same as for EightPuzzle.AStar(), except for 
+ * PatternDatabase, which would need a database for every s0. 
+ */
+public class BidirectionalAStar 
+{
+	private final MoveTable moveTable;
+	private final State s0;
+	private final SearchContext forward;    // context of the search from s0, whose statistics cover 
+	                                        // both directions 
+	private final SearchContext backward;   // context of the search from the goal, whose goal is s0 
+	
+	private final Frontier OPEN_F;
+	private final Frontier OPEN_B;
+	private final StateIndex CLOSE_F = new StateIndex();
+	private final StateIndex CLOSE_B = new StateIndex();
+	
+	private int mu = Integer.MAX_VALUE;    // length of the shortest solution found so far 
+	private State meetF;                   // state where that solution joins the forward tree
+	private State meetB;                   // the same board in the backward tree 
+	
+	/**
+	 * @param s0  initial state
+	 * @param h   heuristic 
+	 * @throws IllegalArgumentException if h is PatternDatabase 
+	 */
+	BidirectionalAStar(State s0, Heuristic h) throws IllegalArgumentException
+	{
+		this(s0, new SearchContext(supported(h), s0.goal()));
+	}
+	
+	
+	/**
+	 * @param s0       initial state
+	 * @param forward  context of the search from s0, whose listener is told when the search ends; 
+	 *                 the search towards s0 gets a context with the same heuristic and tie-breaking 
+	 * @throws IllegalArgumentException if the heuristic is PatternDatabase 
+	 */
+	BidirectionalAStar(State s0, SearchContext forward) throws IllegalArgumentException
+	{
+		supported(forward.heuristic);
+		this.s0 = s0;
+		this.forward = forward;
+		this.moveTable = forward.moveTable;
+		this.backward = new SearchContext(forward.heuristic, new Goal(s0.board()), 1, forward.tieBreaking);
+		this.OPEN_F = FrontierType.BucketQueue.create(forward);
+		this.OPEN_B = FrontierType.BucketQueue.create(backward);
+	}
+	
+	
+	/**
+	 * @param h  heuristic 
+	 * @return h 
+	 * @throws IllegalArgumentException if h is PatternDatabase 
+	 */
+	static Heuristic supported(Heuristic h) throws IllegalArgumentException
+	{
+		if (h == Heuristic.PatternDatabase)
+		{
+			throw new IllegalArgumentException("bidirectional search does not support " + h);
+		}
+		return h;
+	}
+	
+	
+	/**
+	 * @return the number of states expanded in both directions 
+	 */
+	long expanded()
+	{
+		return forward.stats.expanded;
+	}
+	
+	
+	/**
+	 * Solve the puzzle with bidirectional A*. 
+	 * 
+	 * Precondition: the puzzle is solvable with the initial state s0.
+	 * 
+	 * @param s0  initial state
+	 * @param h   heuristic 
+	 * @return    solution string in the format of EightPuzzle.solutionPath()
+	 * @throws IllegalArgumentException if h is PatternDatabase 
+	 */
+	public static String solve(State s0, Heuristic h) throws IllegalArgumentException
+	{
+		State goal = new BidirectionalAStar(s0, h).search();
+		if (goal == null)
+		{
+			return "OPEN list empty, exit with failure";
+		}
+		return EightPuzzle.solutionPath(goal);
+	}
+	
+	
+	/**
+	 * Run both searches until they meet on an optimal path. 
+	 * 
+	 * @return the goal state at the end of a predecessor chain from a copy of s0, or null if the 
+	 *         puzzle has no solution 
+	 */
+	State search()
+	{
+		long start = System.nanoTime();
+		OPEN_F.addState((State) s0.clone());
+		OPEN_B.addState(new State(forward.goal.board(), backward.goal));
+		while (OPEN_F.size() > 0 && OPEN_B.size() > 0)
+		{
+			int bound = Math.max(OPEN_F.peek().cost(), OPEN_B.peek().cost());
+			if (mu <= bound)
+			{
+				break;
+			}
+			if (OPEN_F.size() <= OPEN_B.size())
+			{
+				expand(OPEN_F, CLOSE_F, OPEN_B, CLOSE_B, true);
+			}
+			else
+			{
+				expand(OPEN_B, CLOSE_B, OPEN_F, CLOSE_F, false);
+			}
+			forward.stats.sizes(OPEN_F.size() + OPEN_B.size(), CLOSE_F.size() + CLOSE_B.size());
+		}
+		State goal = meetF == null ? null : join();
+		forward.finished(goal, start);
+		return goal;
+	}
+	
+	
+	/**
+	 * Expand the first state on OPEN of one direction as EightPuzzle.search() does, checking every 
+	 * state whose path got shorter against the lists of the other direction. 
+	 */
+	private void expand(Frontier OPEN, StateIndex CLOSE, Frontier otherOPEN, StateIndex otherCLOSE, 
+			boolean isForward)
+	{
+		State popped = OPEN.remove();
+		CLOSE.put(popped);
+		forward.stats.expanded++;
+		meet(popped, otherOPEN, otherCLOSE, isForward);
+		for (Move m : moveTable.moves(popped.blankIndex()))
+		{
+			State child = popped.successor(m);
+			if (child == null)
+			{
+				continue;
+			}
+			forward.stats.generated++;
+			State old_open = OPEN.findState(child);
+			State old_close = old_open == null ? CLOSE.get(child) : null;
+			if (old_open != null)
+			{
+				if (old_open.compareTo(child) == 1)
+				{
+					old_open.predecessor = popped;
+					old_open.move = child.move;
+					old_open.numMoves = child.numMoves;
+					OPEN.update(old_open);
+					meet(old_open, otherOPEN, otherCLOSE, isForward);
+				}
+			}
+			else if (old_close != null)
+			{
+				if (old_close.compareTo(child) == 1)
+				{
+					CLOSE.remove(old_close);
+					OPEN.addState(child);
+					meet(child, otherOPEN, otherCLOSE, isForward);
+				}
+			}
+			else
+			{
+				OPEN.addState(child);
+				meet(child, otherOPEN, otherCLOSE, isForward);
+			}
+		}
+	}
+	
+	
+	/**
+	 * If the board of s has been reached by the other direction, record the solution through it if 
+	 * it is shorter than mu. 
+	 */
+	private void meet(State s, Frontier otherOPEN, StateIndex otherCLOSE, boolean isForward)
+	{
+		State other = otherOPEN.findState(s);
+		if (other == null)
+		{
+			other = otherCLOSE.get(s);
+		}
+		if (other != null && s.numMoves + other.numMoves < mu)
+		{
+			mu = s.numMoves + other.numMoves;
+			meetF = isForward ? s : other;
+			meetB = isForward ? other : s;
+		}
+	}
+	
+	
+	/**
+	 * Join the forward path s0 -> meetF with the backward path meetB -> goal, where each backward 
+	 * move is undone by its inverse.  A move that would undo the previous one is dropped together 
+	 * with it. 
+	 * 
+	 * @return the goal state at the end of a predecessor chain from a copy of s0 
+	 */
+	private State join()
+	{
+		Move[] path = new Move[mu];
+		int count = 0;
+		
+		// forward moves, collected backwards from meetF 
+		for (State cur = meetF; cur.predecessor != null; cur = cur.predecessor)
+		{
+			count++;
+		}
+		int k = count;
+		for (State cur = meetF; cur.predecessor != null; cur = cur.predecessor)
+		{
+			path[--k] = cur.move;
+		}
+		
+		// backward moves from meetB towards the goal, undone
+		for (State cur = meetB; cur.predecessor != null; cur = cur.predecessor)
+		{
+			Move m = cur.move.inverse();
+			if (count > 0 && path[count - 1] == m.inverse())
+			{
+				count--;
+			}
+			else
+			{
+				path[count++] = m;
+			}
+		}
+		return EightPuzzle.replay(s0, forward, path, count);
+	}
+}
@@ -0,0 +1,394 @@
+package edu.iastate.cs472.proj1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * This class describes a table of the exact distance to the goal of every solvable configuration of 
+ * the 8-puzzle, once with single moves only and once with all of Move.values().  With these tables a 
+ * puzzle is solved without any search: from s0, repeatedly make a move to a configuration one move 
+ * closer to the goal. 
+ * 
+ * A configuration is indexed by the square of the empty square and the Lehmer code of the order of 
+ * the tiles without their last two.  Given the empty square, the order of those two is fixed by the 
+ * parity that makes the configuration solvable, so the index is a perfect hash of the n!/2 solvable 
+ * configurations onto [0, n!/2). 
+ * 
+ * Every move changes the distance to the goal by at most one, so each table only stores the distance 
+ * modulo 16, two entries per byte, which still tells the neighbor one move closer apart from the 
+ * others.  The tables are computed by generate() with a breadth-first search from the goal and 
+ * written to a file with the layout 
+ * 
+ *     int     MAGIC 
+ *     int     board width, with n = width * width squares 
+ *     n ints  goal configuration in row-major order 
+ *     n!/4 bytes   distances with single moves, entry r in the low half of byte r/2 if r is even 
+ *                  and in the high half otherwise 
+ *     n!/4 bytes   distances with all moves, in the same layout 
+ * 
+ * load() memory-maps such a file read-only, as PatternDatabase.load() does. 
+ */
+public class DistanceOracle
+{
+	private static final int MAGIC = 0x4f524331;    // "ORC1"
+	private static final int UNSEEN = -1;
+	
+	private static final Move[] SINGLE_MOVES = {Move.LEFT, Move.RIGHT, Move.UP, Move.DOWN};
+	
+	private static final HashMap<Goal, DistanceOracle> oracles = new HashMap<>();
+	
+	private final Goal goal;
+	private final int tableBytes;        // length of each table
+	private final ByteBuffer tables;
+	private final int offset;            // position of the single-move table in tables
+	
+	
+	private DistanceOracle(Goal goal, ByteBuffer tables, int offset)
+	{
+		this.goal = goal;
+		this.tableBytes = tableBytes(goal.size());
+		this.tables = tables;
+		this.offset = offset;
+	}
+	
+	
+	/**
+	 * Return the oracle for a goal.  It is memory-mapped from the file named goal.fileName() + ".oracle" 
+	 * in PatternDatabase.cacheDir(), and generated first if the file does not exist. 
+	 * 
+	 * @param goal  goal of a board with at most 9 squares 
+	 * @return the oracle 
+	 * @throws IllegalArgumentException if the board has more than 9 squares 
+	 * @throws UncheckedIOException if the file cannot be read or written 
+	 */
+	public static DistanceOracle forGoal(Goal goal) throws IllegalArgumentException, UncheckedIOException
+	{
+		synchronized (oracles)
+		{
+			DistanceOracle oracle = oracles.get(goal);
+			if (oracle == null)
+			{
+				Path file;
+				try
+				{
+					file = PatternDatabase.cacheDir().resolve(goal.fileName() + ".oracle");
+					if (!Files.exists(file))
+					{
+						generate(goal, file);
+					}
+					oracle = load(file);
+				}
+				catch (IOException e)
+				{
+					throw new UncheckedIOException(e);
+				}
+				if (!oracle.goal.equals(goal))
+				{
+					throw new IllegalArgumentException(file + " was generated for " + oracle.goal);
+				}
+				oracles.put(goal, oracle);
+			}
+			return oracle;
+		}
+	}
+	
+	
+	/**
+	 * Solve the puzzle by following the oracle of s0's goal.  Double moves are allowed if h is 
+	 * DoubleMoveHeuristic, so the solution is optimal for the moves that EightPuzzle.AStar() uses 
+	 * with h. 
+	 * 
+	 * Precondition: the puzzle is solvable with the initial state s0. 
+	 * 
+	 * @param s0  initial state 
+	 * @param h   heuristic, which selects the moves and labels the solution 
+	 * @return    solution string in the format of EightPuzzle.solutionPath() 
+	 * @throws IllegalArgumentException if the board has more than 9 squares 
+	 */
+	public static String solve(State s0, Heuristic h) throws IllegalArgumentException
+	{
+		return EightPuzzle.solutionPath(goal(s0, h));
+	}
+	
+	
+	/**
+	 * Same as solve(s0, h) but returns the goal state, linked to s0 by its predecessors. 
+	 * 
+	 * @param s0  initial state 
+	 * @param h   heuristic, which selects the moves and labels the solution 
+	 * @return    the goal state 
+	 * @throws IllegalArgumentException if the board has more than 9 squares 
+	 */
+	static State goal(State s0, Heuristic h) throws IllegalArgumentException
+	{
+		return goal(s0, new SearchContext(h, s0.goal()));
+	}
+	
+	
+	/**
+	 * Same as goal(s0, h) but with the heuristic of the given context, which the goal state gets. 
+	 * 
+	 * @param s0       initial state 
+	 * @param context  context of this search 
+	 * @return    the goal state 
+	 * @throws IllegalArgumentException if the board has more than 9 squares 
+	 */
+	static State goal(State s0, SearchContext context) throws IllegalArgumentException
+	{
+		State goal = forGoal(s0.goal()).path(s0, context.heuristic == Heuristic.DoubleMoveHeuristic);
+		goal.context = context;    // labels the heuristic in the solution string
+		return goal;
+	}
+	
+	
+	/**
+	 * Follow the table from s0 to the goal, each time making the first move in Move order that leads 
+	 * to a configuration one move closer. 
+	 * 
+	 * @param s0           initial state 
+	 * @param doubleMoves  whether double moves are allowed 
+	 * @return the goal state at the end of a predecessor chain from a copy of s0, with numMoves set 
+	 *         to the length of an optimal solution 
+	 * @throws IllegalArgumentException if s0 is not solvable 
+	 */
+	public State path(State s0, boolean doubleMoves) throws IllegalArgumentException
+	{
+		if (!s0.solvable())
+		{
+			throw new IllegalArgumentException("no solution exists for the initial state");
+		}
+		MoveTable table = MoveTable.of(s0.goal().width(), doubleMoves);
+		State cur = (State) s0.clone();
+		cur.predecessor = null;
+		cur.move = null;
+		cur.numMoves = 0;
+		int d = entry(cur.packedBoard(), cur.packedBoardHigh(), doubleMoves);
+		while (!cur.isGoalState())
+		{
+			int closer = (d - 1) & 15;
+			State next = null;
+			for (Move m : table.moves(cur.blankIndex()))
+			{
+				next = cur.successor(m);
+				if (next != null && entry(next.packedBoard(), next.packedBoardHigh(), doubleMoves) == closer)
+				{
+					break;
+				}
+				next = null;
+			}
+			if (next == null)
+			{
+				throw new IllegalStateException("no move leads closer to the goal; the table is corrupt");
+			}
+			cur = next;
+			d = closer;
+		}
+		return cur;
+	}
+	
+	
+	/**
+	 * @param s            a solvable state 
+	 * @param doubleMoves  whether double moves are allowed 
+	 * @return the number of moves of an optimal solution from s 
+	 * @throws IllegalArgumentException if s is not solvable 
+	 */
+	public int distance(State s, boolean doubleMoves) throws IllegalArgumentException
+	{
+		return path(s, doubleMoves).numMoves;
+	}
+	
+	
+	/**
+	 * @param tiles        low long of a packed, solvable board configuration 
+	 * @param tilesHigh    high long of a packed, solvable board configuration 
+	 * @param doubleMoves  whether to read the table with double moves 
+	 * @return the distance of the configuration to the goal, modulo 16 
+	 */
+	public int entry(long tiles, long tilesHigh, boolean doubleMoves)
+	{
+		int r = rank(goal, tiles, tilesHigh);
+		int b = tables.get(offset + (doubleMoves ? tableBytes : 0) + (r >> 1));
+		return (r & 1) == 0 ? b & 15 : (b >> 4) & 15;
+	}
+	
+	
+	/**
+	 * @param goal 
+	 * @param tiles      low long of a packed board configuration 
+	 * @param tilesHigh  high long of a packed board configuration 
+	 * @return the square of the empty square times (n-1)!/2 plus the Lehmer code of the first n - 3 
+	 *         tiles in row-major order, in [0, n!/2) 
+	 */
+	private static int rank(Goal goal, long tiles, long tilesHigh)
+	{
+		int n = goal.size();
+		int used = 0;       // tiles ranked so far
+		int k = 0;          // number of tiles ranked so far 
+		int r = 0;
+		int blank = 0;
+		for (int i = 0; i < n; i++)
+		{
+			int t = goal.tileAt(tiles, tilesHigh, i);
+			if (t == 0)
+			{
+				blank = i;
+			}
+			else if (k < n - 3)
+			{
+				r = r * (n - 1 - k) + t - 1 - Integer.bitCount(used & ((1 << t) - 1));
+				used |= 1 << t;
+				k++;
+			}
+		}
+		return blank * (entries(n) / n) + r;
+	}
+	
+	
+	/**
+	 * Memory-map an oracle file written by generate(). 
+	 * 
+	 * @param file 
+	 * @return the oracle 
+	 * @throws IOException 
+	 * @throws IllegalArgumentException if the file is not an oracle 
+	 */
+	public static DistanceOracle load(Path file) throws IOException, IllegalArgumentException
+	{
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+			if (buf.getInt() != MAGIC)
+			{
+				throw new IllegalArgumentException(file + " is not a distance oracle");
+			}
+			int width = buf.getInt();
+			int[][] goalBoard = new int[width][width];
+			for (int i = 0; i < width * width; i++)
+			{
+				goalBoard[i / width][i % width] = buf.getInt();
+			}
+			Goal goal = new Goal(goalBoard);
+			if (buf.position() + 2L * tableBytes(goal.size()) != ch.size())
+			{
+				throw new IllegalArgumentException(file + " is truncated");
+			}
+			return new DistanceOracle(goal, buf, buf.position());
+		}
+	}
+	
+	
+	/**
+	 * Compute both tables and write the oracle to a file, atomically as 
+	 * PatternDatabase.writeAtomically() does. 
+	 * 
+	 * @param goal  goal of a board with at most 9 squares 
+	 * @param file 
+	 * @throws IOException 
+	 * @throws IllegalArgumentException if the board has more than 9 squares 
+	 */
+	public static void generate(Goal goal, Path file) throws IOException, IllegalArgumentException
+	{
+		int n = goal.size();
+		if (n > 9)
+		{
+			throw new IllegalArgumentException("a distance oracle needs n!/2 entries; too many for " + goal.width()
+					+ "x" + goal.width());
+		}
+		ByteBuffer buf = ByteBuffer.allocate(8 + 4 * n + 2 * tableBytes(n));
+		buf.putInt(MAGIC).putInt(goal.width());
+		int[][] goalBoard = goal.board();
+		for (int i = 0; i < n; i++)
+		{
+			buf.putInt(goalBoard[i / goal.width()][i % goal.width()]);
+		}
+		buf.put(generateTable(goal, SINGLE_MOVES));
+		buf.put(generateTable(goal, Move.values()));
+		buf.flip();
+		PatternDatabase.writeAtomically(buf, file);
+	}
+	
+	
+	/**
+	 * Breadth-first search from the goal. 
+	 * 
+	 * @param goal 
+	 * @param moves  allowed moves 
+	 * @return the table of distances modulo 16, packed two per byte 
+	 */
+	private static byte[] generateTable(Goal goal, Move[] moves)
+	{
+		int size = tableBytes(goal.size()) * 2;   // entries(n) rounded up to even
+		byte[] dist = new byte[size];
+		Arrays.fill(dist, (byte) UNSEEN);
+		State start = new State(goal.board(), goal);
+		dist[rank(goal, start.packedBoard(), start.packedBoardHigh())] = 0;
+		ArrayDeque<State> queue = new ArrayDeque<>();
+		queue.add(start);
+		while (!queue.isEmpty())
+		{
+			State s = queue.poll();
+			for (Move m : moves)
+			{
+				State t = s.isLegalMove(m) ? s.successor(m) : null;
+				if (t == null)
+				{
+					continue;
+				}
+				int r = rank(goal, t.packedBoard(), t.packedBoardHigh());
+				if (dist[r] == UNSEEN)
+				{
+					dist[r] = (byte) (t.numMoves & 15);
+					t.predecessor = null;
+					queue.add(t);
+				}
+			}
+		}
+		byte[] table = new byte[size / 2];
+		for (int r = 0; r < size; r += 2)
+		{
+			table[r >> 1] = (byte) (dist[r] & 15 | (dist[r + 1] & 15) << 4);
+		}
+		return table;
+	}
+	
+	
+	/**
+	 * @param n  number of squares, at least 2 
+	 * @return bytes needed to store entries(n) entries of 4 bits 
+	 */
+	private static int tableBytes(int n)
+	{
+		return (entries(n) + 1) / 2;
+	}
+	
+	
+	/**
+	 * @param n  number of squares, at least 2 
+	 * @return the number of solvable configurations, n!/2 
+	 */
+	private static int entries(int n)
+	{
+		int entries = 1;
+		for (int i = 3; i <= n; i++)
+		{
+			entries *= i;
+		}
+		return entries;
+	}
+}
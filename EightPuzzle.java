@@ -1,7 +1,18 @@
 package edu.iastate.cs472.proj1;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.BiFunction;
 
 /**
  *  
@@ -11,6 +22,28 @@ import java.util.Arrays;
 
 public class EightPuzzle 
 {
+	// Threads for the three searches of solve8Puzzle(), one per processor, so that many callers at 
+	// once run no more searches than there are processors.  Batch workers do not use it; they run 
+	// their searches one after another by passing Runnable::run to solutionGoals().  The threads do 
+	// not keep the JVM alive. 
+	private static final ExecutorService heuristics = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(), r -> 
+	{
+		Thread t = new Thread(r, "heuristic");
+		t.setDaemon(true);
+		return t;
+	});
+	
+	// Threads for the searches of race().  The pool grows as needed, so the searches of a race never 
+	// wait for each other, and its threads do not keep the JVM alive. 
+	private static final ExecutorService searches = Executors.newCachedThreadPool(r -> 
+	{
+		Thread t = new Thread(r, "search");
+		t.setDaemon(true);
+		return t;
+	});
+	
+	
 	/**
 	 * This static method solves an 8-puzzle with a given initial state using three heuristics. The 
 	 * first two, allowing single moves only, compare the board configuration with the goal configuration 
@@ -26,6 +59,145 @@ public class EightPuzzle
 	 * @return a string specified in the javadoc below
 	 */
 	public static String solve8Puzzle(State s0)
+	{
+		return solve8Puzzle(s0, SearchMode.AStar);
+	}
+	
+	
+	/**
+	 * Same as solve8Puzzle(s0) but solves the puzzle with the given search algorithm.  The three 
+	 * searches run in parallel, each on its own copy of s0, on a pool shared by all callers with a 
+	 * thread per processor. 
+	 * 
+	 * @param s0
+	 * @param mode  search algorithm
+	 * @return a string specified in the javadoc of solve8Puzzle(s0)
+	 */
+	public static String solve8Puzzle(State s0, SearchMode mode)
+	{
+		return solve8Puzzle(s0, mode, TieBreaking.LIFO);
+	}
+	
+	
+	/**
+	 * Same as solve8Puzzle(s0, mode) but orders the states of equal cost on OPEN as ties says. 
+	 * 
+	 * @param s0
+	 * @param mode  search algorithm
+	 * @param ties  tie-breaking of the searches 
+	 * @return a string specified in the javadoc of solve8Puzzle(s0)
+	 */
+	public static String solve8Puzzle(State s0, SearchMode mode, TieBreaking ties)
+	{
+		StringBuilder sb = new StringBuilder();
+		try
+		{
+			solve8Puzzle(s0, mode, ties, SolutionFormat.Full, sb);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);   // a StringBuilder does not throw
+		}
+		return sb.toString();
+	}
+	
+	
+	/**
+	 * Same as solve8Puzzle(s0, mode, ties) but writes the result to out in the given format instead 
+	 * of building one string.  With SolutionFormat.Full the text written is the string returned by 
+	 * solve8Puzzle(s0, mode, ties). 
+	 * 
+	 * @param s0
+	 * @param mode    search algorithm
+	 * @param ties    tie-breaking of the searches 
+	 * @param format  format of each solution 
+	 * @param out     destination of the text 
+	 * @throws IOException if out throws 
+	 */
+	public static void solve8Puzzle(State s0, SearchMode mode, TieBreaking ties, SolutionFormat format, 
+			Appendable out) throws IOException
+	{
+		writeSolutions(s0, solutionGoals(s0, mode, null, ties, heuristics), format, out);
+	}
+	
+	
+	/**
+	 * Run the three searches of solve8Puzzle(s0, mode, ties) on the given executor and return the goal 
+	 * states they reach, whose predecessor chains are the solutions, for writeSolutions().  With 
+	 * Runnable::run the searches run one after another on the calling thread, which is what a thread 
+	 * of a bounded pool such as that of BatchSolver should do. 
+	 * 
+	 * @param s0
+	 * @param mode      search algorithm
+	 * @param listener  listener of the three searches, or null for none 
+	 * @param ties      tie-breaking of the three searches 
+	 * @param executor  executor running the searches 
+	 * @return the goal state of each heuristic, an element being null if that search failed, or null 
+	 *         if the puzzle has no solution 
+	 */
+	static State[] solutionGoals(State s0, SearchMode mode, SearchListener listener, TieBreaking ties, 
+			Executor executor)
+	{
+		if(!s0.solvable())
+		{
+			return null;
+		}
+		Heuristic h[] = {Heuristic.TileMismatch, Heuristic.ManhattanDist, Heuristic.DoubleMoveHeuristic };
+		Future<?>[] running = new Future<?>[3];
+		for (int i = 0; i < 3; i++)
+		{
+			State copy = (State) s0.clone();
+			Heuristic heu = h[i];
+			FutureTask<State> task = new FutureTask<>(() -> mode.goal(copy, heu, listener, ties));
+			executor.execute(task);
+			running[i] = task; 
+		}
+		State[] goals = new State[3];
+		for (int i = 0; i < 3; i++)
+		{
+			goals[i] = (State) await(running[i]);
+		}
+		return goals;
+	}
+	
+	
+	/**
+	 * Write the result of solve8Puzzle() for s0 from the goal states of its searches. 
+	 * 
+	 * @param s0
+	 * @param goals   as returned by solutionGoals() 
+	 * @param format  format of each solution 
+	 * @param out     destination of the text 
+	 * @throws IOException if out throws 
+	 */
+	static void writeSolutions(State s0, State[] goals, SolutionFormat format, Appendable out) 
+			throws IOException
+	{
+		if (goals == null)
+		{
+			out.append("No solution exists for the following initial state:").append("\n\n").append(s0.toString());
+			return;
+		}
+		for (int i = 0; i < goals.length; i++)
+		{
+			if (i > 0)
+			{
+				out.append("\n\n");
+			}
+			writeSolution(goals[i], format, out);
+		}
+	}
+	
+	
+	/**
+	 * Same as solve8Puzzle(s0) but solves the puzzle for each heuristic with the given function, such 
+	 * as SearchMode.solve() or SolutionCache.solve(). 
+	 * 
+	 * @param s0
+	 * @param solver  function from the initial state and a heuristic to a solution string 
+	 * @return a string specified in the javadoc of solve8Puzzle(s0)
+	 */
+	public static String solve8Puzzle(State s0, BiFunction<State, Heuristic, String> solver)
 	{
 		if(!s0.solvable())
 		{
@@ -44,9 +216,16 @@ public class EightPuzzle
 		Heuristic h[] = {Heuristic.TileMismatch, Heuristic.ManhattanDist, Heuristic.DoubleMoveHeuristic };
 		String [] moves = new String[3]; 
 		
+		Future<?>[] running = new Future<?>[3];
+		for (int i = 0; i < 3; i++)
+		{
+			State copy = (State) s0.clone();
+			Heuristic heu = h[i];
+			running[i] = heuristics.submit(() -> solver.apply(copy, heu)); 
+		}
 		for (int i = 0; i < 3; i++)
 		{
-			moves[i] = AStar(s0, h[i]); 
+			moves[i] = (String) await(running[i]);
 		}
 		
 		// 3) Combine the three solution strings into one that would print out in the 
@@ -56,6 +235,82 @@ public class EightPuzzle
 	}
 
 	
+	/**
+	 * Portfolio search: run A* with every admissible single-move heuristic (TileMismatch, ManhattanDist 
+	 * and PatternDatabase) in parallel, return the solution of the one that finishes first and cancel 
+	 * the others.  All of them find optimal solutions, so only the path may depend on which one wins. 
+	 * 
+	 * @param s0  initial state 
+	 * @return the solution string of the first search to finish, or the message of solve8Puzzle() if 
+	 *         no solution exists 
+	 */
+	public static String race(State s0)
+	{
+		if(!s0.solvable())
+		{
+			return "No solution exists for the following initial state:" + "\n\n" + s0.toString();
+		}
+		Heuristic h[] = {Heuristic.TileMismatch, Heuristic.ManhattanDist, Heuristic.PatternDatabase};
+		SearchContext[] contexts = new SearchContext[h.length];
+		CompletionService<String> done = new ExecutorCompletionService<>(searches);
+		for (int i = 0; i < h.length; i++)
+		{
+			SearchContext context = new SearchContext(h[i], s0.goal());
+			State copy = (State) s0.clone();
+			contexts[i] = context;
+			done.submit(() -> AStar(copy, context));
+		}
+		try
+		{
+			return (String) await(done.take());
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted", e);
+		}
+		finally
+		{
+			for (SearchContext context : contexts)
+			{
+				context.cancel();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Wait for a search run on another thread, rethrowing what it threw. 
+	 * 
+	 * @param f  future of the search 
+	 * @return its result 
+	 */
+	private static Object await(Future<?> f)
+	{
+		try
+		{
+			return f.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted", e);
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof RuntimeException r)
+			{
+				throw r;
+			}
+			if (e.getCause() instanceof Error err)
+			{
+				throw err;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+	
+	
 	/**
 	 * This method implements the A* algorithm to solve the 8-puzzle with an input initial state s0. 
 	 * The algorithm implementation is described in Section 3 of the project description. 
@@ -68,72 +323,203 @@ public class EightPuzzle
 	 */
 	public static String AStar(State s0, Heuristic h)
 	{
-		// Initialize the two lists used by the algorithm. 
-		OrderedStateList OPEN = new OrderedStateList(h, true); 
-		OrderedStateList CLOSE = new OrderedStateList(h, false);
-		Move[] moves = new Move[0];
-		if(h == Heuristic.TileMismatch || h == Heuristic.ManhattanDist)
-		{
-			moves = new Move[]{Move.LEFT, Move.RIGHT, Move.UP, Move.DOWN};
-		}
-		else if (h == Heuristic.DoubleMoveHeuristic)
+		return AStar(s0, new SearchContext(h, s0.goal()));
+	}
+	
+	
+	/**
+	 * Weighted A*: same as AStar(s0, h) but with the cost g + floor(weight * h) of each state, which 
+	 * expands fewer states.  If h is admissible, the solution is at most weight times as long as the 
+	 * shortest one. 
+	 * 
+	 * @param s0      initial state
+	 * @param h       heuristic 
+	 * @param weight  factor of the heuristic, at least 1 
+	 * @return    solution string 
+	 * @throws IllegalArgumentException if weight is less than 1 
+	 */
+	public static String AStar(State s0, Heuristic h, double weight) throws IllegalArgumentException
+	{
+		return AStar(s0, new SearchContext(h, s0.goal(), weight));
+	}
+	
+	
+	/**
+	 * Same as AStar(s0, h) but within the given search context, which supplies the heuristic and its 
+	 * weight and collects the SearchStats of the search in context.stats. 
+	 * 
+	 * @param s0       initial state
+	 * @param context  context of this search 
+	 * @return    solution string 
+	 */
+	public static String AStar(State s0, SearchContext context)
+	{
+		return AStar(s0, context, FrontierType.BucketQueue);
+	}
+	
+	
+	/**
+	 * Same as AStar(s0, context) but with the given implementation of the OPEN list.  The search 
+	 * works on a copy of s0. 
+	 * 
+	 * @param s0       initial state
+	 * @param context  context of this search 
+	 * @param f        implementation of the OPEN list
+	 * @return    solution string 
+	 */
+	public static String AStar(State s0, SearchContext context, FrontierType f)
+	{
+		State goal = search((State) s0.clone(), context, f.create(context));
+		if (goal == null)
 		{
-			moves = Move.values();
+			return context.isCancelled() ? "search cancelled" : "OPEN list empty, exit with failure";
 		}
+		return solutionPath(goal);
+	}
+	
+	
+	/**
+	 * Run the A* algorithm with a caller-supplied, empty OPEN list created for the same context.   
+	 * 
+	 * @param s0       initial state, which is added to OPEN 
+	 * @param context  context of this search 
+	 * @param OPEN     empty OPEN list 
+	 * @return      the goal state reached, or null if OPEN runs empty or the search is cancelled 
+	 */
+	static State search(State s0, SearchContext context, Frontier OPEN)
+	{
+		// Expanded states are only ever looked up by board, so CLOSED is kept as a hash index alone 
+		// rather than as a lexicographically sorted OrderedStateList.  
+		StateIndex CLOSE = new StateIndex();
+		MoveTable moveTable = context.moveTable;
+		SearchStats stats = context.stats;
+		SearchListener listener = context.listener;
+		boolean timed = listener != null && listener.timed(); 
+		long start = System.nanoTime();
 
-		// Implement the algorithm described in Section 3 to solve the puzzle. 
-		// Once a goal state s is reached, call solutionPath(s) and return the solution string.
 		OPEN.addState(s0);
 		while(OPEN.size() > 0)
 		{
+			if(context.isCancelled())
+			{
+				break;
+			}
+			long t0 = timed ? System.nanoTime() : 0;
 			State popped = OPEN.remove();
+			stats.expanded++;
 			if(popped.isGoalState())
 			{
-				return solutionPath(popped);
+				context.finished(popped, start);
+				return popped;
+			}
+			CLOSE.put(popped);
+			if(timed)
+			{
+				stats.queueNanos += System.nanoTime() - t0;
 			}
-			else
+			if(listener != null)
 			{
-				CLOSE.addState(popped);
-				for (Move m : moves)
+				listener.expanded(context, popped);
+			}
+			for (Move m : moveTable.moves(popped.blankIndex()))
+			{
+				long t1 = timed ? System.nanoTime() : 0;
+				State child = popped.successor(m);
+				if(child == null)
+				{
+					continue;
+				}
+				stats.generated++;
+				long t2 = 0;
+				if(timed)
 				{
-					State child = popped.successorState(m);
-					if(child != null)
+					child.cost();
+					t2 = System.nanoTime();
+					stats.evaluationNanos += t2 - t1;
+				}
+				State old_open = OPEN.findState(child);
+				State old_close = old_open == null ? CLOSE.get(child) : null;
+				if(old_open != null)
+				{
+					// decrease-key: reroute the state already on OPEN through popped 
+					stats.duplicatesOpen++;
+					if(old_open.compareTo(child) == 1)
 					{
-						child.cost();
-						State old_open = OPEN.findState(child);
-						State old_close = CLOSE.findState(child);
-						if(OPEN.findState(child) == null && CLOSE.findState(child) == null)
-						{
-							OPEN.addState(child);
-						}
-						if(old_open != null)
-						{
-							if(old_open.compareTo(child) == 1)
-							{
-								child.predecessor = popped;
-							}
-						}
-						if(old_close != null)
-						{
-							if(old_close.compareTo(child) == 1)
-							{
-								child.predecessor = popped;
-								OPEN.addState(child);
-								CLOSE.removeState(child);
-							}
-						}
+						old_open.predecessor = popped;
+						old_open.move = child.move;
+						old_open.numMoves = child.numMoves;
+						OPEN.update(old_open);
 					}
 				}
+				else if(old_close != null)
+				{
+					stats.duplicatesClosed++;
+					if(old_close.compareTo(child) == 1)
+					{
+						stats.reopened++;
+						CLOSE.remove(old_close);
+						OPEN.addState(child);
+					}
+				}
+				else
+				{
+					OPEN.addState(child);
+				}
+				if(timed)
+				{
+					stats.queueNanos += System.nanoTime() - t2;
+				}
 			}
+			stats.sizes(OPEN.size(), CLOSE.size());
+		}
+		context.finished(null, start);
+		return null;
+	}
+	
+	
+	
+	/**
+	 * @param h  heuristic 
+	 * @return the moves allowed with heuristic h: single and double moves for DoubleMoveHeuristic, 
+	 *         single moves only otherwise 
+	 */
+	static Move[] moves(Heuristic h)
+	{
+		if (h == Heuristic.DoubleMoveHeuristic)
+		{
+			return Move.values();
 		}
-		return "OPEN list empty, exit with failure";
+		return new Move[]{Move.LEFT, Move.RIGHT, Move.UP, Move.DOWN};
 	}
 	
 	
+	/**
+	 * Apply a sequence of moves to a copy of s0, linking every state to its predecessor, so that the 
+	 * result can be passed to solutionPath(). 
+	 * 
+	 * Precondition: every move is legal and no move undoes the one before it. 
+	 * 
+	 * @param s0       initial state
+	 * @param context  context given to the copy of s0 and thus to every state on the path 
+	 * @param moves  
+	 * @param count    number of moves to apply from the start of moves 
+	 * @return the last state 
+	 */
+	static State replay(State s0, SearchContext context, Move[] moves, int count)
+	{
+		State cur = (State) s0.clone();
+		cur.context = context;
+		for (int k = 0; k < count; k++)
+		{
+			cur = cur.successorState(moves[k]);
+		}
+		return cur;
+	}
+	
 	
 	/**
 	 * From a goal state, follow the predecessor link to trace all the way back to the initial state. 
-	 * Meanwhile, generate a string to represent board configurations in the reverse order, with 
+	 * Then generate a string to represent the board configurations in order, with 
 	 * the initial configuration appearing first. Between every two consecutive configurations 
 	 * is the move that causes their transition. A blank line separates a move and a configuration.  
 	 * In the string, the sequence is preceded by the total number of moves and a blank line. 
@@ -145,33 +531,103 @@ public class EightPuzzle
 	 * @param goal
 	 * @return
 	 */
-	private static String solutionPath(State goal)
+	static String solutionPath(State goal)
 	{
-		State cur = goal;
 		StringBuilder sb = new StringBuilder();
+		try
+		{
+			writeSolution(goal, SolutionFormat.Full, sb);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);   // a StringBuilder does not throw
+		}
+		return sb.toString();
+	}
+	
+	
+	/**
+	 * Write the solution path ending in goal to out.  The path is collected into an array once and 
+	 * written from the initial state forward, so the time is linear in its length. 
+	 * 
+	 * @param goal    goal state, or null if the search failed 
+	 * @param format  SolutionFormat.Full for the text of solutionPath(goal) 
+	 * @param out     destination of the text 
+	 * @throws IOException if out throws 
+	 */
+	static void writeSolution(State goal, SolutionFormat format, Appendable out) throws IOException
+	{
+		if (goal == null)
+		{
+			out.append("OPEN list empty, exit with failure");
+			return;
+		}
 		int count = 0;
+		for (State cur = goal; cur.predecessor != null; cur = cur.predecessor)
+		{
+			count++;
+		}
+		State[] path = new State[count + 1];
+		State cur = goal;
+		for (int k = count; k >= 0; k--)
+		{
+			path[k] = cur;
+			cur = cur.predecessor;
+		}
+		
+		out.append(count + " moves in total (heuristic: " + label(goal.context.heuristic) + ")\n\n");
+		out.append(path[0].toString());
+		if (format == SolutionFormat.MovesOnly)
+		{
+			if (count > 0)
+			{
+				out.append("\n");      // toString() ends in a line break
+			}
+			for (int k = 1; k <= count; k++)
+			{
+				out.append(k > 1 ? " " : "").append(path[k].move.toString());
+			}
+			return;
+		}
+		for (int k = 1; k <= count; k++)
+		{
+			out.append("\n").append(path[k].move.toString());
+			out.append("\n\n").append(path[k].toString());
+		}
+	}
+	
+	
+	/**
+	 * @param heu 
+	 * @return the name of the heuristic in the first line of a solution 
+	 */
+	static String label(Heuristic heu)
+	{
 		String h = "";
-		if(State.heu == Heuristic.TileMismatch)
+		if(heu == Heuristic.TileMismatch)
 		{
 			h = "number of mismatched tiles";
 		}
-		else if (State.heu == Heuristic.ManhattanDist)
+		else if (heu == Heuristic.ManhattanDist)
 		{
 			h = "the Manhattan distance";
 		}
-		else
+		else if (heu == Heuristic.PatternDatabase)
 		{
-			h = "double moves allowed";
+			h = "pattern database";
 		}
-		while(cur.predecessor != null)
+		else if (heu == Heuristic.LinearConflict)
 		{
-			sb.insert(0,"\n\n" + cur.toString());
-			sb.insert(0,"\n" + cur.move);
-			cur = cur.predecessor;
-			count++;
+			h = "linear conflict";
 		}
-		sb.insert(0,cur.toString());
-		sb.insert(0,count + " moves in total (heuristic: " + h + ")\n\n");
-		return sb.toString();
+		else if (heu == Heuristic.WalkingDistance)
+		{
+			h = "walking distance";
+		}
+		else
+		{
+			h = "double moves allowed";
+		}
+		return h;
 	}
 }
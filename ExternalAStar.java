@@ -0,0 +1,920 @@
+package edu.iastate.cs472.proj1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * This class implements External A*, which keeps OPEN and CLOSED in files on disk instead of in 
+ * memory, so that the size of a search is bounded by the disk rather than the heap.  The nodes are 
+ * kept in buckets by their number of moves g and heuristic value h, one file per bucket, each 
+ * record 16 bytes: the packed board as described in Goal, with the move from the parent in the 3 
+ * bits the high long never uses. 
+ * 
+ * The buckets are taken in order of f = g + h and then of g.  A successor of a node in bucket (g, h) 
+ * goes to bucket (g + 1, h'), where h' >= h - 1 if h is consistent, and is raised to h - 1 otherwise 
+ * (pathmax), so every bucket is complete when it is taken.  Duplicates are not looked up as the 
+ * nodes are generated but when the bucket is taken (delayed duplicate detection): the bucket is 
+ * sorted by board in runs that fit in the memory budget, and the runs are merged into a layer file 
+ * that keeps one record per board and none of the boards of the layers (g - 1, h) and (g - 2, h), 
+ * which in an undirected graph of unit moves are the only earlier layers a duplicate with the same 
+ * h can come from.  The layer file is then read in order to expand its nodes into the buckets of 
+ * their successors.  A duplicate on a longer path that escapes this is expanded again, which costs 
+ * time but not optimality. 
+ * 
+ * When the goal comes up in a layer, the solution is traced back from the move codes: undoing the 
+ * move of a node gives the board of its parent, which is found by binary search in the sorted layer 
+ * files of the depth before, and only the solution path is made into State objects. 
+ * 
+ * The memory budget bounds the records sorted at a time and the files open at a time, each with a 
+ * buffer of BUFFER bytes: the runs of a bucket are merged memory / BUFFER - 3 at a time (at least 2, 
+ * at most MAX_FAN_IN), in as many passes as needed, picking the next record from a heap of the 
+ * runs.  Bytes read and written are counted by f-layer, see layers().  The files are made in a new 
+ * directory in the given one and deleted when the search returns.  The heuristic is not weighted, 
+ * whatever the weight of the context. 
+ */
+public class ExternalAStar
+{
+	public static final long DEFAULT_MEMORY = 64L << 20;   // bytes of records sorted at a time
+	public static final int BUFFER = 1 << 16;              // bytes of the buffer of an open file
+	public static final int MAX_FAN_IN = 256;              // most runs merged at a time
+	
+	private static final int RECORD = 16;                  // bytes per record
+	private static final int CODE_BITS = 3;                // bits of the move code below the high long
+	private static final int CODE_MASK = (1 << CODE_BITS) - 1;
+	
+	private final SearchContext context;
+	private final Goal goal;
+	private final MoveTable table;
+	private final Move[] all = Move.values();
+	private final Path parent;
+	private final long memory;
+	
+	private Path dir;
+	private final TreeMap<Long, Bucket> pending = new TreeMap<>();     // buckets not taken yet by (f, g)
+	private final Map<Integer, List<Path>> done = new HashMap<>();    // layer files by g
+	private final List<Layer> layers = new ArrayList<>();
+	private Layer layer;            // the f-layer being searched
+	private long taken = -1;        // key of the bucket taken last
+	private long held = 0;          // records in the files of pending buckets
+	private long closed = 0;        // records in the layer files
+	
+	
+	/**
+	 * Work and I/O of the search of one f-layer, i.e., of the buckets with the same f. 
+	 */
+	public static class Layer
+	{
+		public final int f;
+		public long expanded = 0;          // nodes expanded
+		public long generated = 0;         // successors written to buckets
+		public long duplicates = 0;        // records dropped by duplicate detection
+		public long bytesRead = 0;
+		public long bytesWritten = 0;
+		
+		Layer(int f)
+		{
+			this.f = f;
+		}
+	}
+	
+	
+	/**
+	 * A bucket of OPEN, with the file its records are appended to until it is taken. 
+	 */
+	private class Bucket
+	{
+		final int g;
+		final int h;
+		final RecordWriter out;
+		long records = 0;
+		
+		Bucket(int g, int h) throws IOException
+		{
+			this.g = g;
+			this.h = h;
+			this.out = new RecordWriter(dir.resolve(g + "-" + h + ".open"));
+		}
+		
+		void add(long low, long key) throws IOException
+		{
+			out.write(low, key);
+			records++;
+			held++;
+		}
+	}
+	
+	
+	/**
+	 * @param context  context of the search 
+	 * @param dir      directory in which to make the directory of the files 
+	 * @param memory   bytes of records sorted at a time, at least BUFFER 
+	 * @throws IllegalArgumentException if memory is less than BUFFER, or the heuristic of the context 
+	 *                                  cannot be evaluated on a packed board 
+	 */
+	public ExternalAStar(SearchContext context, Path dir, long memory) throws IllegalArgumentException
+	{
+		if (memory < BUFFER)
+		{
+			throw new IllegalArgumentException("memory budget must be at least " + BUFFER + " bytes");
+		}
+		if (context.heuristic == Heuristic.WalkingDistance && context.goal.width() > 4)
+		{
+			throw new IllegalArgumentException("WalkingDistance needs a board of width up to 4");
+		}
+		this.context = context;
+		this.goal = context.goal;
+		this.table = context.moveTable;
+		this.parent = dir;
+		this.memory = memory;
+	}
+	
+	
+	/**
+	 * Solve the puzzle with External A* in the temporary directory and a budget of DEFAULT_MEMORY. 
+	 * 
+	 * Precondition: the puzzle is solvable with the initial state s0. 
+	 * 
+	 * @param s0  initial state 
+	 * @param h   heuristic 
+	 * @return    solution string in the format of EightPuzzle.solutionPath() 
+	 * @throws UncheckedIOException if a file cannot be read or written 
+	 */
+	public static String solve(State s0, Heuristic h) throws UncheckedIOException
+	{
+		SearchContext context = new SearchContext(h, s0.goal());
+		State goal = new ExternalAStar(context, Path.of(System.getProperty("java.io.tmpdir")), DEFAULT_MEMORY).search(s0);
+		if (goal == null)
+		{
+			return context.isCancelled() ? "search cancelled" : "OPEN list empty, exit with failure";
+		}
+		return EightPuzzle.solutionPath(goal);
+	}
+	
+	
+	/**
+	 * Run External A* from s0.  An ExternalAStar object runs one search. 
+	 * 
+	 * @param s0  initial state 
+	 * @return the goal state reached, linked to a copy of s0 by its predecessors, or null if OPEN runs 
+	 *         empty or the search is cancelled 
+	 * @throws UncheckedIOException if a file cannot be read or written 
+	 * @throws IllegalStateException if the search has been run before 
+	 */
+	public State search(State s0) throws UncheckedIOException, IllegalStateException
+	{
+		if (dir != null)
+		{
+			throw new IllegalStateException("search already run");
+		}
+		long start = System.nanoTime();
+		State goal = null;
+		try
+		{
+			dir = Files.createTempDirectory(parent, "external");
+			try
+			{
+				Move[] path = run(s0);
+				if (path != null)
+				{
+					goal = EightPuzzle.replay(s0, context, path, path.length);
+				}
+			}
+			finally
+			{
+				for (Bucket b : pending.values())
+				{
+					b.out.close();
+				}
+				try (Stream<Path> files = Files.list(dir))
+				{
+					for (Path p : (Iterable<Path>) files::iterator)
+					{
+						Files.delete(p);
+					}
+				}
+				Files.delete(dir);
+			}
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		context.finished(goal, start);
+		return goal;
+	}
+	
+	
+	/**
+	 * @return the f-layers searched, in order 
+	 */
+	public List<Layer> layers()
+	{
+		return Collections.unmodifiableList(layers);
+	}
+	
+	
+	/**
+	 * @param s0  initial state 
+	 * @return the moves of a solution, or null if there is none 
+	 */
+	private Move[] run(State s0) throws IOException
+	{
+		long low0 = s0.packedBoard();
+		long high0 = s0.packedBoardHigh();
+		int h0 = heuristic(low0, high0);
+		layer = new Layer(h0);
+		layers.add(layer);
+		bucket(0, h0).add(low0, high0 << CODE_BITS);
+		while (!pending.isEmpty())
+		{
+			Map.Entry<Long, Bucket> entry = pending.pollFirstEntry();
+			Bucket b = entry.getValue();
+			taken = entry.getKey();
+			if (layer.f != b.g + b.h)
+			{
+				layer = new Layer(b.g + b.h);
+				layers.add(layer);
+			}
+			b.out.close();
+			held -= b.records;
+			Path file = merge(b);
+			done.computeIfAbsent(b.g, g -> new ArrayList<>()).add(file);
+			Move[] path = expand(b, file);
+			if (path != null || context.isCancelled())
+			{
+				return path;
+			}
+		}
+		return null;
+	}
+	
+	
+	/**
+	 * @return the pending bucket (g, h), made if there is none 
+	 * @throws IllegalStateException if the bucket has been taken already, which a consistent or 
+	 *                               pathmax-corrected heuristic rules out 
+	 */
+	private Bucket bucket(int g, int h) throws IOException
+	{
+		long key = (long) (g + h) << 32 | g;
+		Bucket b = pending.get(key);
+		if (b == null)
+		{
+			if (key <= taken)
+			{
+				throw new IllegalStateException("bucket (" + g + ", " + h + ") already taken");
+			}
+			b = new Bucket(g, h);
+			pending.put(key, b);
+		}
+		return b;
+	}
+	
+	
+	/**
+	 * Sort the records of bucket b in runs of the memory budget and merge them into its layer file, 
+	 * dropping duplicates and the boards of the layers (g - 1, h) and (g - 2, h).  While there are 
+	 * more runs than fanIn(), groups of fanIn() runs are merged into longer runs first. 
+	 * 
+	 * @return the layer file 
+	 */
+	private Path merge(Bucket b) throws IOException
+	{
+		String name = b.g + "-" + b.h;
+		Path open = dir.resolve(name + ".open");
+		int capacity = (int) Math.min(memory / RECORD, Integer.MAX_VALUE / 2);
+		long[] records = new long[2 * (int) Math.min(capacity, b.records)];
+		List<Path> runs = new ArrayList<>();
+		try (RecordReader in = new RecordReader(open))
+		{
+			for (long left = b.records; left > 0; )
+			{
+				int n = (int) Math.min(left, capacity);
+				for (int i = 0; i < n; i++)
+				{
+					in.next();
+					records[2 * i] = in.low;
+					records[2 * i + 1] = in.key;
+				}
+				left -= n;
+				sort(records, 0, n - 1);
+				Path run = dir.resolve(name + ".run0-" + runs.size());
+				try (RecordWriter out = new RecordWriter(run))
+				{
+					for (int i = 0; i < n; i++)
+					{
+						out.write(records[2 * i], records[2 * i + 1]);
+					}
+				}
+				runs.add(run);
+			}
+		}
+		records = null;
+		Files.delete(open);
+		
+		int fanIn = fanIn();
+		for (int pass = 1; runs.size() > fanIn; pass++)
+		{
+			List<Path> merged = new ArrayList<>();
+			for (int i = 0; i < runs.size(); i += fanIn)
+			{
+				List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+				Path run = dir.resolve(name + ".run" + pass + "-" + merged.size());
+				try (Merge in = new Merge(group); RecordWriter out = new RecordWriter(run))
+				{
+					while (in.next())
+					{
+						out.write(in.low, in.key);
+					}
+				}
+				for (Path p : group)
+				{
+					Files.delete(p);
+				}
+				merged.add(run);
+			}
+			runs = merged;
+		}
+		
+		Path file = dir.resolve(name + ".layer");
+		RecordReader[] older = new RecordReader[2];
+		try (Merge in = new Merge(runs); RecordWriter out = new RecordWriter(file))
+		{
+			for (int d = 1; d <= 2; d++)
+			{
+				Path p = dir.resolve((b.g - d) + "-" + b.h + ".layer");
+				if (b.g - d >= 0 && Files.exists(p))
+				{
+					older[d - 1] = new RecordReader(p);
+					older[d - 1].next();
+				}
+			}
+			while (in.next())
+			{
+				long low = in.low;
+				long key = in.key;
+				boolean old = false;
+				for (RecordReader r : older)
+				{
+					while (r != null && r.more && compareBoards(r.low, r.key, low, key) < 0)
+					{
+						r.next();
+					}
+					old |= r != null && r.more && sameBoard(r.low, r.key, low, key);
+				}
+				if (old)
+				{
+					layer.duplicates++;
+					context.stats.duplicatesClosed++;
+					continue;
+				}
+				out.write(low, key);
+			}
+		}
+		finally
+		{
+			for (RecordReader r : older)
+			{
+				if (r != null)
+				{
+					r.close();
+				}
+			}
+		}
+		for (Path run : runs)
+		{
+			Files.delete(run);
+		}
+		closed += Files.size(file) / RECORD;
+		return file;
+	}
+	
+	
+	/**
+	 * @return the number of runs merged at a time: the files whose buffers fit in the memory budget, 
+	 *         less the layer file written and the two layer files read by the last pass, but at 
+	 *         least 2 and at most MAX_FAN_IN 
+	 */
+	private int fanIn()
+	{
+		return (int) Math.max(2, Math.min(memory / BUFFER - 3, MAX_FAN_IN));
+	}
+	
+	
+	/**
+	 * Expand the nodes of a layer file into the buckets of their successors. 
+	 * 
+	 * @param b     the bucket of the layer 
+	 * @param file  its layer file 
+	 * @return the moves of a solution if the goal is in the layer, null otherwise 
+	 */
+	private Move[] expand(Bucket b, Path file) throws IOException
+	{
+		SearchStats stats = context.stats;
+		SearchListener listener = context.listener;
+		long goalLow = goal.packedLow();
+		long goalHigh = goal.packedHigh();
+		int mask = goal.mask();
+		try (RecordReader in = new RecordReader(file))
+		{
+			while (in.next())
+			{
+				if (context.isCancelled())
+				{
+					return null;
+				}
+				long low = in.low;
+				long high = in.key >>> CODE_BITS;
+				stats.expanded++;
+				layer.expanded++;
+				if (low == goalLow && high == goalHigh)
+				{
+					return path(b.g, low, in.key);
+				}
+				int blank = blank(low, high);
+				if (listener != null)
+				{
+					State s = new State(goal, low, high, blank);
+					s.context = context;
+					s.numMoves = b.g;
+					listener.expanded(context, s);
+				}
+				Move back = b.g == 0 ? null : all[(int) in.key & CODE_MASK].inverse();
+				for (Move m : table.moves(blank))
+				{
+					if (m == back)
+					{
+						continue;
+					}
+					long t = low;
+					long th = high;
+					int step = table.step(m);
+					int to = blank;
+					for (int k = 0; k < m.numTiles(); k++)
+					{
+						int from = to + step;
+						int tile = goal.tileAt(t, th, from);
+						t = (t | goal.low(tile, to)) & ~goal.low(mask, from);
+						th = (th | goal.high(tile, to)) & ~goal.high(mask, from);
+						to = from;
+					}
+					int h = Math.max(heuristic(t, th), b.h - 1);
+					bucket(b.g + 1, h).add(t, th << CODE_BITS | m.ordinal());
+					stats.generated++;
+					layer.generated++;
+				}
+				stats.sizes((int) Math.min(held, Integer.MAX_VALUE), (int) Math.min(closed, Integer.MAX_VALUE));
+			}
+		}
+		return null;
+	}
+	
+	
+	/**
+	 * Trace the solution back from the goal through the layer files. 
+	 * 
+	 * @param g     number of moves of the goal node 
+	 * @param low   low long of its board 
+	 * @param key   its record key: high long and move code 
+	 * @return the moves from the initial state to the goal 
+	 */
+	private Move[] path(int g, long low, long key) throws IOException
+	{
+		Move[] path = new Move[g];
+		int mask = goal.mask();
+		for (int d = g; d > 0; d--)
+		{
+			Move m = all[(int) key & CODE_MASK];
+			path[d - 1] = m;
+			long high = key >>> CODE_BITS;
+			Move back = m.inverse();
+			int step = table.step(back);
+			int to = blank(low, high);
+			for (int k = 0; k < back.numTiles(); k++)
+			{
+				int from = to + step;
+				int tile = goal.tileAt(low, high, from);
+				low = (low | goal.low(tile, to)) & ~goal.low(mask, from);
+				high = (high | goal.high(tile, to)) & ~goal.high(mask, from);
+				to = from;
+			}
+			key = find(d - 1, low, high);
+		}
+		return path;
+	}
+	
+	
+	/**
+	 * Binary search the layer files of depth g for a board. 
+	 * 
+	 * @return the key of its record 
+	 * @throws IllegalStateException if the board is in none of them, which cannot happen for the 
+	 *                               parent of a node 
+	 */
+	private long find(int g, long low, long high) throws IOException
+	{
+		ByteBuffer buf = ByteBuffer.allocate(RECORD);
+		long key = high << CODE_BITS;
+		for (Path p : done.getOrDefault(g, List.of()))
+		{
+			try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ))
+			{
+				long lo = 0;
+				long hi = ch.size() / RECORD - 1;
+				while (lo <= hi)
+				{
+					long mid = (lo + hi) >>> 1;
+					buf.clear();
+					while (buf.hasRemaining())
+					{
+						if (ch.read(buf, mid * RECORD + buf.position()) < 0)
+						{
+							throw new IOException(p + " ends within a record");
+						}
+					}
+					layer.bytesRead += RECORD;
+					long l = buf.getLong(0);
+					long k = buf.getLong(8);
+					int c = compareBoards(l, k, low, key);
+					if (c == 0)
+					{
+						return k;
+					}
+					if (c < 0)
+					{
+						lo = mid + 1;
+					}
+					else
+					{
+						hi = mid - 1;
+					}
+				}
+			}
+		}
+		throw new IllegalStateException("parent not found at depth " + g);
+	}
+	
+	
+	/**
+	 * @return the heuristic value of a packed board 
+	 */
+	private int heuristic(long low, long high)
+	{
+		return context.heuristic == Heuristic.PatternDatabase ? context.patterns.distance(low, high)
+				: goal.heuristic(context.heuristic, low, high);
+	}
+	
+	
+	/**
+	 * @return the index of the empty square of a packed board 
+	 */
+	private int blank(long low, long high)
+	{
+		int i = 0;
+		while (goal.tileAt(low, high, i) != 0)
+		{
+			i++;
+		}
+		return i;
+	}
+	
+	
+	/**
+	 * Order of the records: by low long, then by key, i.e., by board and then by move code. 
+	 */
+	private static int compare(long lowA, long keyA, long lowB, long keyB)
+	{
+		int c = Long.compare(lowA, lowB);
+		return c != 0 ? c : Long.compare(keyA, keyB);
+	}
+	
+	
+	/**
+	 * Order of the boards, consistent with compare(): the arithmetic shift keeps the order of the keys. 
+	 */
+	private static int compareBoards(long lowA, long keyA, long lowB, long keyB)
+	{
+		int c = Long.compare(lowA, lowB);
+		return c != 0 ? c : Long.compare(keyA >> CODE_BITS, keyB >> CODE_BITS);
+	}
+	
+	
+	private static boolean sameBoard(long lowA, long keyA, long lowB, long keyB)
+	{
+		return lowA == lowB && (keyA >> CODE_BITS) == (keyB >> CODE_BITS);
+	}
+	
+	
+	/**
+	 * Sort records lo to hi, each two longs of a, by compare(): quicksort on the median of three, 
+	 * recursing into the smaller part, and insertion sort for short ranges. 
+	 */
+	private static void sort(long[] a, int lo, int hi)
+	{
+		while (hi - lo > 16)
+		{
+			int mid = (lo + hi) >>> 1;
+			if (less(a, mid, lo))
+			{
+				swap(a, mid, lo);
+			}
+			if (less(a, hi, lo))
+			{
+				swap(a, hi, lo);
+			}
+			if (less(a, hi, mid))
+			{
+				swap(a, hi, mid);
+			}
+			long pLow = a[2 * mid];
+			long pKey = a[2 * mid + 1];
+			int i = lo;
+			int j = hi;
+			while (i <= j)
+			{
+				while (compare(a[2 * i], a[2 * i + 1], pLow, pKey) < 0)
+				{
+					i++;
+				}
+				while (compare(a[2 * j], a[2 * j + 1], pLow, pKey) > 0)
+				{
+					j--;
+				}
+				if (i <= j)
+				{
+					swap(a, i++, j--);
+				}
+			}
+			if (j - lo < hi - i)
+			{
+				sort(a, lo, j);
+				lo = i;
+			}
+			else
+			{
+				sort(a, i, hi);
+				hi = j;
+			}
+		}
+		for (int i = lo + 1; i <= hi; i++)
+		{
+			for (int j = i; j > lo && less(a, j, j - 1); j--)
+			{
+				swap(a, j, j - 1);
+			}
+		}
+	}
+	
+	
+	private static boolean less(long[] a, int i, int j)
+	{
+		return compare(a[2 * i], a[2 * i + 1], a[2 * j], a[2 * j + 1]) < 0;
+	}
+	
+	
+	private static void swap(long[] a, int i, int j)
+	{
+		long low = a[2 * i];
+		long key = a[2 * i + 1];
+		a[2 * i] = a[2 * j];
+		a[2 * i + 1] = a[2 * j + 1];
+		a[2 * j] = low;
+		a[2 * j + 1] = key;
+	}
+	
+	
+	/**
+	 * Reads the records of a file in order through a buffer. 
+	 */
+	private class RecordReader implements Closeable
+	{
+		private final FileChannel ch;
+		private final ByteBuffer buf = ByteBuffer.allocate(BUFFER);
+		long low;
+		long key;
+		boolean more = true;    // whether low and key hold a record
+		
+		RecordReader(Path file) throws IOException
+		{
+			this.ch = FileChannel.open(file, StandardOpenOption.READ);
+			buf.limit(0);
+		}
+		
+		/**
+		 * Read the next record into low and key. 
+		 * 
+		 * @return false at the end of the file 
+		 */
+		boolean next() throws IOException
+		{
+			if (buf.remaining() < RECORD)
+			{
+				buf.compact();
+				int n = 0;
+				while (buf.position() < RECORD && n >= 0)
+				{
+					n = ch.read(buf);
+					layer.bytesRead += Math.max(n, 0);
+				}
+				buf.flip();
+				if (buf.remaining() < RECORD)
+				{
+					more = false;
+					return false;
+				}
+			}
+			low = buf.getLong();
+			key = buf.getLong();
+			return true;
+		}
+		
+		@Override
+		public void close() throws IOException
+		{
+			ch.close();
+		}
+	}
+	
+	
+	/**
+	 * Merges sorted files into one sequence in the order of compare(), keeping one record per board: 
+	 * the first, i.e., the one with the smallest move code.  The readers are kept in a binary heap by 
+	 * their current record, so each record takes O(log k) comparisons for k files. 
+	 */
+	private class Merge implements Closeable
+	{
+		private final RecordReader[] heap;
+		private int size = 0;
+		private boolean first = true;
+		long low;
+		long key;
+		
+		Merge(List<Path> files) throws IOException
+		{
+			this.heap = new RecordReader[files.size()];
+			try
+			{
+				for (Path file : files)
+				{
+					RecordReader r = new RecordReader(file);
+					if (r.next())
+					{
+						heap[size] = r;
+						up(size++);
+					}
+					else
+					{
+						r.close();
+					}
+				}
+			}
+			catch (IOException e)
+			{
+				close();
+				throw e;
+			}
+		}
+		
+		/**
+		 * Read the next record of a board not seen before into low and key, counting the records 
+		 * skipped as duplicates. 
+		 * 
+		 * @return false when all files are exhausted 
+		 */
+		boolean next() throws IOException
+		{
+			while (size > 0)
+			{
+				RecordReader top = heap[0];
+				long l = top.low;
+				long k = top.key;
+				if (!top.next())
+				{
+					top.close();
+					heap[0] = heap[--size];
+					heap[size] = null;
+				}
+				if (size > 0)
+				{
+					down(0);
+				}
+				if (!first && sameBoard(l, k, low, key))
+				{
+					layer.duplicates++;
+					context.stats.duplicatesOpen++;
+					continue;
+				}
+				low = l;
+				key = k;
+				first = false;
+				return true;
+			}
+			return false;
+		}
+		
+		private void up(int i)
+		{
+			RecordReader r = heap[i];
+			while (i > 0 && compare(r.low, r.key, heap[(i - 1) / 2].low, heap[(i - 1) / 2].key) < 0)
+			{
+				heap[i] = heap[(i - 1) / 2];
+				i = (i - 1) / 2;
+			}
+			heap[i] = r;
+		}
+		
+		private void down(int i)
+		{
+			RecordReader r = heap[i];
+			while (2 * i + 1 < size)
+			{
+				int c = 2 * i + 1;
+				if (c + 1 < size && compare(heap[c + 1].low, heap[c + 1].key, heap[c].low, heap[c].key) < 0)
+				{
+					c++;
+				}
+				if (compare(heap[c].low, heap[c].key, r.low, r.key) >= 0)
+				{
+					break;
+				}
+				heap[i] = heap[c];
+				i = c;
+			}
+			heap[i] = r;
+		}
+		
+		@Override
+		public void close() throws IOException
+		{
+			for (int i = 0; i < size; i++)
+			{
+				heap[i].close();
+			}
+			size = 0;
+		}
+	}
+	
+	
+	/**
+	 * Writes records to a new file through a buffer. 
+	 */
+	private class RecordWriter implements Closeable
+	{
+		private final FileChannel ch;
+		private final ByteBuffer buf = ByteBuffer.allocate(BUFFER);
+		
+		RecordWriter(Path file) throws IOException
+		{
+			this.ch = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		}
+		
+		void write(long low, long key) throws IOException
+		{
+			if (buf.remaining() < RECORD)
+			{
+				flush();
+			}
+			buf.putLong(low).putLong(key);
+		}
+		
+		private void flush() throws IOException
+		{
+			buf.flip();
+			layer.bytesWritten += buf.remaining();
+			while (buf.hasRemaining())
+			{
+				ch.write(buf);
+			}
+			buf.clear();
+		}
+		
+		@Override
+		public void close() throws IOException
+		{
+			if (ch.isOpen())
+			{
+				flush();
+				ch.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package edu.iastate.cs472.proj1;
+
+/**
+ *  
+ * @author Owen Kim
+ *
+ */
+
+/**
+ * The OPEN list used by the A* algorithm.  Implementations keep the states in order of non-decreasing 
+ * cost estimate so that remove() always returns a state with the smallest cost(), and they support 
+ * update() so that a state already on the list can be repositioned in place after a cheaper path 
+ * to it has been found. 
+ * 
+ * Three implementations are available, selected through FrontierType: 
+ * 
+ *     a) OrderedStateList, the sorted circular doubly-linked list with O(n) insertion, 
+ *     b) StateHeap, a d-ary heap with O(log n) insertion and removal, and  
+ *     c) StateBucketQueue, an array of lists indexed by cost with O(1) insertion and removal.   
+ */
+public interface Frontier 
+{
+	/**
+	 * @return the number of states on the list
+	 */
+	int size();
+	
+	
+	/**
+	 * Add a new state to the list.  
+	 * 
+	 * Precondition: s does not appear on the list. 
+	 * 
+	 * @param s
+	 */
+	void addState(State s);
+	
+	
+	/**
+	 * Remove a state with the smallest cost estimate and return it. 
+	 * 
+	 * @return the removed state, or null if the list is empty
+	 */
+	State remove();
+	
+	
+	/**
+	 * Return a state with the smallest cost estimate without removing it. 
+	 * 
+	 * @return the state that remove() would return, or null if the list is empty
+	 */
+	State peek();
+	
+	
+	/**
+	 * Search the list for a state that has the same board configuration as the argument state s. 
+	 * 
+	 * @param s
+	 * @return the state on the list if found
+	 *         null if not found 
+	 */
+	State findState(State s);
+	
+	
+	/**
+	 * Remove the state on the list with the same board configuration as the argument state s.  
+	 * 
+	 * @param s
+	 * @throws IllegalStateException if s is not on the list 
+	 */
+	void removeState(State s) throws IllegalStateException;
+	
+	
+	/**
+	 * Reposition the state s, which is on the list, after its cost estimate has decreased 
+	 * (i.e., its predecessor, move and numMoves have been replaced by those of a cheaper path).
+	 * 
+	 * @param s  a state object on the list (not merely one with the same board) 
+	 */
+	void update(State s);
+}
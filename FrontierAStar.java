@@ -0,0 +1,491 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * This class implements divide-and-conquer frontier A* (DCFA*), which keeps only OPEN: a node is 
+ * dropped once it is expanded, so the memory of the search grows with the width of the frontier 
+ * rather than with all the states expanded, as CLOSED in EightPuzzle.AStar() does. 
+ * 
+ * Without CLOSED, a node must not generate the nodes already expanded.  Every node on OPEN holds a 
+ * bit for each move that leads to a neighbour expanded before it: when a node is generated by move 
+ * m, or found on OPEN again by m, the bit of m.inverse() is set, and the node skips the moves whose 
+ * bits are set when it is expanded.  With a consistent heuristic an expanded node is never reached 
+ * again on a shorter path, so no node is expanded twice; with an inconsistent one a node may be 
+ * generated again after it is dropped, and is then expanded again as A* would reopen it. 
+ * 
+ * Without CLOSED there are no predecessors either, so the solution is recovered by divide and 
+ * conquer.  Every node carries a reference to the middle node of its path: the first node on the 
+ * path whose number of moves g is at least its heuristic value h, i.e., at least half its cost, or 
+ * at least a given depth.  When the goal is reached in c moves, its middle node m splits the 
+ * solution into two shorter ones, from the initial state to m and from m to the goal, which are 
+ * found by the same search recursively down to a single move.  A search towards m uses a Goal made 
+ * for m, with LinearConflict in place of the heuristics whose tables are built for the puzzle goal 
+ * only, PatternDatabase and WalkingDistance.  Only the middle nodes outlive their expansion. 
+ * 
+ * States of equal cost are ordered by the TieBreaking of the context as in ArenaAStar.  The stats 
+ * of the context count the work of all the searches, and its listener sees the expansions of the 
+ * first, which is the search of the whole puzzle.  The heuristic is not weighted, and the solution is 
+ * a shortest one if the heuristic is consistent. 
+ */
+public class FrontierAStar
+{
+	private final SearchContext context;
+	private final Goal goal;              // goal of this search, the puzzle goal or a middle node
+	private final Heuristic h;
+	private final int middle;             // depth of the middle nodes, or -1 for the first with g >= h
+	private final boolean listen;         // whether to tell the listener of the context
+	private final MoveTable table;
+	private final TieBreaking ties;
+	
+	private Node[] index = new Node[1 << 10];   // nodes on OPEN by board, open addressing
+	private int count = 0;
+	
+	private Node[][] buckets = new Node[64][];  // nodes by TieBreaking.bucket(), the last added on top
+	private int[] sizes = new int[64];
+	private int[] heads = new int[64];          // index of the first entry not popped yet, for FIFO
+	private int minBucket = 0;
+	
+	private long slidLow;                       // board made by slide()
+	private long slidHigh;
+	
+	
+	/**
+	 * A node on OPEN, or a middle node. 
+	 */
+	private static class Node
+	{
+		final long low;
+		final long high;
+		final byte blank;
+		final short h;
+		short g;
+		byte used = 0;        // bit m.ordinal() set if move m leads to a node expanded before
+		boolean open = true;  // false once expanded
+		Node middle;          // middle node of its path, null if none so far
+		
+		Node(long low, long high, int blank, int g, int h)
+		{
+			this.low = low;
+			this.high = high;
+			this.blank = (byte) blank;
+			this.g = (short) g;
+			this.h = (short) h;
+		}
+	}
+	
+	
+	private FrontierAStar(SearchContext context, Goal goal, Heuristic h, int middle, boolean listen)
+	{
+		this.context = context;
+		this.goal = goal;
+		this.h = h;
+		this.middle = middle;
+		this.listen = listen;
+		this.table = context.moveTable;
+		this.ties = context.tieBreaking;
+	}
+	
+	
+	/**
+	 * Solve the puzzle with DCFA*. 
+	 * 
+	 * Precondition: the puzzle is solvable with the initial state s0. 
+	 * 
+	 * @param s0  initial state 
+	 * @param h   heuristic 
+	 * @return    solution string in the format of EightPuzzle.solutionPath() 
+	 */
+	public static String solve(State s0, Heuristic h)
+	{
+		SearchContext context = new SearchContext(h, s0.goal());
+		State goal = search(s0, context);
+		if (goal == null)
+		{
+			return context.isCancelled() ? "search cancelled" : "OPEN list empty, exit with failure";
+		}
+		return EightPuzzle.solutionPath(goal);
+	}
+	
+	
+	/**
+	 * Run DCFA* from s0. 
+	 * 
+	 * @param s0       initial state 
+	 * @param context  context of this search 
+	 * @return the goal state reached, linked to a copy of s0 by its predecessors, or null if OPEN runs 
+	 *         empty or the search is cancelled 
+	 */
+	public static State search(State s0, SearchContext context)
+	{
+		long start = System.nanoTime();
+		List<Move> path = new ArrayList<>();
+		State goal = null;
+		if (segment(context, s0.packedBoard(), s0.packedBoardHigh(), s0.blankIndex(), context.goal,
+				context.heuristic, true, path))
+		{
+			goal = EightPuzzle.replay(s0, context, path.toArray(new Move[0]), path.size());
+		}
+		context.finished(goal, start);
+		return goal;
+	}
+	
+	
+	/**
+	 * Find a shortest path from a board to a goal and append its moves to path. 
+	 * 
+	 * @param context  context of the search 
+	 * @param low      low long of the board 
+	 * @param high     high long of the board 
+	 * @param blank    its empty square 
+	 * @param goal     the goal 
+	 * @param h        heuristic towards the goal 
+	 * @param listen   whether to tell the listener of the context 
+	 * @param path     list of moves to append to 
+	 * @return false if there is no path or the search is cancelled 
+	 */
+	private static boolean segment(SearchContext context, long low, long high, int blank, Goal goal, Heuristic h,
+			boolean listen, List<Move> path)
+	{
+		FrontierAStar search = new FrontierAStar(context, goal, h, -1, listen);
+		Node end = search.run(low, high, blank);
+		if (end == null)
+		{
+			return false;
+		}
+		int c = end.g;
+		if (c == 0)
+		{
+			return true;
+		}
+		if (c == 1)
+		{
+			for (Move m : context.moveTable.moves(blank))
+			{
+				search.slide(low, high, blank, m);
+				if (search.slidLow == end.low && search.slidHigh == end.high)
+				{
+					path.add(m);
+					return true;
+				}
+			}
+			throw new IllegalStateException("no move to the goal");   // cannot happen
+		}
+		Node m = end.middle;
+		if (m == null || m.g >= c)
+		{
+			// no node before the goal had g >= h, as with an inconsistent heuristic: split at depth c / 2
+			end = new FrontierAStar(context, goal, h, c / 2, false).run(low, high, blank);
+			if (end == null)
+			{
+				return false;
+			}
+			m = end.middle;
+		}
+		int[][] board = new int[goal.width()][goal.width()];
+		for (int i = 0; i < goal.size(); i++)
+		{
+			board[i / goal.width()][i % goal.width()] = goal.tileAt(m.low, m.high, i);
+		}
+		Heuristic toMiddle = h == Heuristic.PatternDatabase || h == Heuristic.WalkingDistance ? Heuristic.LinearConflict : h;
+		return segment(context, low, high, blank, new Goal(board), toMiddle, false, path)
+				&& segment(context, m.low, m.high, m.blank, goal, h, false, path);
+	}
+	
+	
+	/**
+	 * @return the node of the goal, with its number of moves and middle node, or null if OPEN runs 
+	 *         empty or the search is cancelled 
+	 */
+	private Node run(long low0, long high0, int blank0)
+	{
+		SearchStats stats = context.stats;
+		SearchListener listener = listen ? context.listener : null;
+		long goalLow = goal.packedLow();
+		long goalHigh = goal.packedHigh();
+		Node root = new Node(low0, high0, blank0, 0, heuristic(low0, high0));
+		put(root);
+		push(root);
+		int open = 1;
+		while (open > 0)
+		{
+			if (context.isCancelled())
+			{
+				return null;
+			}
+			Node n = pop();
+			stats.expanded++;
+			open--;
+			remove(n);
+			n.open = false;
+			if (n.low == goalLow && n.high == goalHigh)
+			{
+				return n;
+			}
+			if (listener != null)
+			{
+				State s = new State(goal, n.low, n.high, n.blank);
+				s.context = context;
+				s.numMoves = n.g;
+				listener.expanded(context, s);
+			}
+			int g = n.g + 1;
+			for (Move m : table.moves(n.blank))
+			{
+				if ((n.used & 1 << m.ordinal()) != 0)
+				{
+					continue;
+				}
+				slide(n.low, n.high, n.blank, m);
+				long t = slidLow;
+				long th = slidHigh;
+				int to = table.target(n.blank, m);
+				int back = 1 << m.inverse().ordinal();
+				stats.generated++;
+				Node s = find(t, th);
+				if (s == null)
+				{
+					s = new Node(t, th, to, g, estimate(n, t, th, table.step(m), to));
+					s.used = (byte) back;
+					s.middle = middle(n, s);
+					put(s);
+					push(s);
+					open++;
+				}
+				else
+				{
+					stats.duplicatesOpen++;
+					s.used |= back;
+					if (s.g > g)
+					{
+						s.g = (short) g;
+						s.middle = middle(n, s);
+						push(s);
+					}
+				}
+			}
+			stats.sizes(open, 0);
+		}
+		return null;
+	}
+	
+	
+	/**
+	 * @param n  a node 
+	 * @param s  its successor, with its number of moves set 
+	 * @return the middle node of the path of s through n 
+	 */
+	private Node middle(Node n, Node s)
+	{
+		if (n.middle != null)
+		{
+			return n.middle;
+		}
+		return s.g >= (middle < 0 ? Math.max(s.h, 1) : middle) ? s : null;
+	}
+	
+	
+	/**
+	 * @return the heuristic value of a board 
+	 */
+	private int heuristic(long low, long high)
+	{
+		return h == Heuristic.PatternDatabase ? context.patterns.distance(low, high) : goal.heuristic(h, low, high);
+	}
+	
+	
+	/**
+	 * @return the heuristic value of the successor of n with the given board, from that of n where 
+	 *         ArenaAStar can 
+	 */
+	private int estimate(Node n, long t, long th, int step, int blank)
+	{
+		switch (h)
+		{
+			case TileMismatch, ManhattanDist, DoubleMoveHeuristic ->
+			{
+				return n.h + ArenaAStar.delta(goal, h, n.low, n.high, n.blank, step, blank);
+			}
+			case LinearConflict ->
+			{
+				return n.h + ArenaAStar.delta(goal, Heuristic.ManhattanDist, n.low, n.high, n.blank, step, blank)
+						+ 2 * ArenaAStar.lineConflictDelta(goal, n.low, n.high, t, th, n.blank, step, blank);
+			}
+			default -> {return heuristic(t, th);}
+		}
+	}
+	
+	
+	/**
+	 * Set slidLow and slidHigh to the board after move m, slid one tile at a time as in 
+	 * State.successor(). 
+	 */
+	private void slide(long low, long high, int blank, Move m)
+	{
+		int mask = goal.mask();
+		int step = table.step(m);
+		int to = blank;
+		for (int k = 0; k < m.numTiles(); k++)
+		{
+			int from = to + step;
+			int tile = goal.tileAt(low, high, from);
+			low = (low | goal.low(tile, to)) & ~goal.low(mask, from);
+			high = (high | goal.high(tile, to)) & ~goal.high(mask, from);
+			to = from;
+		}
+		slidLow = low;
+		slidHigh = high;
+	}
+	
+	
+	private int slot(long low, long high)
+	{
+		long x = (low ^ high * 0xC2B2AE3D27D4EB4FL) * 0x9E3779B97F4A7C15L;
+		return (int) (x >>> (64 - Integer.numberOfTrailingZeros(index.length)));
+	}
+	
+	
+	private Node find(long low, long high)
+	{
+		int mask = index.length - 1;
+		for (int i = slot(low, high); index[i] != null; i = (i + 1) & mask)
+		{
+			if (index[i].low == low && index[i].high == high)
+			{
+				return index[i];
+			}
+		}
+		return null;
+	}
+	
+	
+	private void put(Node n)
+	{
+		if (2 * (count + 1) > index.length)
+		{
+			Node[] old = index;
+			index = new Node[old.length * 2];
+			for (Node o : old)
+			{
+				if (o != null)
+				{
+					insert(o);
+				}
+			}
+		}
+		insert(n);
+		count++;
+	}
+	
+	
+	private void insert(Node n)
+	{
+		int mask = index.length - 1;
+		int i = slot(n.low, n.high);
+		while (index[i] != null)
+		{
+			i = (i + 1) & mask;
+		}
+		index[i] = n;
+	}
+	
+	
+	/**
+	 * Remove n from the index, shifting back the nodes after it that would no longer be found. 
+	 */
+	private void remove(Node n)
+	{
+		int mask = index.length - 1;
+		int i = slot(n.low, n.high);
+		while (index[i] != n)
+		{
+			i = (i + 1) & mask;
+		}
+		index[i] = null;
+		count--;
+		for (int j = (i + 1) & mask; index[j] != null; j = (j + 1) & mask)
+		{
+			int k = slot(index[j].low, index[j].high);
+			// the node at j stays if its slot k lies cyclically in (i, j]
+			if (i <= j ? i < k && k <= j : i < k || k <= j)
+			{
+				continue;
+			}
+			index[i] = index[j];
+			index[j] = null;
+			i = j;
+		}
+	}
+	
+	
+	/**
+	 * @return the index of the bucket of n 
+	 */
+	private int bucket(Node n)
+	{
+		return ties.bucket(n.g + n.h, n.h);
+	}
+	
+	
+	/**
+	 * Put n on OPEN at the top of the bucket for its cost and rank. 
+	 */
+	private void push(Node n)
+	{
+		int f = bucket(n);
+		if (f >= buckets.length)
+		{
+			int length = Math.max(f + 1, buckets.length * 2);
+			buckets = Arrays.copyOf(buckets, length);
+			sizes = Arrays.copyOf(sizes, length);
+			heads = Arrays.copyOf(heads, length);
+		}
+		if (buckets[f] == null)
+		{
+			buckets[f] = new Node[16];
+		}
+		else if (sizes[f] == buckets[f].length)
+		{
+			buckets[f] = Arrays.copyOf(buckets[f], sizes[f] * 2);
+		}
+		buckets[f][sizes[f]++] = n;
+		if (f < minBucket)
+		{
+			minBucket = f;
+		}
+	}
+	
+	
+	/**
+	 * Remove the first node of the first nonempty bucket from OPEN, skipping the entries of rerouted 
+	 * nodes in their old buckets. 
+	 * 
+	 * Precondition: OPEN is not empty. 
+	 */
+	private Node pop()
+	{
+		while (true)
+		{
+			while (sizes[minBucket] == heads[minBucket])
+			{
+				sizes[minBucket] = heads[minBucket] = 0;
+				minBucket++;
+			}
+			Node[] b = buckets[minBucket];
+			Node n = ties == TieBreaking.FIFO ? b[heads[minBucket]++] : b[--sizes[minBucket]];
+			b[ties == TieBreaking.FIFO ? heads[minBucket] - 1 : sizes[minBucket]] = null;
+			if (n.open && bucket(n) == minBucket)
+			{
+				return n;
+			}
+		}
+	}
+}
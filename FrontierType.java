@@ -0,0 +1,29 @@
+package edu.iastate.cs472.proj1;
+
+
+/**
+ * 
+ * Implementations of the OPEN list that can be used by the A* algorithm. 
+ *
+ */
+public enum FrontierType 
+{
+	SortedList, BinaryHeap, BucketQueue;
+	
+	
+	/**
+	 * Create an empty OPEN list of this type. 
+	 * 
+	 * @param context  search whose heuristic evaluates the states on the list
+	 * @return
+	 */
+	public Frontier create(SearchContext context)
+	{
+		switch (this)
+		{
+			case BinaryHeap -> {return new StateHeap(context, 2);}
+			case BucketQueue -> {return new StateBucketQueue(context);}
+			default -> {return new OrderedStateList(context, true);}
+		}
+	}
+}
@@ -0,0 +1,657 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author Owen Kim
+ *
+ */
+
+/**
+ * This class describes the goal configuration of a sliding puzzle on a width X width board, for width
+ * from 2 to 5, together with everything derived from it that the solver looks up per state:
+ *
+ *     a) the layout of packed boards,
+ *     b) the goal square of every tile, and
+ *     c) for each of TileMismatch, ManhattanDist and DoubleMoveHeuristic, the contribution of every
+ *        tile on every square and the change when a tile moves from one square to another,
+ *     d) the goal row and column of every tile for the linear conflicts of LinearConflict, and
+ *     e) the tables of WalkingDistance, built on first use.
+ *
+ * A packed board is a 128-bit number held in two longs, low and high.  Every square takes bits() bits
+ * (4 for up to 16 squares, 5 otherwise) in row-major order with the first square in the highest bits,
+ * so boards compare lexicographically as unsigned 128-bit numbers.  For the 8-puzzle and the 15-puzzle
+ * the high long is always zero.
+ *
+ * Goal objects are immutable, and two goals are equal if they have the same configuration.
+ */
+public class Goal
+{
+	/**
+	 * The goal configuration of the 8-puzzle
+	 *
+	 *  1 2 3
+	 *  8   4
+	 *  7 6 5
+	 */
+	public static final Goal EIGHT_PUZZLE = new Goal(new int[][] {{1,2,3},{8,0,4},{7,6,5}});
+
+	private final int width;
+	private final int n;               // number of squares
+	private final int bits;            // bits per square in a packed board
+	private final int mask;
+	private final int[] tiles;         // goal configuration in row-major order
+	private final int[] square;        // goal square of each tile
+	private final int[] shift;         // position of the lowest bit of each square in a packed board
+	private final long packedLow;
+	private final long packedHigh;
+
+	// Contribution of tile t on square i to each heuristic, stored at [t * n + i].
+	private final byte[] mismatchCost;
+	private final byte[] manhattanCost;
+	private final byte[] doubleMoveCost;
+
+	// Change of each heuristic when tile t moves from square i to square j, stored at deltaIndex(t, i, j).
+	private final byte[] mismatchDelta;
+	private final byte[] manhattanDelta;
+	private final byte[] doubleMoveDelta;
+
+	// Goal row and column of each tile, -1 for the empty square so that it is in no line.
+	private final int[] goalRow;
+	private final int[] goalCol;
+
+	// For each width, the number of tiles that must leave a line to resolve its linear conflicts,
+	// indexed by lineCode().
+	private static final byte[][] LINE_CONFLICTS = new byte[6][];
+
+	private volatile WalkingDistance walking;   // null until walkingDistance() is first called
+
+	static
+	{
+		for (int w = 2; w <= 5; w++)
+		{
+			LINE_CONFLICTS[w] = lineConflictTable(w);
+		}
+	}
+
+
+	/**
+	 * Constructs the goal with the given configuration.  The empty square is represented by 0.
+	 *
+	 * @param board
+	 * @throws IllegalArgumentException if board is not a square array of width 2 to 5 whose entries
+	 *                                  are the numbers 0, 1, ..., width * width - 1
+	 */
+	public Goal(int[][] board) throws IllegalArgumentException
+	{
+		this.width = board.length;
+		this.n = width * width;
+		if (width < 2 || width > 5)
+		{
+			throw new IllegalArgumentException("unsupported board width " + width);
+		}
+		this.bits = n <= 16 ? 4 : 5;
+		this.mask = (1 << bits) - 1;
+		this.tiles = flatten(board, width);
+		this.square = new int[n];
+		this.shift = new int[n];
+		for (int i = 0; i < n; i++)
+		{
+			square[tiles[i]] = i;
+			shift[i] = (n - 1 - i) * bits;
+		}
+		this.packedLow = packLow(board);
+		this.packedHigh = packHigh(board);
+
+		mismatchCost = new byte[n * n];
+		manhattanCost = new byte[n * n];
+		doubleMoveCost = new byte[n * n];
+		for (int t = 0; t < n; t++)
+		{
+			for (int i = 0; i < n; i++)
+			{
+				int dr = Math.abs(square[t] / width - i / width);
+				int dc = Math.abs(square[t] % width - i % width);
+				// the empty square counts as a mismatched tile unless it is on the goal's empty square
+				mismatchCost[t * n + i] = (byte) (tiles[i] != t && tiles[i] != 0 ? 1 : 0);
+				manhattanCost[t * n + i] = (byte) (t == 0 ? 0 : dr + dc);
+				// a double move covers two rows or columns at once
+				doubleMoveCost[t * n + i] = (byte) (t == 0 ? 0 : (dr + 1) / 2 + (dc + 1) / 2);
+			}
+		}
+		mismatchDelta = deltaTable(mismatchCost);
+		manhattanDelta = deltaTable(manhattanCost);
+		doubleMoveDelta = deltaTable(doubleMoveCost);
+
+		goalRow = new int[n];
+		goalCol = new int[n];
+		for (int t = 0; t < n; t++)
+		{
+			goalRow[t] = t == 0 ? -1 : square[t] / width;
+			goalCol[t] = t == 0 ? -1 : square[t] % width;
+		}
+	}
+
+
+	/**
+	 * Return the goal with tiles 1, 2, ..., width * width - 1 in row-major order followed by the
+	 * empty square in the bottom right corner.
+	 *
+	 * @param width
+	 * @return the goal
+	 * @throws IllegalArgumentException if width is not from 2 to 5
+	 */
+	public static Goal standard(int width) throws IllegalArgumentException
+	{
+		int[][] board = new int[width][width];
+		for (int i = 0; i < width * width - 1; i++)
+		{
+			board[i / width][i % width] = i + 1;
+		}
+		return new Goal(board);
+	}
+
+
+	/**
+	 * @param width
+	 * @return EIGHT_PUZZLE if width is 3, and standard(width) otherwise
+	 * @throws IllegalArgumentException if width is not from 2 to 5
+	 */
+	public static Goal defaultGoal(int width) throws IllegalArgumentException
+	{
+		return width == 3 ? EIGHT_PUZZLE : standard(width);
+	}
+
+
+	public int width()
+	{
+		return width;
+	}
+
+
+	/**
+	 * @return the number of squares, width * width
+	 */
+	public int size()
+	{
+		return n;
+	}
+
+
+	/**
+	 * @return the number of bits per square in a packed board
+	 */
+	public int bits()
+	{
+		return bits;
+	}
+
+
+	/**
+	 * @return the goal configuration as a width X width array
+	 */
+	public int[][] board()
+	{
+		int[][] board = new int[width][width];
+		for (int i = 0; i < n; i++)
+		{
+			board[i / width][i % width] = tiles[i];
+		}
+		return board;
+	}
+
+
+	/**
+	 * @param tile
+	 * @return the square of the tile in the goal configuration
+	 */
+	public int goalSquare(int tile)
+	{
+		return square[tile];
+	}
+
+
+	/**
+	 * @return the low long of the packed goal configuration
+	 */
+	public long packedLow()
+	{
+		return packedLow;
+	}
+
+
+	/**
+	 * @return the high long of the packed goal configuration
+	 */
+	public long packedHigh()
+	{
+		return packedHigh;
+	}
+
+
+	/**
+	 * @param low   low long of a packed board
+	 * @param high  high long of a packed board
+	 * @param i     index of a square in row-major order
+	 * @return the tile on square i
+	 */
+	public int tileAt(long low, long high, int i)
+	{
+		int p = shift[i];
+		if (p + bits <= 64)
+		{
+			return (int) (low >>> p) & mask;
+		}
+		if (p >= 64)
+		{
+			return (int) (high >>> (p - 64)) & mask;
+		}
+		return (int) ((low >>> p) | (high << (64 - p))) & mask;
+	}
+
+
+	/**
+	 * @param v  a tile, or the square mask (1 << bits()) - 1
+	 * @param i  index of a square in row-major order
+	 * @return the low long of v placed on square i
+	 */
+	public long low(long v, int i)
+	{
+		int p = shift[i];
+		return p >= 64 ? 0 : v << p;
+	}
+
+
+	/**
+	 * @param v  a tile, or the square mask (1 << bits()) - 1
+	 * @param i  index of a square in row-major order
+	 * @return the high long of v placed on square i
+	 */
+	public long high(long v, int i)
+	{
+		int p = shift[i];
+		if (p >= 64)
+		{
+			return v << (p - 64);
+		}
+		return p + bits > 64 ? v >>> (64 - p) : 0;
+	}
+
+
+	/**
+	 * @return the mask of the bits of one square, (1 << bits()) - 1
+	 */
+	public int mask()
+	{
+		return mask;
+	}
+
+
+	/**
+	 * @param board  a width X width array
+	 * @return the low long of the packed board
+	 */
+	public long packLow(int[][] board)
+	{
+		long t = 0;
+		for (int i = 0; i < n; i++)
+		{
+			t |= low(board[i / width][i % width] & mask, i);
+		}
+		return t;
+	}
+
+
+	/**
+	 * @param board  a width X width array
+	 * @return the high long of the packed board
+	 */
+	public long packHigh(int[][] board)
+	{
+		long t = 0;
+		for (int i = 0; i < n; i++)
+		{
+			t |= high(board[i / width][i % width] & mask, i);
+		}
+		return t;
+	}
+
+
+	/**
+	 * Evaluate a heuristic on a packed board from scratch.
+	 *
+	 * @param h      TileMismatch, ManhattanDist, DoubleMoveHeuristic, LinearConflict or WalkingDistance
+	 * @param low    low long of a packed board
+	 * @param high   high long of a packed board
+	 * @return the estimated number of moves from the board to this goal
+	 * @throws IllegalArgumentException if h is not one of the above, or if h is WalkingDistance and
+	 *                                  the board is wider than 4
+	 */
+	public int heuristic(Heuristic h, long low, long high) throws IllegalArgumentException
+	{
+		if (h == Heuristic.LinearConflict)
+		{
+			return heuristic(Heuristic.ManhattanDist, low, high) + 2 * linearConflicts(low, high);
+		}
+		if (h == Heuristic.WalkingDistance)
+		{
+			return walkingDistance().distance(low, high);
+		}
+		byte[] cost = costTable(h);
+		int sum = 0;
+		for (int i = 0; i < n; i++)
+		{
+			sum += cost[tileAt(low, high, i) * n + i];
+		}
+		return sum;
+	}
+
+
+	/**
+	 * @param h     TileMismatch, ManhattanDist or DoubleMoveHeuristic
+	 * @param tile  a tile or 0 for the empty square
+	 * @param from  square the tile leaves
+	 * @param to    square the tile lands on
+	 * @return the change of heuristic h when the tile moves from one square to the other
+	 * @throws IllegalArgumentException if h is not one of the above
+	 */
+	public int heuristicDelta(Heuristic h, int tile, int from, int to) throws IllegalArgumentException
+	{
+		return deltaTable(h)[(tile * n + from) * n + to];
+	}
+
+
+	/**
+	 * Return the table of heuristicDelta() values for h, indexed by (tile * size() + from) * size() + to.
+	 *
+	 * @param h  TileMismatch, ManhattanDist or DoubleMoveHeuristic
+	 * @return the table
+	 * @throws IllegalArgumentException if h is not one of the above
+	 */
+	byte[] deltaTable(Heuristic h) throws IllegalArgumentException
+	{
+		switch (h)
+		{
+			case TileMismatch -> {return mismatchDelta;}
+			case ManhattanDist -> {return manhattanDelta;}
+			case DoubleMoveHeuristic -> {return doubleMoveDelta;}
+			default -> throw new IllegalArgumentException();
+		}
+	}
+
+
+	/**
+	 * Count the tiles that must leave their line, over all rows and columns.  A tile is in a linear
+	 * conflict if it is in its goal row (column) together with another tile of that row (column) and
+	 * the two are in the reverse order of the goal.  Resolving the conflicts of a line takes at least
+	 * two moves beyond the Manhattan distance for each tile that leaves the line and comes back, and
+	 * the fewest such tiles are those outside a longest subsequence already in goal order.
+	 *
+	 * @param low    low long of a packed board
+	 * @param high   high long of a packed board
+	 * @return the number of tiles to be moved out of their line in all rows and columns
+	 */
+	public int linearConflicts(long low, long high)
+	{
+		int sum = 0;
+		for (int line = 0; line < width; line++)
+		{
+			sum += lineConflicts(low, high, true, line) + lineConflicts(low, high, false, line);
+		}
+		return sum;
+	}
+
+
+	/**
+	 * @param low    low long of a packed board
+	 * @param high   high long of a packed board
+	 * @param row    true for a row, false for a column
+	 * @param line   index of the row or column
+	 * @return the number of tiles to be moved out of the line to resolve its linear conflicts
+	 */
+	public int lineConflicts(long low, long high, boolean row, int line)
+	{
+		// each square contributes a digit in base width + 1: one more than the goal position along
+		// the line of its tile if the tile belongs to the line, and 0 otherwise
+		int code = 0;
+		for (int k = width - 1; k >= 0; k--)
+		{
+			int t = tileAt(low, high, row ? line * width + k : k * width + line);
+			int digit = row ? (goalRow[t] == line ? goalCol[t] + 1 : 0) : (goalCol[t] == line ? goalRow[t] + 1 : 0);
+			code = code * (width + 1) + digit;
+		}
+		return LINE_CONFLICTS[width][code];
+	}
+
+
+	/**
+	 * @param w  width of a line
+	 * @return for each code of lineConflicts(), the number of nonzero digits outside a longest
+	 *         increasing subsequence
+	 */
+	private static byte[] lineConflictTable(int w)
+	{
+		int size = 1;
+		for (int k = 0; k < w; k++)
+		{
+			size *= w + 1;
+		}
+		byte[] table = new byte[size];
+		int[] digits = new int[w];
+		int[] longest = new int[w];   // longest increasing subsequence ending at each position
+		for (int code = 0; code < size; code++)
+		{
+			int c = code;
+			for (int k = 0; k < w; k++)
+			{
+				digits[k] = c % (w + 1);
+				c /= w + 1;
+			}
+			int count = 0;
+			int best = 0;
+			for (int k = 0; k < w; k++)
+			{
+				longest[k] = 0;
+				if (digits[k] == 0)
+				{
+					continue;
+				}
+				count++;
+				longest[k] = 1;
+				for (int j = 0; j < k; j++)
+				{
+					if (digits[j] != 0 && digits[j] < digits[k])
+					{
+						longest[k] = Math.max(longest[k], longest[j] + 1);
+					}
+				}
+				best = Math.max(best, longest[k]);
+			}
+			table[code] = (byte) (count - best);
+		}
+		return table;
+	}
+
+
+	/**
+	 * @return the walking distance tables of this goal, built on the first call
+	 * @throws IllegalArgumentException if the board is wider than 4
+	 */
+	WalkingDistance walkingDistance() throws IllegalArgumentException
+	{
+		WalkingDistance w = walking;
+		if (w == null)
+		{
+			synchronized (this)
+			{
+				w = walking;
+				if (w == null)
+				{
+					w = new WalkingDistance(this);
+					walking = w;
+				}
+			}
+		}
+		return w;
+	}
+
+
+	/**
+	 * @param tile
+	 * @return the goal row of the tile, or -1 for the empty square
+	 */
+	int goalRow(int tile)
+	{
+		return goalRow[tile];
+	}
+
+
+	/**
+	 * @param tile
+	 * @return the goal column of the tile, or -1 for the empty square
+	 */
+	int goalCol(int tile)
+	{
+		return goalCol[tile];
+	}
+
+
+	/**
+	 * Determine if a board can be rearranged into this goal.  A move of the empty square along its row
+	 * keeps the number of inversions among the tiles, while a move along its column changes it by
+	 * width - 1 tiles.  So for an odd width the parity of the number of inversions is invariant, and
+	 * for an even width the parity of the number of inversions plus the row of the empty square is.
+	 *
+	 * @param low    low long of a packed board
+	 * @param high   high long of a packed board
+	 * @return true if the board has the same invariant parity as this goal
+	 */
+	public boolean solvable(long low, long high)
+	{
+		return invariant(low, high) % 2 == invariant(packedLow, packedHigh) % 2;
+	}
+
+
+	private int invariant(long low, long high)
+	{
+		int inv = 0;
+		int blankRow = 0;
+		for (int i = 0; i < n; i++)
+		{
+			int ti = tileAt(low, high, i);
+			if (ti == 0)
+			{
+				blankRow = i / width;
+				continue;
+			}
+			for (int j = i + 1; j < n; j++)
+			{
+				int tj = tileAt(low, high, j);
+				if (tj != 0 && ti > tj)
+				{
+					inv++;
+				}
+			}
+		}
+		return width % 2 == 1 ? inv : inv + blankRow;
+	}
+
+
+	/**
+	 * @return a name for the files of tables computed for this goal that spells out the whole 
+	 *         configuration, so that different goals never share a name: WxW- followed by one base-36 
+	 *         digit per square in row-major order, e.g. 3x3-123804765 for EIGHT_PUZZLE 
+	 */
+	public String fileName()
+	{
+		StringBuilder sb = new StringBuilder(width + "x" + width + "-");
+		for (int t : tiles)
+		{
+			sb.append(Character.forDigit(t, 36));
+		}
+		return sb.toString();
+	}
+
+
+	@Override
+	public boolean equals(Object o)
+	{
+		return o instanceof Goal && Arrays.equals(tiles, ((Goal) o).tiles);
+	}
+
+
+	@Override
+	public int hashCode()
+	{
+		return Arrays.hashCode(tiles);
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return width + "x" + width + Arrays.toString(tiles);
+	}
+
+
+	private byte[] costTable(Heuristic h) throws IllegalArgumentException
+	{
+		switch (h)
+		{
+			case TileMismatch -> {return mismatchCost;}
+			case ManhattanDist -> {return manhattanCost;}
+			case DoubleMoveHeuristic -> {return doubleMoveCost;}
+			default -> throw new IllegalArgumentException();
+		}
+	}
+
+
+	private byte[] deltaTable(byte[] cost)
+	{
+		byte[] delta = new byte[n * n * n];
+		for (int t = 0; t < n; t++)
+		{
+			for (int i = 0; i < n; i++)
+			{
+				for (int j = 0; j < n; j++)
+				{
+					delta[(t * n + i) * n + j] = (byte) (cost[t * n + j] - cost[t * n + i]);
+				}
+			}
+		}
+		return delta;
+	}
+
+
+	/**
+	 * @param board
+	 * @param width
+	 * @return the entries of board in row-major order
+	 * @throws IllegalArgumentException if board is not width X width or its entries are not the
+	 *                                  numbers 0, 1, ..., width * width - 1
+	 */
+	static int[] flatten(int[][] board, int width) throws IllegalArgumentException
+	{
+		int[] flat = new int[width * width];
+		boolean[] seen = new boolean[width * width];
+		for (int i = 0; i < width; i++)
+		{
+			if (board[i] == null || board[i].length != width)
+			{
+				throw new IllegalArgumentException("board is not " + width + "X" + width);
+			}
+			for (int j = 0; j < width; j++)
+			{
+				int t = board[i][j];
+				if (t < 0 || t >= flat.length || seen[t])
+				{
+					throw new IllegalArgumentException("board entries are not 0 to " + (flat.length - 1));
+				}
+				seen[t] = true;
+				flat[i * width + j] = t;
+			}
+		}
+		return flat;
+	}
+}
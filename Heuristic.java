@@ -3,10 +3,18 @@ package edu.iastate.cs472.proj1;
 
 /**
  * 
- * Three heuristics used in solving the 8-puzzle. 
+ * Heuristics used in solving the 8-puzzle.  The first three are the ones used by 
+ * EightPuzzle.solve8Puzzle(); PatternDatabase looks the estimate up in the tables of 
+ * PatternDatabase.forGoal() and allows single moves only. 
+ * 
+ * LinearConflict adds to the Manhattan distance two moves for each tile that must leave its goal 
+ * row or column to let another tile of that line past it.  WalkingDistance counts the moves needed 
+ * when only the rows (and separately the columns) that the tiles are in matter, looked up in the 
+ * tables of Goal.walkingDistance(), and is defined for boards up to 4 x 4.  Both allow single moves 
+ * only and are admissible, and both dominate ManhattanDist. 
  *
  */
 public enum Heuristic 
 {
-	TileMismatch, ManhattanDist, DoubleMoveHeuristic
+	TileMismatch, ManhattanDist, DoubleMoveHeuristic, PatternDatabase, LinearConflict, WalkingDistance
 }
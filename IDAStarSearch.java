@@ -0,0 +1,218 @@
+package edu.iastate.cs472.proj1;
+
+/**
+ *  
+ * @author Owen Kim
+ *
+ */
+
+/**
+ * This class implements iterative-deepening A* (IDA*), a memory-bounded alternative to 
+ * EightPuzzle.AStar().  Each iteration is a depth-first search that cuts off every path whose cost 
+ * estimate g + h exceeds a threshold; the next threshold is the smallest cost estimate that was cut 
+ * off.  Instead of keeping OPEN and CLOSED lists, the search moves tiles on a single packed board and 
+ * undoes each move on backtracking, so memory is proportional to the solution depth.  The inverse of 
+ * the previous move is never tried since it would return to the parent. 
+ * 
+ * The heuristics and the allowed moves are the same as for EightPuzzle.AStar(). 
+ */
+public class IDAStarSearch 
+{
+	private static final int FOUND = -1;
+	
+	private final SearchContext context;
+	private final Heuristic h;
+	private final Move[] moves;
+	private final Goal goal;
+	private final int width;
+	private final boolean incremental;   // whether h is updated by Goal.heuristicDelta() 
+	
+	private long tiles;         // current board configuration, packed as in State (low long)
+	private long tilesHigh;     // high long of the current board configuration
+	private int blank;          // index of the empty square on the current board
+	private Move[] path;        // path[k] is the k-th move from the initial state to the current board
+	
+	
+	private IDAStarSearch(State s0, SearchContext context)
+	{
+		this.context = context;
+		this.h = context.heuristic;
+		this.moves = context.moves;
+		this.goal = s0.goal();
+		this.width = goal.width();
+		this.incremental = h == Heuristic.TileMismatch || h == Heuristic.ManhattanDist || h == Heuristic.DoubleMoveHeuristic;
+		this.tiles = s0.packedBoard();
+		this.tilesHigh = s0.packedBoardHigh();
+		this.blank = s0.blankIndex();
+	}
+	
+	
+	/**
+	 * Solve the puzzle with IDA*. 
+	 * 
+	 * Precondition: the puzzle is solvable with the initial state s0.
+	 * 
+	 * @param s0  initial state
+	 * @param h   heuristic 
+	 * @return    solution string in the format of EightPuzzle.solutionPath()
+	 */
+	public static String solve(State s0, Heuristic h)
+	{
+		return EightPuzzle.solutionPath(goal(s0, h));
+	}
+	
+	
+	/**
+	 * Solve the puzzle with IDA*. 
+	 * 
+	 * Precondition: the puzzle is solvable with the initial state s0.
+	 * 
+	 * @param s0  initial state
+	 * @param h   heuristic 
+	 * @return    the goal state, linked to s0 by its predecessors 
+	 */
+	static State goal(State s0, Heuristic h)
+	{
+		return goal(s0, new SearchContext(h, s0.goal()));
+	}
+	
+	
+	/**
+	 * Same as goal(s0, h) but within the given search context, whose listener is told when the 
+	 * search ends. 
+	 * 
+	 * @param s0       initial state
+	 * @param context  context of this search 
+	 * @return    the goal state, linked to s0 by its predecessors 
+	 */
+	static State goal(State s0, SearchContext context)
+	{
+		long start = System.nanoTime();
+		IDAStarSearch ida = new IDAStarSearch(s0, context);
+		int depth = ida.run();
+		State goal = EightPuzzle.replay(s0, context, ida.path, depth);
+		context.finished(goal, start);
+		return goal;
+	}
+	
+	
+	/**
+	 * Deepen the threshold until the goal is found. 
+	 * 
+	 * @return the number of moves on the solution path stored in path[] 
+	 */
+	private int run()
+	{
+		int bound = heuristic();
+		while (true)
+		{
+			path = new Move[bound + 1];
+			int t = search(0, heuristic(), bound, null);
+			if (t == FOUND)
+			{
+				int depth = 0;
+				while (depth < path.length && path[depth] != null)
+				{
+					depth++;
+				}
+				return depth;
+			}
+			bound = t;
+		}
+	}
+	
+	
+	/**
+	 * @return the heuristic value of the current board, evaluated from scratch 
+	 */
+	private int heuristic()
+	{
+		if (h == Heuristic.PatternDatabase)
+		{
+			return context.patterns.distance(tiles, tilesHigh);
+		}
+		return goal.heuristic(h, tiles, tilesHigh);
+	}
+	
+	
+	/**
+	 * Depth-first search below the current board. 
+	 * 
+	 * @param g      number of moves from the initial state to the current board 
+	 * @param est    heuristic value of the current board 
+	 * @param bound  threshold on g + est 
+	 * @param prev   move that produced the current board, or null at the initial state 
+	 * @return FOUND if the goal was reached, leaving the moves in path[0..g-1]; otherwise the 
+	 *         smallest cost estimate above bound among the cut-off boards 
+	 */
+	private int search(int g, int est, int bound, Move prev)
+	{
+		int f = g + est;
+		if (f > bound)
+		{
+			return f;
+		}
+		if (tiles == goal.packedLow() && tilesHigh == goal.packedHigh())
+		{
+			return FOUND;
+		}
+		context.stats.expanded++;
+		int min = Integer.MAX_VALUE;
+		int row = blank / width;
+		int col = blank % width;
+		for (Move m : moves)
+		{
+			if (prev != null && m == prev.inverse())
+			{
+				continue;
+			}
+			int n = m.numTiles();
+			int r = row + m.rowStep() * n;
+			int c = col + m.colStep() * n;
+			if (r < 0 || r >= width || c < 0 || c >= width)
+			{
+				continue;
+			}
+			
+			// move: slide each tile one square towards the empty square, updating the heuristic 
+			long saved = tiles;
+			long savedHigh = tilesHigh;
+			int savedBlank = blank;
+			int step = m.rowStep() * width + m.colStep();
+			int childEst = est;
+			for (int k = 0; k < n; k++)
+			{
+				int from = blank + step;
+				int tile = goal.tileAt(tiles, tilesHigh, from);
+				if (incremental)
+				{
+					childEst += goal.heuristicDelta(h, tile, from, blank);
+				}
+				tiles = (tiles | goal.low(tile, blank)) & ~goal.low(goal.mask(), from);
+				tilesHigh = (tilesHigh | goal.high(tile, blank)) & ~goal.high(goal.mask(), from);
+				blank = from;
+			}
+			childEst = incremental ? childEst + goal.heuristicDelta(h, 0, savedBlank, blank) 
+					: heuristic();
+			path[g] = m;
+			context.stats.generated++;
+			
+			int t = search(g + 1, childEst, bound, m);
+			if (t == FOUND)
+			{
+				return FOUND;
+			}
+			
+			// undo 
+			path[g] = null;
+			tiles = saved;
+			tilesHigh = savedHigh;
+			blank = savedBlank;
+			if (t < min)
+			{
+				min = t;
+			}
+		}
+		return min;
+	}
+}
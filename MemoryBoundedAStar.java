@@ -0,0 +1,450 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.TreeSet;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * This class implements simplified memory-bounded A* (SMA*), which never holds more than a given 
+ * number of nodes, so that its memory use is fixed in advance instead of growing with OPEN and 
+ * CLOSED as in EightPuzzle.AStar().  Like IDA*, it searches the tree of move sequences without 
+ * detecting duplicates other than the move back to the predecessor. 
+ * 
+ * A node generates its successors one at a time, best first.  Each successor s of n gets the cost 
+ * f(s) = max(f(n), g(s) + h(s)), and once all successors of n have been generated f(n) is raised to 
+ * the smallest f of them and the change is backed up to the ancestors of n.  The node expanded next 
+ * is the one with the smallest f on OPEN, the deepest among equals.  When the budget is reached, the 
+ * leaf with the largest f, the shallowest among equals, is evicted: its parent remembers its f and 
+ * goes back on OPEN, so that the evicted subtree is generated again only when nothing else looks 
+ * better.  A node at the depth the budget allows, which could never be extended to a goal, gets an 
+ * infinite f.  The leaves that may be evicted are kept in a second ordered set, LEAVES, so an 
+ * eviction takes O(log n) time.  A node all of whose successors have been generated and have an 
+ * infinite f is released at once, as are its ancestors that become such nodes, so that the nodes 
+ * held are always either on OPEN or on the path to one. 
+ * 
+ * If h is admissible, the solution is optimal whenever the budget holds a shortest solution path, 
+ * i.e., exceeds its number of moves.  If the smallest f becomes infinite, no solution fits in the 
+ * budget and the search returns none, which solve() reports as BUDGET_EXHAUSTED. 
+ * 
+ * Each node holds a State, small arrays for its successors and entries of OPEN and LEAVES, about 
+ * BYTES_PER_NODE bytes in all with single moves on a 64-bit JVM with compressed references, so a 
+ * budget of n nodes bounds the heap used by the search to about n * BYTES_PER_NODE bytes (SolverBenchmark sma measures it). 
+ */
+public class MemoryBoundedAStar
+{
+	public static final String BUDGET_EXHAUSTED = "node budget exhausted, no solution found";
+	public static final int BYTES_PER_NODE = 240;          // heap per node held, measured at about 224
+	public static final int DEFAULT_BUDGET = 1_000_000;    // nodes held by default
+	
+	private static final int INFINITE = Integer.MAX_VALUE;
+	
+	private final SearchContext context;
+	private final Move[] moves;
+	private final MoveTable table;
+	private final int budget;
+	private final TreeSet<Node> OPEN = new TreeSet<>(MemoryBoundedAStar::compare);
+	private final TreeSet<Node> LEAVES = new TreeSet<>(MemoryBoundedAStar::evictionOrder);   // nodes other than 
+	                               // the root with no successor in memory, the next to evict first
+	private int held = 0;          // nodes in memory
+	private long serial = 0;       // number of nodes created, to order equal nodes
+	
+	
+	/**
+	 * A node of the search tree in memory. 
+	 */
+	private static class Node
+	{
+		final State state;
+		final Node parent;
+		final int slot;          // index of the move from parent to this node
+		final int depth;
+		final long id;           // creation order, to tell apart nodes with equal f and depth
+		int f;
+		Node[] child;            // successors in memory by move, null until the first is generated
+		int[] childF;            // f of every successor generated so far, kept after it is evicted;
+		                         // INFINITE if the move is not legal
+		int next = 0;            // number of moves whose successor has been generated at least once
+		int children = 0;        // number of successors in memory
+		boolean open = false;    // whether the node is on OPEN
+		boolean leaf = false;    // whether the node is on LEAVES
+		
+		Node(State state, Node parent, int slot, long id)
+		{
+			this.state = state;
+			this.parent = parent;
+			this.slot = slot;
+			this.depth = parent == null ? 0 : parent.depth + 1;
+			this.id = id;
+		}
+	}
+	
+	
+	private MemoryBoundedAStar(SearchContext context, int budget)
+	{
+		this.context = context;
+		this.moves = context.moves;
+		this.table = context.moveTable;
+		this.budget = budget;
+	}
+	
+	
+	/**
+	 * Solve the puzzle with SMA* and a budget of DEFAULT_BUDGET nodes. 
+	 * 
+	 * Precondition: the puzzle is solvable with the initial state s0. 
+	 * 
+	 * @param s0  initial state 
+	 * @param h   heuristic 
+	 * @return    solution string in the format of EightPuzzle.solutionPath(), or BUDGET_EXHAUSTED 
+	 */
+	public static String solve(State s0, Heuristic h)
+	{
+		return solve(s0, new SearchContext(h, s0.goal()), DEFAULT_BUDGET);
+	}
+	
+	
+	/**
+	 * Same as solve(s0, h) but within the given search context and budget. 
+	 * 
+	 * @param s0       initial state 
+	 * @param context  context of this search 
+	 * @param budget   largest number of nodes held, at least 2 
+	 * @return    solution string in the format of EightPuzzle.solutionPath(), or BUDGET_EXHAUSTED 
+	 * @throws IllegalArgumentException if budget is less than 2 
+	 */
+	public static String solve(State s0, SearchContext context, int budget) throws IllegalArgumentException
+	{
+		State goal = search(s0, context, budget);
+		if (goal == null)
+		{
+			return context.isCancelled() ? "search cancelled" : BUDGET_EXHAUSTED;
+		}
+		return EightPuzzle.solutionPath(goal);
+	}
+	
+	
+	/**
+	 * Run SMA* from a copy of s0. 
+	 * 
+	 * @param s0       initial state 
+	 * @param context  context of this search 
+	 * @param budget   largest number of nodes held, at least 2 
+	 * @return the goal state reached, linked to a copy of s0 by its predecessors, or null if the 
+	 *         budget is exhausted or the search is cancelled 
+	 * @throws IllegalArgumentException if budget is less than 2 
+	 */
+	public static State search(State s0, SearchContext context, int budget) throws IllegalArgumentException
+	{
+		if (budget < 2)
+		{
+			throw new IllegalArgumentException("budget must be at least 2 nodes");
+		}
+		long start = System.nanoTime();
+		State root = (State) s0.clone();
+		root.context = context;
+		State goal = new MemoryBoundedAStar(context, budget).run(root);
+		context.finished(goal, start);
+		return goal;
+	}
+	
+	
+	/**
+	 * @param root  initial state 
+	 * @return the goal state, or null if none was found 
+	 */
+	private State run(State root)
+	{
+		SearchStats stats = context.stats;
+		SearchListener listener = context.listener;
+		Node first = new Node(root, null, -1, serial++);
+		first.f = root.cost();
+		add(first);
+		held = 1;
+		while (!OPEN.isEmpty() && !context.isCancelled())
+		{
+			Node n = OPEN.first();
+			if (n.f == INFINITE)
+			{
+				return null;
+			}
+			if (n.state.isGoalState())
+			{
+				return n.state;
+			}
+			if (n.child == null)
+			{
+				n.child = new Node[moves.length];
+				n.childF = new int[moves.length];
+				stats.expanded++;
+				if (listener != null)
+				{
+					listener.expanded(context, n.state);
+				}
+			}
+			
+			// the next successor: a move not tried yet, or else the evicted successor with the smallest f
+			int k = n.next;
+			boolean again = k == moves.length;    // whether an evicted successor is generated again
+			if (!again)
+			{
+				n.next++;
+			}
+			else
+			{
+				k = -1;
+				for (int j = 0; j < moves.length; j++)
+				{
+					if (n.child[j] == null && n.childF[j] != INFINITE && (k < 0 || n.childF[j] < n.childF[k]))
+					{
+						k = j;
+					}
+				}
+				if (k < 0)
+				{
+					remove(n);     // every successor is in memory
+					continue;
+				}
+				stats.reopened++;
+			}
+			State s = table.isLegal(n.state.blankIndex(), moves[k]) ? n.state.successor(moves[k]) : null;
+			if (s == null)
+			{
+				n.childF[k] = INFINITE;
+				finish(n);
+				continue;
+			}
+			stats.generated++;
+			Node c = new Node(s, n, k, serial++);
+			if (c.depth >= budget - 1 && !s.isGoalState())
+			{
+				c.f = INFINITE;     // a path this long fills the budget
+			}
+			else
+			{
+				// an evicted successor keeps the f backed up to it before 
+				c.f = Math.max(Math.max(n.f, s.cost()), again ? n.childF[k] : 0);
+			}
+			n.childF[k] = c.f;
+			if (held >= budget)
+			{
+				evict(n);
+			}
+			n.child[k] = c;
+			n.children++;
+			unleaf(n);
+			held++;
+			add(c);
+			leaf(c);
+			finish(n);
+			stats.sizes(held, 0);
+		}
+		return null;
+	}
+	
+	
+	/**
+	 * After a successor of n has been generated: back up the smallest f of the successors of n if all 
+	 * of them have been generated, take n off OPEN if it has none left to generate, and release it if 
+	 * it has none in memory either. 
+	 * 
+	 * @param n 
+	 */
+	private void finish(Node n)
+	{
+		if (n.next < moves.length)
+		{
+			return;
+		}
+		if (!regenerable(n))
+		{
+			remove(n);
+		}
+		for (Node a = n; a != null && a.next == moves.length; a = a.parent)
+		{
+			int min = INFINITE;
+			for (int j = 0; j < moves.length; j++)
+			{
+				min = Math.min(min, a.childF[j]);
+			}
+			if (min <= a.f)
+			{
+				break;
+			}
+			boolean open = a.open;
+			boolean leaf = a.leaf;
+			remove(a);
+			unleaf(a);
+			a.f = min;
+			if (open)
+			{
+				add(a);
+			}
+			if (leaf)
+			{
+				leaf(a);
+			}
+			if (a.parent != null)
+			{
+				a.parent.childF[a.slot] = min;
+			}
+		}
+		release(n);
+	}
+	
+	
+	/**
+	 * Release n if every successor of n has been generated and none is in memory or worth generating 
+	 * again, since its f is infinite; the parent remembers the infinite f.  Do the same for the 
+	 * ancestors that this leaves in that condition. 
+	 * 
+	 * @param n 
+	 */
+	private void release(Node n)
+	{
+		while (n.parent != null && n.children == 0 && n.next == moves.length && !regenerable(n))
+		{
+			Node p = n.parent;
+			remove(n);
+			unleaf(n);
+			p.child[n.slot] = null;
+			p.childF[n.slot] = INFINITE;
+			p.children--;
+			held--;
+			if (p.children == 0)
+			{
+				leaf(p);
+			}
+			n = p;
+		}
+	}
+	
+	
+	/**
+	 * @param n  a node all of whose successors have been generated 
+	 * @return whether a successor of n that is not in memory may lead to a goal 
+	 */
+	private boolean regenerable(Node n)
+	{
+		for (int j = 0; j < moves.length; j++)
+		{
+			if (n.child[j] == null && n.childF[j] != INFINITE)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	
+	/**
+	 * Evict the first node of LEAVES other than n, the leaf with the largest f and the shallowest 
+	 * among equals.  Its parent remembers its f and goes back on OPEN. 
+	 * 
+	 * @param n  the node whose successor is being generated 
+	 */
+	private void evict(Node n)
+	{
+		Node leaf = LEAVES.isEmpty() ? null : LEAVES.first();
+		if (leaf == n)
+		{
+			leaf = LEAVES.higher(n);
+		}
+		if (leaf == null)
+		{
+			throw new IllegalStateException("no leaf to evict");   // cannot happen with a budget of 2 or more
+		}
+		unleaf(leaf);
+		remove(leaf);
+		Node p = leaf.parent;
+		p.child[leaf.slot] = null;
+		p.childF[leaf.slot] = leaf.f;
+		p.children--;
+		held--;
+		if (p.children == 0)
+		{
+			leaf(p);
+		}
+		if (!p.open)
+		{
+			add(p);
+		}
+	}
+	
+	
+	private void add(Node n)
+	{
+		n.open = true;
+		OPEN.add(n);
+	}
+	
+	
+	private void remove(Node n)
+	{
+		if (n.open)
+		{
+			OPEN.remove(n);
+			n.open = false;
+		}
+	}
+	
+	
+	/**
+	 * Put n on LEAVES unless it is the root. 
+	 */
+	private void leaf(Node n)
+	{
+		if (n.parent != null && !n.leaf)
+		{
+			n.leaf = true;
+			LEAVES.add(n);
+		}
+	}
+	
+	
+	private void unleaf(Node n)
+	{
+		if (n.leaf)
+		{
+			LEAVES.remove(n);
+			n.leaf = false;
+		}
+	}
+	
+	
+	/**
+	 * Order of OPEN: by f, then deepest first, then oldest first. 
+	 */
+	private static int compare(Node a, Node b)
+	{
+		if (a.f != b.f)
+		{
+			return Integer.compare(a.f, b.f);
+		}
+		if (a.depth != b.depth)
+		{
+			return Integer.compare(b.depth, a.depth);
+		}
+		return Long.compare(a.id, b.id);
+	}
+	
+	
+	/**
+	 * Order of LEAVES: by f, largest first, then shallowest first, then newest first, as at the end of OPEN. 
+	 */
+	private static int evictionOrder(Node a, Node b)
+	{
+		if (a.f != b.f)
+		{
+			return Integer.compare(b.f, a.f);
+		}
+		if (a.depth != b.depth)
+		{
+			return Integer.compare(a.depth, b.depth);
+		}
+		return Long.compare(b.id, a.id);
+	}
+}
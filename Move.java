@@ -2,10 +2,70 @@ package edu.iastate.cs472.proj1;
 
 /**
  * 
- * Different moves on the board
+ * Different moves on the board.  Each move is named after the direction the tiles slide, so the 
+ * empty square travels the opposite way: LEFT moves the empty square one column to the right, 
+ * DBL_UP moves it two rows down, and so on. 
  *
  */
 public enum Move 
 {
-	LEFT, RIGHT, UP, DOWN,  DBL_LEFT, DBL_RIGHT, DBL_UP, DBL_DOWN
+	LEFT(0, 1, 1), RIGHT(0, -1, 1), UP(1, 0, 1), DOWN(-1, 0, 1),  
+	DBL_LEFT(0, 1, 2), DBL_RIGHT(0, -1, 2), DBL_UP(1, 0, 2), DBL_DOWN(-1, 0, 2);
+	
+	private final int rowStep;     // row offset of the empty square per tile moved
+	private final int colStep;     // column offset of the empty square per tile moved
+	private final int numTiles;    // number of tiles moved
+	
+	private Move(int rowStep, int colStep, int numTiles)
+	{
+		this.rowStep = rowStep;
+		this.colStep = colStep;
+		this.numTiles = numTiles;
+	}
+	
+	
+	/**
+	 * @return the row offset of the empty square for each tile moved 
+	 */
+	public int rowStep()
+	{
+		return rowStep;
+	}
+	
+	
+	/**
+	 * @return the column offset of the empty square for each tile moved 
+	 */
+	public int colStep()
+	{
+		return colStep;
+	}
+	
+	
+	/**
+	 * @return the number of tiles moved, 1 for a single move and 2 for a double move 
+	 */
+	public int numTiles()
+	{
+		return numTiles;
+	}
+	
+	
+	/**
+	 * @return the move that undoes this one 
+	 */
+	public Move inverse()
+	{
+		switch (this)
+		{
+			case LEFT -> {return RIGHT;}
+			case RIGHT -> {return LEFT;}
+			case UP -> {return DOWN;}
+			case DOWN -> {return UP;}
+			case DBL_LEFT -> {return DBL_RIGHT;}
+			case DBL_RIGHT -> {return DBL_LEFT;}
+			case DBL_UP -> {return DBL_DOWN;}
+			default -> {return DBL_UP;}
+		}
+	}
 }
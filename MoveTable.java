@@ -0,0 +1,133 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.Arrays;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * This class holds the moves of the empty square precomputed for one board width, so that a search 
+ * goes through the legal moves of a state without testing the illegal ones.  For every square of the 
+ * empty square it lists the legal moves in the order of Move.values(), and for every square and move 
+ * the square the empty square lands on, from which the squares of the moved tiles follow: they are 
+ * the squares from the empty square plus step(m) to target(blank, m), step(m) apart. 
+ * 
+ * There is one table for single moves and one for single and double moves per width from 2 to 5, 
+ * shared by all searches; see of().  A search takes its table from SearchContext.moveTable. 
+ */
+public class MoveTable
+{
+	private static final int MOVES = Move.values().length;
+	private static final MoveTable[][] TABLES = new MoveTable[6][2];
+	
+	static
+	{
+		for (int w = 2; w <= 5; w++)
+		{
+			TABLES[w][0] = new MoveTable(w, false);
+			TABLES[w][1] = new MoveTable(w, true);
+		}
+	}
+	
+	private final Move[][] moves;     // legal moves by empty square
+	private final byte[] target;      // empty square after move m from square b at b * MOVES + m.ordinal(),
+	                                  // -1 if m is not legal there
+	private final int[] step;         // offset from one moved square to the next by m.ordinal()
+	
+	
+	/**
+	 * @param width    board width 
+	 * @param doubles  whether moves() includes the double moves 
+	 */
+	private MoveTable(int width, boolean doubles)
+	{
+		Move[] all = Move.values();
+		int n = width * width;
+		this.moves = new Move[n][];
+		this.target = new byte[n * MOVES];
+		this.step = new int[all.length];
+		for (Move m : all)
+		{
+			step[m.ordinal()] = m.rowStep() * width + m.colStep();
+		}
+		Move[] legal = new Move[all.length];
+		for (int b = 0; b < n; b++)
+		{
+			int count = 0;
+			for (Move m : all)
+			{
+				int row = b / width + m.rowStep() * m.numTiles();
+				int col = b % width + m.colStep() * m.numTiles();
+				boolean ok = row >= 0 && row < width && col >= 0 && col < width;
+				target[b * MOVES + m.ordinal()] = (byte) (ok ? row * width + col : -1);
+				if (ok && (doubles || m.numTiles() == 1))
+				{
+					legal[count++] = m;
+				}
+			}
+			moves[b] = Arrays.copyOf(legal, count);
+		}
+	}
+	
+	
+	/**
+	 * @param width    board width 
+	 * @param doubles  whether moves() should include the double moves 
+	 * @return the table for the width 
+	 * @throws IllegalArgumentException if width is not from 2 to 5 
+	 */
+	public static MoveTable of(int width, boolean doubles) throws IllegalArgumentException
+	{
+		if (width < 2 || width > 5)
+		{
+			throw new IllegalArgumentException("board width must be from 2 to 5");
+		}
+		return TABLES[width][doubles ? 1 : 0];
+	}
+	
+	
+	/**
+	 * @param blank  index of the empty square 
+	 * @return the legal moves with the empty square there, in the order of Move.values(); the array 
+	 *         is shared and must not be modified 
+	 */
+	public Move[] moves(int blank)
+	{
+		return moves[blank];
+	}
+	
+	
+	/**
+	 * @param blank  index of the empty square 
+	 * @param m      a single or double move, whether or not this table lists double moves 
+	 * @return whether m is legal with the empty square there 
+	 */
+	public boolean isLegal(int blank, Move m)
+	{
+		return target[blank * MOVES + m.ordinal()] >= 0;
+	}
+	
+	
+	/**
+	 * @param blank  index of the empty square 
+	 * @param m      a single or double move 
+	 * @return the index of the empty square after move m, or -1 if m is not legal 
+	 */
+	public int target(int blank, Move m)
+	{
+		return target[blank * MOVES + m.ordinal()];
+	}
+	
+	
+	/**
+	 * @param m  a move 
+	 * @return the offset from one square moved by m to the next, starting from the empty square 
+	 */
+	public int step(Move m)
+	{
+		return step[m.ordinal()];
+	}
+}
@@ -0,0 +1,399 @@
+package edu.iastate.cs472.proj1;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * This class stores the nodes of a search in parallel arrays of primitives instead of one State 
+ * object each, so that a search of millions of nodes makes a few large allocations that the garbage 
+ * collector never has to trace, and the fields read together by the search lie close together.  A 
+ * node is referred to by its int index, given in order of creation from 0, and holds 
+ * 
+ *     the packed board as described in Goal (the high long only for boards of more than 16 squares), 
+ *     the index of the empty square, 
+ *     the index of its parent, or NONE for the root, 
+ *     the ordinal of the move from its parent, or NONE for the root, 
+ *     the number of moves g from the root and the unweighted heuristic value h, 
+ *     an int aux for the search to carry incremental heuristic state, such as the index of the 
+ *     board in the WalkingDistance tables, and 
+ *     a status byte for the search to mark the node with, 0 when it is added. 
+ * 
+ * The arrays are allocated in chunks of CHUNK nodes, each chunk a single ByteBuffer holding one 
+ * array after the other, so the arena grows without copying the nodes it holds.  The buffers are 
+ * direct, i.e., outside the Java heap, if the arena is created so, and on the heap otherwise. 
+ * 
+ * Every node has a board of its own: the arena keeps a hash index from boards to nodes, an open 
+ * addressing table with linear probing in a buffer of the same kind, so that find() looks a board 
+ * up without a State.  path() recovers the moves from the root to a node, from which 
+ * EightPuzzle.replay() materializes State objects only for the solution. 
+ */
+public class NodeArena
+{
+	public static final int NONE = -1;
+	public static final int CHUNK = 1 << 16;      // nodes per chunk
+	
+	private static final int CHUNK_BITS = 16;
+	private static final int OFFSET = CHUNK - 1;
+	private static final int MAX_G = Short.MAX_VALUE;
+	private static final int MAX_TABLE = 1 << 28;  // slots of the index, 1 GB in one buffer
+	
+	private final boolean direct;
+	private final boolean wide;        // whether boards need the high long
+	
+	// byte offsets of the arrays in a chunk
+	private final int lowAt;
+	private final int highAt;
+	private final int parentAt;
+	private final int auxAt;
+	private final int gAt;
+	private final int hAt;
+	private final int moveAt;
+	private final int blankAt;
+	private final int statusAt;
+	private final int chunkBytes;
+	
+	private ByteBuffer[] chunks = new ByteBuffer[16];
+	private int size = 0;
+	
+	private IntBuffer table;           // node index + 1 by hash of the board, 0 for an empty slot
+	private int shift;                 // 64 - log2(table capacity)
+	
+	
+	/**
+	 * Constructs an empty arena. 
+	 * 
+	 * @param goal    goal of the boards, which packs them 
+	 * @param direct  whether to allocate the arrays outside the Java heap 
+	 */
+	public NodeArena(Goal goal, boolean direct)
+	{
+		this.direct = direct;
+		this.wide = goal.size() * goal.bits() > 64;
+		this.lowAt = 0;
+		this.highAt = lowAt + 8 * CHUNK;
+		this.parentAt = highAt + (wide ? 8 * CHUNK : 0);
+		this.auxAt = parentAt + 4 * CHUNK;
+		this.gAt = auxAt + 4 * CHUNK;
+		this.hAt = gAt + 2 * CHUNK;
+		this.moveAt = hAt + 2 * CHUNK;
+		this.blankAt = moveAt + CHUNK;
+		this.statusAt = blankAt + CHUNK;
+		this.chunkBytes = statusAt + CHUNK;
+		this.table = allocate(1 << 10 << 2).asIntBuffer();
+		this.shift = 64 - 10;
+	}
+	
+	
+	/**
+	 * @return the number of nodes 
+	 */
+	public int size()
+	{
+		return size;
+	}
+	
+	
+	/**
+	 * @return whether the arrays are outside the Java heap 
+	 */
+	public boolean isDirect()
+	{
+		return direct;
+	}
+	
+	
+	/**
+	 * @return the number of bytes allocated for the nodes and the index 
+	 */
+	public long bytes()
+	{
+		long chunkCount = (size + OFFSET) >>> CHUNK_BITS;
+		return chunkCount * chunkBytes + 4L * table.capacity();
+	}
+	
+	
+	/**
+	 * @return the number of bytes allocated per node, apart from the index 
+	 */
+	public int bytesPerNode()
+	{
+		return chunkBytes / CHUNK;
+	}
+	
+	
+	/**
+	 * Add a node with status 0. 
+	 * 
+	 * Precondition: no node has the same board. 
+	 * 
+	 * @param low     low long of the packed board 
+	 * @param high    high long of the packed board, zero for up to 16 squares 
+	 * @param blank   index of the empty square 
+	 * @param parent  index of the parent node, or NONE 
+	 * @param move    ordinal of the move from the parent, or NONE 
+	 * @param g       number of moves from the root 
+	 * @param h       heuristic value 
+	 * @param aux     incremental heuristic state, or anything the search likes 
+	 * @return the index of the new node 
+	 * @throws IllegalStateException if the index of the arena is full at 2^27 nodes, or g exceeds 
+	 *                               Short.MAX_VALUE 
+	 */
+	public int add(long low, long high, int blank, int parent, int move, int g, int h, int aux)
+			throws IllegalStateException
+	{
+		if (g > MAX_G || (2 * (size + 1) > table.capacity() && table.capacity() == MAX_TABLE))
+		{
+			throw new IllegalStateException("node arena is full");
+		}
+		int i = size;
+		int c = i >>> CHUNK_BITS;
+		if (c == chunks.length)
+		{
+			ByteBuffer[] more = new ByteBuffer[chunks.length * 2];
+			System.arraycopy(chunks, 0, more, 0, chunks.length);
+			chunks = more;
+		}
+		if (chunks[c] == null)
+		{
+			chunks[c] = allocate(chunkBytes);
+		}
+		ByteBuffer b = chunks[c];
+		int k = i & OFFSET;
+		b.putLong(lowAt + 8 * k, low);
+		if (wide)
+		{
+			b.putLong(highAt + 8 * k, high);
+		}
+		b.putInt(parentAt + 4 * k, parent);
+		b.putInt(auxAt + 4 * k, aux);
+		b.putShort(gAt + 2 * k, (short) g);
+		b.putShort(hAt + 2 * k, (short) h);
+		b.put(moveAt + k, (byte) move);
+		b.put(blankAt + k, (byte) blank);
+		b.put(statusAt + k, (byte) 0);
+		size++;
+		if (2 * size > table.capacity())
+		{
+			rehash(table.capacity() * 2);
+		}
+		insert(i, low, high);
+		return i;
+	}
+	
+	
+	/**
+	 * @param low   low long of a packed board 
+	 * @param high  high long of a packed board 
+	 * @return the index of the node with the board, or NONE if there is none 
+	 */
+	public int find(long low, long high)
+	{
+		int mask = table.capacity() - 1;
+		for (int s = slot(low, high); ; s = (s + 1) & mask)
+		{
+			int i = table.get(s) - 1;
+			if (i < 0)
+			{
+				return NONE;
+			}
+			if (low(i) == low && high(i) == high)
+			{
+				return i;
+			}
+		}
+	}
+	
+	
+	/**
+	 * @param i  index of a node 
+	 * @return the low long of its packed board 
+	 */
+	public long low(int i)
+	{
+		return chunks[i >>> CHUNK_BITS].getLong(lowAt + 8 * (i & OFFSET));
+	}
+	
+	
+	/**
+	 * @param i  index of a node 
+	 * @return the high long of its packed board, zero for up to 16 squares 
+	 */
+	public long high(int i)
+	{
+		return wide ? chunks[i >>> CHUNK_BITS].getLong(highAt + 8 * (i & OFFSET)) : 0;
+	}
+	
+	
+	/**
+	 * @param i  index of a node 
+	 * @return the index of its empty square 
+	 */
+	public int blank(int i)
+	{
+		return chunks[i >>> CHUNK_BITS].get(blankAt + (i & OFFSET));
+	}
+	
+	
+	/**
+	 * @param i  index of a node 
+	 * @return the index of its parent, or NONE for the root 
+	 */
+	public int parent(int i)
+	{
+		return chunks[i >>> CHUNK_BITS].getInt(parentAt + 4 * (i & OFFSET));
+	}
+	
+	
+	/**
+	 * @param i  index of a node 
+	 * @return the ordinal of the move from its parent, or NONE for the root 
+	 */
+	public int move(int i)
+	{
+		return chunks[i >>> CHUNK_BITS].get(moveAt + (i & OFFSET));
+	}
+	
+	
+	/**
+	 * @param i  index of a node 
+	 * @return its number of moves from the root 
+	 */
+	public int g(int i)
+	{
+		return chunks[i >>> CHUNK_BITS].getShort(gAt + 2 * (i & OFFSET));
+	}
+	
+	
+	/**
+	 * @param i  index of a node 
+	 * @return its heuristic value 
+	 */
+	public int h(int i)
+	{
+		return chunks[i >>> CHUNK_BITS].getShort(hAt + 2 * (i & OFFSET));
+	}
+	
+	
+	/**
+	 * @param i  index of a node 
+	 * @return the int given to add() for it 
+	 */
+	public int aux(int i)
+	{
+		return chunks[i >>> CHUNK_BITS].getInt(auxAt + 4 * (i & OFFSET));
+	}
+	
+	
+	/**
+	 * @param i  index of a node 
+	 * @return its status 
+	 */
+	public int status(int i)
+	{
+		return chunks[i >>> CHUNK_BITS].get(statusAt + (i & OFFSET));
+	}
+	
+	
+	/**
+	 * @param i       index of a node 
+	 * @param status  its new status, from 0 to 127 
+	 */
+	public void setStatus(int i, int status)
+	{
+		chunks[i >>> CHUNK_BITS].put(statusAt + (i & OFFSET), (byte) status);
+	}
+	
+	
+	/**
+	 * Reroute node i through a shorter path. 
+	 * 
+	 * @param i       index of a node 
+	 * @param parent  index of its new parent 
+	 * @param move    ordinal of the move from the new parent 
+	 * @param g       new number of moves from the root 
+	 */
+	public void reroute(int i, int parent, int move, int g)
+	{
+		ByteBuffer b = chunks[i >>> CHUNK_BITS];
+		int k = i & OFFSET;
+		b.putInt(parentAt + 4 * k, parent);
+		b.put(moveAt + k, (byte) move);
+		b.putShort(gAt + 2 * k, (short) g);
+	}
+	
+	
+	/**
+	 * @param i  index of a node 
+	 * @return the moves from the root to node i, in order 
+	 */
+	public Move[] path(int i)
+	{
+		Move[] all = Move.values();
+		Move[] path = new Move[g(i)];
+		for (int k = path.length - 1; k >= 0; k--)
+		{
+			path[k] = all[move(i)];
+			i = parent(i);
+		}
+		return path;
+	}
+	
+	
+	/**
+	 * Remove all nodes, keeping the chunks allocated for reuse. 
+	 */
+	public void clear()
+	{
+		size = 0;
+		table.clear();
+		for (int s = 0; s < table.capacity(); s++)
+		{
+			table.put(s, 0);
+		}
+	}
+	
+	
+	private ByteBuffer allocate(int bytes)
+	{
+		return direct ? ByteBuffer.allocateDirect(bytes) : ByteBuffer.allocate(bytes);
+	}
+	
+	
+	private int slot(long low, long high)
+	{
+		return (int) (((low ^ high * 0xC2B2AE3D27D4EB4FL) * 0x9E3779B97F4A7C15L) >>> shift);
+	}
+	
+	
+	private void insert(int i, long low, long high)
+	{
+		int mask = table.capacity() - 1;
+		int s = slot(low, high);
+		while (table.get(s) != 0)
+		{
+			s = (s + 1) & mask;
+		}
+		table.put(s, i + 1);
+	}
+	
+	
+	/**
+	 * Move the index into a table of the given capacity, a power of 2.  The node added last is left 
+	 * for add() to insert. 
+	 */
+	private void rehash(int capacity)
+	{
+		table = allocate(capacity << 2).asIntBuffer();
+		shift = 64 - Integer.numberOfTrailingZeros(capacity);
+		for (int i = 0; i < size - 1; i++)
+		{
+			insert(i, low(i), high(i));
+		}
+	}
+}
@@ -17,7 +17,7 @@ import java.util.NoSuchElementException;
  *     b) lexicographic order of the state if the list is CLOSED.  
  * 
  */
-public class OrderedStateList 
+public class OrderedStateList implements Frontier
 {
 
 	/**
@@ -28,22 +28,25 @@ public class OrderedStateList
 	  
 	  private boolean isOPEN;       // true if this OrderedStateList object is the list OPEN and false 
 	                                // if the list CLOSED.
+	  
+	  private StateIndex index = new StateIndex();   // hash index of the states on the list by board
+	  
+	  private final SearchContext context;  // search the states on the list belong to 
 
 	  /**
 	   *  Default constructor constructs an empty list. Initialize heuristic. Set the fields next and 
 	   *  previous of head to the node itself. Initialize instance variables size and heuristic. 
 	   * 
-	   * @param h 
+	   * @param context  search whose heuristic evaluates the states on the list 
 	   * @param isOpen   
 	   */
-	  public OrderedStateList(Heuristic h, boolean isOpen)
+	  public OrderedStateList(SearchContext context, boolean isOpen)
 	  {
-		  State.heu = h;   // initialize heuristic used for evaluating all State objects.
+		  this.context = context;   // initialize heuristic used for evaluating the State objects on the list.
 		  this.size = 0;
 		  this.isOPEN = isOpen;
 
-		  int[][] dummyboard = {{-1,-1,-1}, {-1,-1,-1}, {-1,-1,-1}};
-		  this.head = new State(dummyboard);
+		  this.head = State.sentinel();
 		  head.next = head;
 		  head.previous = head;
 	  }
@@ -58,7 +61,9 @@ public class OrderedStateList
 	  /**
 	   * A new state is added to the sorted list.  Traverse the list starting at head.  Stop 
 	   * right before the first state t such that compareStates(s, t) <= 0, and add s before t.  
-	   * If no such state exists, simply add s to the end of the list. 
+	   * If no such state exists, simply add s to the end of the list.  With FIFO tie-breaking on 
+	   * OPEN, stop before the first state t with compareStates(s, t) < 0 instead, so that s goes 
+	   * after the states of equal cost. 
 	   * 
 	   * Precondition: s does not appear on the sorted list. 
 	   * 
@@ -66,6 +71,8 @@ public class OrderedStateList
 	   */
 	  public void addState(State s)
 	  {
+		  s.context = context;
+		  index.put(s);
 		  size++;
 		  if(this.size == 0)
 		  {
@@ -76,10 +83,12 @@ public class OrderedStateList
 		  }
 		  else
 		  {
+			  boolean fifo = isOPEN && context.tieBreaking == TieBreaking.FIFO;
 			  State cur = this.head.next;
 			  while(cur != head)
 			  {
-				  if(compareStates(s,cur) <= 0)
+				  int c = compareStates(s,cur);
+				  if(c < 0 || (c == 0 && !fifo))
 				  {
 					  s.next = cur;
 					  s.previous = cur.previous;
@@ -98,10 +107,8 @@ public class OrderedStateList
 	  
 	  
 	  /**
-	   * Conduct a sequential search on the list for a state that has the same board configuration 
-	   * as the argument state s.  
-	   * 
-	   * Calls equals() from the State class. 
+	   * Look up the state on the list that has the same board configuration as the argument state s 
+	   * in the hash index kept alongside the list.  
 	   * 
 	   * @param s
 	   * @return the state on the list if found
@@ -109,16 +116,7 @@ public class OrderedStateList
 	   */
 	  public State findState(State s)
 	  {
-		  State cur = head.next;
-		  while (cur != head)
-		  {
-			  if (cur.equals(s))
-			  {
-				  return cur;
-			  }
-			  cur = cur.next;
-		  }
-		  return null;
+		  return index.get(s);
 	  }
 	  
 	  
@@ -137,7 +135,7 @@ public class OrderedStateList
 		  }
 		  else
 		  {
-			  State del = findState(s);
+			  State del = index.remove(s);
 			  if(del == null)
 			  {
 				  throw new IllegalStateException();
@@ -152,6 +150,22 @@ public class OrderedStateList
 	  }
 	  
 	  
+	  /**
+	   * Reposition the argument state s, which is on the list, after its cost estimate has decreased. 
+	   * The state is unlinked and then added again as by addState().  
+	   * 
+	   * @param s
+	   */
+	  public void update(State s)
+	  {
+		  s.previous.next = s.next;
+		  s.next.previous = s.previous;
+		  index.remove(s);
+		  size--;
+		  addState(s);
+	  }
+	  
+	  
 	  /**
 	   * Remove the first state on the list and return it.  This is used by the A* algorithm in maintaining
 	   * the OPEN list. 
@@ -167,6 +181,7 @@ public class OrderedStateList
 		  else
 		  {
 			  State pop = head.next;
+			  index.remove(pop);
 			  pop.previous.next = pop.next;
 			  pop.next.previous = pop.previous;
 			  size--;
@@ -175,11 +190,23 @@ public class OrderedStateList
 	  }
 	  
 	  
+	  /**
+	   * Return the first state on the list without removing it. 
+	   * 
+	   * @return the first state, or null if the list is empty
+	   */
+	  public State peek()
+	  {
+		  return size == 0 ? null : head.next;
+	  }
+	  
+	  
 	  /**
 	   * Compare two states depending on whether this OrderedStateList object is the list OPEN 
 	   * or the list CLOSE used by the A* algorithm.  More specifically,  
 	   * 
-	   *     a) call the method compareTo() of the State if isOPEN == true, or 
+	   *     a) call the method compareTo() of the State if isOPEN == true, and if it returns 0, 
+	   *        compare the ranks of the states by the TieBreaking of the context, or 
 	   *     b) create a StateComparator object to call its compare() method if isOPEN == false. 
 	   * 
 	   * @param s1
@@ -192,7 +219,8 @@ public class OrderedStateList
 	  {
 		  if(isOPEN)
 		  {
-			  return s1.compareTo(s2);
+			  int c = s1.compareTo(s2);
+			  return c != 0 ? c : Integer.signum(Integer.compare(context.tieBreaking.rank(s1), context.tieBreaking.rank(s2)));
 		  }
 		  else
 		  {
@@ -0,0 +1,520 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * This class implements hash-distributed A* (HDA*), which searches a single instance with several 
+ * threads.  Every board is owned by one worker, chosen by a hash of its packed configuration, and 
+ * only its owner keeps it on an OPEN list or in a CLOSED index, so the workers share no lists and 
+ * each detects the duplicates of its own boards exactly as EightPuzzle.search() does.  A successor 
+ * owned by another worker is buffered and sent to it in batches through a lock-free queue. 
+ * 
+ * A worker expands the states of its OPEN list in order of cost as long as their cost is below 
+ * that of the best solution found so far, the incumbent.  A goal state removed from OPEN becomes 
+ * the incumbent if it is shorter.  With an admissible heuristic, no state whose cost is at least 
+ * the incumbent's can lead to a shorter solution, so the incumbent is optimal once no worker has 
+ * a cheaper state left and no batch is in flight.  To detect that moment, a single counter holds 
+ * the number of busy workers plus the number of states sent but not yet received: a worker going 
+ * idle decrements it, and a worker picking up a batch while idle adds 1 and subtracts the size of 
+ * the batch in one atomic step.  Only busy workers send states, so once the counter is zero it 
+ * stays zero and the search is over.  DoubleMoveHeuristic is not admissible, so with it the 
+ * solution may differ in length from that of EightPuzzle.AStar(), which is not optimal either. 
+ * 
+ * A worker expanding states above the cheapest state on any OPEN list would mostly do work that an 
+ * optimal search does not need, which is what happens when one worker runs ahead while the others 
+ * wait for a processor.  Each worker therefore publishes the cost of the first state on its OPEN 
+ * list, a sender lowers the published smallest cost of the batches waiting for their receiver, and 
+ * a worker yields instead of expanding while its cost is above the smallest of all of these.  The 
+ * workers thus go through the costs together as a sequential search does, and below the cost of 
+ * the solution they expand the same states without reopening any when the heuristic is consistent. 
+ * The worker holding the smallest cost always proceeds, so this never stops the search. 
+ * 
+ * The workers share the SearchContext of the search for evaluating states but count their work in 
+ * SearchStats of their own, which are added into the context's statistics at the end; the peak 
+ * sizes are the sums of the workers' peaks.  The listener's expanded() is called by every worker, 
+ * and the time spent in evaluation and in the lists is not measured. 
+ */
+public class ParallelAStar
+{
+	private static final int BATCH = 64;            // states per message between workers
+	private static final int FLUSH_INTERVAL = 16;   // expansions after which partial batches are sent
+	private static final int SPINS = 64;            // empty polls of an idle worker before it parks
+	private static final long PARK_NANOS = 50_000;
+	
+	private final SearchContext context;
+	private final Worker[] workers;
+	private final AtomicLong work;                  // busy workers plus states in flight
+	private final AtomicReference<State> incumbent = new AtomicReference<>();
+	private volatile Throwable failure;             // first exception thrown by a worker
+	
+	
+	/**
+	 * @param context  context of the search 
+	 * @param threads  number of worker threads, at least 1 
+	 * @throws IllegalArgumentException if threads < 1 
+	 */
+	private ParallelAStar(SearchContext context, int threads) throws IllegalArgumentException
+	{
+		if (threads < 1)
+		{
+			throw new IllegalArgumentException("threads must be at least 1");
+		}
+		this.context = context;
+		this.workers = new Worker[threads];
+		for (int i = 0; i < threads; i++)
+		{
+			workers[i] = new Worker(i);
+		}
+		this.work = new AtomicLong(threads);
+	}
+	
+	
+	/**
+	 * Solve the puzzle with HDA* on the given number of threads. 
+	 * 
+	 * Precondition: the puzzle is solvable with the initial state s0. 
+	 * 
+	 * @param s0       initial state 
+	 * @param h        heuristic 
+	 * @param threads  number of worker threads, at least 1 
+	 * @return    solution string in the format of EightPuzzle.solutionPath() 
+	 * @throws IllegalArgumentException if threads < 1 
+	 */
+	public static String solve(State s0, Heuristic h, int threads) throws IllegalArgumentException
+	{
+		SearchContext context = new SearchContext(h, s0.goal());
+		State goal = search((State) s0.clone(), context, threads);
+		if (goal == null)
+		{
+			return context.isCancelled() ? "search cancelled" : "OPEN list empty, exit with failure";
+		}
+		return EightPuzzle.solutionPath(goal);
+	}
+	
+	
+	/**
+	 * Run HDA* from s0 and wait for it to finish. 
+	 * 
+	 * @param s0       initial state, which is added to the OPEN list of its owner 
+	 * @param context  context of this search 
+	 * @param threads  number of worker threads, at least 1 
+	 * @return the goal state of an optimal solution, or null if there is none or the search is 
+	 *         cancelled 
+	 * @throws IllegalArgumentException if threads < 1 
+	 */
+	static State search(State s0, SearchContext context, int threads) throws IllegalArgumentException
+	{
+		ParallelAStar hda = new ParallelAStar(context, threads);
+		long start = System.nanoTime();
+		hda.workers[hda.owner(s0)].OPEN.addState(s0);
+		for (Worker w : hda.workers)
+		{
+			w.thread.start();
+		}
+		try
+		{
+			for (Worker w : hda.workers)
+			{
+				w.thread.join();
+			}
+		}
+		catch (InterruptedException e)
+		{
+			context.cancel();
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted", e);
+		}
+		if (hda.failure instanceof RuntimeException r)
+		{
+			throw r;
+		}
+		if (hda.failure instanceof Error err)
+		{
+			throw err;
+		}
+		
+		SearchStats stats = context.stats;
+		for (Worker w : hda.workers)
+		{
+			stats.expanded += w.stats.expanded;
+			stats.generated += w.stats.generated;
+			stats.duplicatesOpen += w.stats.duplicatesOpen;
+			stats.duplicatesClosed += w.stats.duplicatesClosed;
+			stats.reopened += w.stats.reopened;
+			stats.peakOpen += w.stats.peakOpen;
+			stats.peakClosed += w.stats.peakClosed;
+		}
+		State goal = context.isCancelled() ? null : hda.incumbent.get();
+		context.finished(goal, start);
+		return goal;
+	}
+	
+	
+	/**
+	 * @param s 
+	 * @return the index of the worker owning the board of s 
+	 */
+	private int owner(State s)
+	{
+		// mixed differently from StateIndex.slot(), whose high bits would otherwise be the same for
+		// all the boards of one worker
+		long x = (s.packedBoard() ^ s.packedBoardHigh() * 0x9E3779B97F4A7C15L) * 0xC2B2AE3D27D4EB4FL;
+		x ^= x >>> 31;
+		return (int) ((x & Long.MAX_VALUE) % workers.length);
+	}
+	
+	
+	/**
+	 * @return the number of moves of the incumbent, or Integer.MAX_VALUE if there is none 
+	 */
+	private int bound()
+	{
+		State best = incumbent.get();
+		return best == null ? Integer.MAX_VALUE : best.numMoves;
+	}
+	
+	
+	/**
+	 * @return the smallest cost of the first states on the OPEN lists of the busy workers and of the 
+	 *         states sent to any worker but not yet received, as last published 
+	 */
+	private int layer()
+	{
+		int min = Integer.MAX_VALUE;
+		for (Worker w : workers)
+		{
+			min = Math.min(min, Math.min(w.front, w.incoming.get()));
+		}
+		return min;
+	}
+	
+	
+	/**
+	 * One thread of the search with its own partition of the boards. 
+	 */
+	private class Worker implements Runnable
+	{
+		final int id;
+		final Thread thread;
+		final Frontier OPEN = FrontierType.BucketQueue.create(context);
+		final StateIndex CLOSE = new StateIndex();
+		final SearchStats stats = new SearchStats();
+		final Queue<State[]> inbox = new ConcurrentLinkedQueue<>();
+		final State[][] outbox;         // states waiting to be sent, by owner
+		final int[] outboxSize;
+		volatile boolean idle = false;  // set while waiting for a batch, so that senders unpark it
+		volatile int front = Integer.MAX_VALUE;   // cost of the first state on OPEN when last looked 
+		                                          // at; Integer.MAX_VALUE while idle 
+		final AtomicInteger incoming = new AtomicInteger(Integer.MAX_VALUE);   // smallest cost in 
+		                                          // the batches on inbox 
+		
+		
+		Worker(int id)
+		{
+			this.id = id;
+			this.outbox = new State[workers.length][BATCH];
+			this.outboxSize = new int[workers.length];
+			this.thread = new Thread(this, "hda-" + id);
+			this.thread.setDaemon(true);
+		}
+		
+		
+		@Override
+		public void run()
+		{
+			try
+			{
+				search();
+			}
+			catch (RuntimeException | Error e)
+			{
+				failure = e;
+				context.cancel();
+			}
+			finally
+			{
+				for (Worker w : workers)
+				{
+					LockSupport.unpark(w.thread);
+				}
+			}
+		}
+		
+		
+		/**
+		 * Expand states until the search is over. 
+		 */
+		private void search()
+		{
+			SearchListener listener = context.listener;
+			int sinceFlush = 0;
+			while (!context.isCancelled())
+			{
+				drain();
+				State top = OPEN.peek();
+				int f = top == null ? Integer.MAX_VALUE : top.cost();
+				if (f < bound())
+				{
+					if (f != front)
+					{
+						// the states sent so far may be cheaper than f, so they go out before the 
+						// other workers can see f 
+						flushAll();
+						sinceFlush = 0;
+						front = f;
+					}
+					if (f > layer())
+					{
+						// a cheaper state waits elsewhere: let its owner expand it first 
+						flushAll();
+						Thread.yield();
+						continue;
+					}
+					State popped = OPEN.remove();
+					stats.expanded++;
+					if (popped.isGoalState())
+					{
+						offer(popped);
+						continue;
+					}
+					CLOSE.put(popped);
+					if (listener != null)
+					{
+						listener.expanded(context, popped);
+					}
+					for (Move m : context.moveTable.moves(popped.blankIndex()))
+					{
+						State child = popped.successor(m);
+						if (child == null)
+						{
+							continue;
+						}
+						stats.generated++;
+						int to = owner(child);
+						if (to == id)
+						{
+							insert(child);
+						}
+						else
+						{
+							outbox[to][outboxSize[to]++] = child;
+							if (outboxSize[to] == BATCH)
+							{
+								flush(to);
+							}
+						}
+					}
+					stats.sizes(OPEN.size(), CLOSE.size());
+					if (++sinceFlush == FLUSH_INTERVAL)
+					{
+						flushAll();
+						sinceFlush = 0;
+					}
+					continue;
+				}
+				
+				// nothing left below the incumbent: send what is buffered and wait for more states
+				flushAll();
+				sinceFlush = 0;
+				if (!awaitBatch())
+				{
+					return;
+				}
+			}
+		}
+		
+		
+		/**
+		 * Go idle until a batch arrives, which is then received, or the search is over. 
+		 * 
+		 * @return true if a batch has been received, false if the search is over 
+		 */
+		private boolean awaitBatch()
+		{
+			front = Integer.MAX_VALUE;
+			idle = true;
+			if (work.decrementAndGet() == 0)
+			{
+				for (Worker w : workers)
+				{
+					LockSupport.unpark(w.thread);
+				}
+				idle = false;
+				return false;
+			}
+			int spins = 0;
+			while (true)
+			{
+				clearIncoming();
+				State[] batch = inbox.poll();
+				if (batch != null)
+				{
+					idle = false;
+					work.addAndGet(1 - batch.length);
+					receive(batch);
+					drain();
+					return true;
+				}
+				if (work.get() == 0 || context.isCancelled())
+				{
+					idle = false;
+					return false;
+				}
+				if (++spins < SPINS)
+				{
+					Thread.yield();
+				}
+				else
+				{
+					LockSupport.parkNanos(this, PARK_NANOS);
+				}
+			}
+		}
+		
+		
+		/**
+		 * Send the buffered states of one owner. 
+		 * 
+		 * @param to  index of the owner 
+		 */
+		private void flush(int to)
+		{
+			int n = outboxSize[to];
+			if (n == 0)
+			{
+				return;
+			}
+			State[] batch = Arrays.copyOf(outbox[to], n);
+			Arrays.fill(outbox[to], 0, n, null);
+			outboxSize[to] = 0;
+			int min = Integer.MAX_VALUE;
+			for (State s : batch)
+			{
+				min = Math.min(min, s.cost());
+			}
+			work.addAndGet(n);         // counted before it can be received
+			Worker w = workers[to];
+			w.incoming.accumulateAndGet(min, Math::min);
+			w.inbox.add(batch);
+			if (w.idle)
+			{
+				LockSupport.unpark(w.thread);
+			}
+		}
+		
+		
+		private void flushAll()
+		{
+			for (int to = 0; to < workers.length; to++)
+			{
+				flush(to);
+			}
+		}
+		
+		
+		/**
+		 * Receive every batch on inbox while busy. 
+		 */
+		private void drain()
+		{
+			clearIncoming();
+			for (State[] batch = inbox.poll(); batch != null; batch = inbox.poll())
+			{
+				work.addAndGet(-batch.length);
+				receive(batch);
+			}
+		}
+		
+		
+		/**
+		 * Forget the smallest cost of the batches received so far.  Called before every poll of 
+		 * inbox: a sender may lower incoming for a batch that the poll then receives, and the 
+		 * value would otherwise stay too low after its states have gone, holding back all workers. 
+		 */
+		private void clearIncoming()
+		{
+			if (incoming.get() != Integer.MAX_VALUE)
+			{
+				incoming.set(Integer.MAX_VALUE);
+			}
+		}
+		
+		
+		private void receive(State[] batch)
+		{
+			for (State s : batch)
+			{
+				insert(s);
+			}
+		}
+		
+		
+		/**
+		 * Add a successor owned by this worker to OPEN unless a path at least as short to its board 
+		 * is known, following EightPuzzle.search(). 
+		 * 
+		 * @param child  successor state, whose predecessor is the state it was generated from 
+		 */
+		private void insert(State child)
+		{
+			if (child.cost() >= bound())
+			{
+				return;                // no shorter solution through it
+			}
+			State old_open = OPEN.findState(child);
+			State old_close = old_open == null ? CLOSE.get(child) : null;
+			if (old_open != null)
+			{
+				stats.duplicatesOpen++;
+				if (old_open.compareTo(child) == 1)
+				{
+					old_open.predecessor = child.predecessor;
+					old_open.move = child.move;
+					old_open.numMoves = child.numMoves;
+					OPEN.update(old_open);
+				}
+			}
+			else if (old_close != null)
+			{
+				stats.duplicatesClosed++;
+				if (old_close.compareTo(child) == 1)
+				{
+					stats.reopened++;
+					CLOSE.remove(old_close);
+					OPEN.addState(child);
+				}
+			}
+			else
+			{
+				OPEN.addState(child);
+			}
+		}
+		
+		
+		/**
+		 * Make a goal state the incumbent if it is shorter than the current one. 
+		 * 
+		 * @param goal 
+		 */
+		private void offer(State goal)
+		{
+			State best = incumbent.get();
+			while ((best == null || goal.numMoves < best.numMoves) && !incumbent.compareAndSet(best, goal))
+			{
+				best = incumbent.get();
+			}
+		}
+	}
+}
@@ -0,0 +1,469 @@
+package edu.iastate.cs472.proj1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ *  
+ * @author Owen Kim
+ *
+ */
+
+/**
+ * This class describes an additive pattern database for the puzzle with single moves.  The tiles are 
+ * split into disjoint groups, and for every placement of the tiles of a group the table of that group 
+ * stores the smallest number of moves of those tiles needed to bring them to their goal squares, 
+ * ignoring all other tiles.  Since only moves of a group's own tiles are counted, the values of the 
+ * groups can be added up and the sum is still an admissible heuristic, at least as large as the 
+ * Manhattan distance.  
+ * 
+ * The tables are computed by generate() with a backward breadth-first search from the goal over the 
+ * positions of the group's tiles and the empty square, and written to a file with the layout 
+ * 
+ *     int     MAGIC
+ *     int     board width, with n = width * width squares
+ *     n ints  goal configuration in row-major order 
+ *     int     number of groups 
+ *     for each group: int k, followed by the k tiles of the group 
+ *     for each group: n!/(n-k)! bytes, indexed by rank() of the squares of the group's tiles 
+ * 
+ * load() memory-maps such a file read-only, so opening a database costs no generation time and 
+ * several solver processes share the same pages of the file. 
+ */
+public class PatternDatabase 
+{
+	private static final int MAGIC = 0x50444231;    // "PDB1"
+	
+	private static final HashMap<Goal, PatternDatabase> databases = new HashMap<>();
+	
+	private final Goal goal;
+	private final int n;                 // number of squares 
+	private final int[][] groups;        // tiles of each group
+	private final int[] offsets;         // position of each group's table in tables 
+	private final ByteBuffer tables; 
+	
+	
+	private PatternDatabase(Goal goal, int[][] groups, int[] offsets, ByteBuffer tables)
+	{
+		this.goal = goal;
+		this.n = goal.size();
+		this.groups = groups;
+		this.offsets = offsets;
+		this.tables = tables;
+	}
+	
+	
+	/**
+	 * Return the database used by Heuristic.PatternDatabase for a goal.  It is memory-mapped from the file 
+	 * named goal.fileName() + ".pdb" in cacheDir().  If the file does not exist it is generated first 
+	 * with defaultGroups(goal). 
+	 * 
+	 * @param goal
+	 * @return the database 
+	 * @throws UncheckedIOException if the file cannot be read or written 
+	 */
+	public static PatternDatabase forGoal(Goal goal) throws UncheckedIOException
+	{
+		synchronized (databases)
+		{
+			PatternDatabase db = databases.get(goal);
+			if (db == null)
+			{
+				Path file;
+				try
+				{
+					file = cacheDir().resolve(goal.fileName() + ".pdb");
+					if (!Files.exists(file))
+					{
+						generate(goal, defaultGroups(goal), file);
+					}
+					db = load(file);
+				}
+				catch (IOException e)
+				{
+					throw new UncheckedIOException(e);
+				}
+				if (!db.goal.equals(goal))
+				{
+					throw new IllegalArgumentException(file + " was generated for " + db.goal);
+				}
+				databases.put(goal, db);
+			}
+			return db;
+		}
+	}
+	
+	
+	/**
+	 * @return the directory of the tables generated by forGoal() here and in DistanceOracle: the one 
+	 *         named by the system property pdb.dir, or else .cache/a-star in the user's home 
+	 *         directory, created if it does not exist 
+	 * @throws IOException if the directory cannot be created 
+	 */
+	static Path cacheDir() throws IOException
+	{
+		String dir = System.getProperty("pdb.dir");
+		Path path = dir != null ? Paths.get(dir) : Paths.get(System.getProperty("user.home"), ".cache", "a-star");
+		return Files.createDirectories(path);
+	}
+	
+	
+	/**
+	 * Write a table file so that it appears complete or not at all: the bytes go to a new temporary 
+	 * file in the same directory, which is then renamed to file atomically, replacing any file of 
+	 * that name.  A process killed on the way leaves at most a stray temporary file, and processes 
+	 * generating the same file at once each rename a complete copy. 
+	 * 
+	 * @param buf   the contents of the file, from its position to its limit 
+	 * @param file 
+	 * @throws IOException 
+	 */
+	static void writeAtomically(ByteBuffer buf, Path file) throws IOException
+	{
+		Path dir = file.toAbsolutePath().getParent();
+		Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+		try
+		{
+			try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE))
+			{
+				while (buf.hasRemaining())
+				{
+					ch.write(buf);
+				}
+				ch.force(true);
+			}
+			try
+			{
+				Files.setPosixFilePermissions(tmp, PosixFilePermissions.fromString("rw-r--r--"));
+			}
+			catch (UnsupportedOperationException e)
+			{
+				// not a POSIX file system; keep the permissions of a temporary file 
+			}
+			Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally
+		{
+			Files.deleteIfExists(tmp);
+		}
+	}
+	
+	
+	/**
+	 * Split the tiles 1, 2, ..., n - 1 in order into groups of 4 on the 8-puzzle and the 24-puzzle and 
+	 * of 5 on the 15-puzzle, which keeps every table within a few hundred thousand entries. 
+	 * 
+	 * @param goal
+	 * @return the default tile groups for the goal's board size 
+	 */
+	public static int[][] defaultGroups(Goal goal)
+	{
+		int n = goal.size();
+		int k = n == 16 ? 5 : Math.min(4, n - 1);
+		int[][] groups = new int[(n - 2) / k + 1][];
+		for (int g = 0; g < groups.length; g++)
+		{
+			groups[g] = new int[Math.min(k, n - 1 - g * k)];
+			for (int i = 0; i < groups[g].length; i++)
+			{
+				groups[g][i] = g * k + i + 1;
+			}
+		}
+		return groups;
+	}
+	
+	
+	/**
+	 * Memory-map a database file written by generate(). 
+	 * 
+	 * @param file
+	 * @return the database 
+	 * @throws IOException 
+	 * @throws IllegalArgumentException if the file is not a pattern database 
+	 */
+	public static PatternDatabase load(Path file) throws IOException, IllegalArgumentException
+	{
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+			if (buf.getInt() != MAGIC)
+			{
+				throw new IllegalArgumentException(file + " is not a pattern database");
+			}
+			int width = buf.getInt();
+			int[][] goalBoard = new int[width][width];
+			for (int i = 0; i < width * width; i++)
+			{
+				goalBoard[i / width][i % width] = buf.getInt();
+			}
+			Goal goal = new Goal(goalBoard);
+			int n = goal.size();
+			int[][] groups = new int[buf.getInt()][];
+			for (int g = 0; g < groups.length; g++)
+			{
+				groups[g] = new int[buf.getInt()];
+				for (int i = 0; i < groups[g].length; i++)
+				{
+					groups[g][i] = buf.getInt();
+				}
+			}
+			int[] offsets = new int[groups.length];
+			int offset = buf.position();
+			for (int g = 0; g < groups.length; g++)
+			{
+				offsets[g] = offset;
+				offset += tableSize(n, groups[g].length);
+			}
+			if (offset != ch.size())
+			{
+				throw new IllegalArgumentException(file + " is truncated");
+			}
+			return new PatternDatabase(goal, groups, offsets, buf);
+		}
+	}
+	
+	
+	/**
+	 * Compute the table of every group and write the database to a file, atomically as 
+	 * writeAtomically() does. 
+	 * 
+	 * @param goal
+	 * @param groups  disjoint groups of tiles, none containing 0 
+	 * @param file
+	 * @throws IOException
+	 */
+	public static void generate(Goal goal, int[][] groups, Path file) throws IOException
+	{
+		int n = goal.size();
+		int header = 12 + 4 * n;
+		for (int[] group : groups)
+		{
+			header += 4 + 4 * group.length;
+		}
+		byte[][] tables = new byte[groups.length][];
+		int total = header;
+		for (int g = 0; g < groups.length; g++)
+		{
+			tables[g] = generateTable(goal, groups[g]);
+			total += tables[g].length;
+		}
+		ByteBuffer buf = ByteBuffer.allocate(total);
+		buf.putInt(MAGIC).putInt(goal.width());
+		int[][] goalBoard = goal.board();
+		for (int i = 0; i < n; i++)
+		{
+			buf.putInt(goalBoard[i / goal.width()][i % goal.width()]);
+		}
+		buf.putInt(groups.length);
+		for (int[] group : groups)
+		{
+			buf.putInt(group.length);
+			for (int t : group)
+			{
+				buf.putInt(t);
+			}
+		}
+		for (byte[] table : tables)
+		{
+			buf.put(table);
+		}
+		buf.flip();
+		writeAtomically(buf, file);
+	}
+	
+	
+	/**
+	 * @param tiles      low long of a packed board configuration 
+	 * @param tilesHigh  high long of a packed board configuration 
+	 * @return the sum over all groups of the table entries for the board, computed as rank() does 
+	 *         but reading the squares of the tiles straight from the board 
+	 */
+	public int distance(long tiles, long tilesHigh)
+	{
+		int sum = 0;
+		for (int g = 0; g < groups.length; g++)
+		{
+			int[] group = groups[g];
+			long used = 0;      // squares of the group's tiles ranked so far 
+			int r = 0;
+			for (int i = 0; i < group.length; i++)
+			{
+				int sq = 0;
+				while (goal.tileAt(tiles, tilesHigh, sq) != group[i])
+				{
+					sq++;
+				}
+				r = r * (n - i) + sq - Long.bitCount(used & ((1L << sq) - 1));
+				used |= 1L << sq;
+			}
+			sum += tables.get(offsets[g] + r);
+		}
+		return sum;
+	}
+	
+	
+	/**
+	 * Backward 0-1 breadth-first search from the goal over the squares of a group's tiles and the 
+	 * empty square.  Moving the empty square onto a square without a tile of the group costs nothing, 
+	 * since that moves a tile of another group. 
+	 * 
+	 * @param goal
+	 * @param group  tiles of the group 
+	 * @return the table indexed by rank() of the squares of the tiles 
+	 */
+	private static byte[] generateTable(Goal goal, int[] group)
+	{
+		int n = goal.size();
+		int width = goal.width();
+		int k = group.length;
+		int size = tableSize(n, k);
+		byte[] table = new byte[size];
+		Arrays.fill(table, Byte.MAX_VALUE);
+		
+		// abstract state: rank of the tiles' squares * n + square of the empty square 
+		byte[] dist = new byte[size * n];
+		Arrays.fill(dist, Byte.MAX_VALUE);
+		int[] squares = new int[k];
+		for (int i = 0; i < k; i++)
+		{
+			squares[i] = goal.goalSquare(group[i]);
+		}
+		ArrayDeque<Integer> deque = new ArrayDeque<>();
+		int start = rank(squares, n) * n + goal.goalSquare(0);
+		dist[start] = 0;
+		deque.add(start);
+		while (!deque.isEmpty())
+		{
+			int cur = deque.poll();
+			int blank = cur % n;
+			int r = cur / n;
+			unrank(r, n, squares);
+			int d = dist[cur];
+			table[r] = (byte) Math.min(table[r], d);
+			int[] neighbors = {blank - width, blank + width, blank % width == 0 ? -1 : blank - 1, 
+					blank % width == width - 1 ? -1 : blank + 1};
+			for (int to : neighbors)
+			{
+				if (to < 0 || to >= n)
+				{
+					continue;
+				}
+				int cost = 0;
+				int nr = r;
+				for (int i = 0; i < k; i++)
+				{
+					if (squares[i] == to)
+					{
+						squares[i] = blank;
+						nr = rank(squares, n);
+						squares[i] = to;
+						cost = 1;
+						break;
+					}
+				}
+				int next = nr * n + to;
+				if (d + cost < dist[next])
+				{
+					dist[next] = (byte) (d + cost);
+					if (cost == 0)
+					{
+						deque.addFirst(next);
+					}
+					else
+					{
+						deque.addLast(next);
+					}
+				}
+			}
+		}
+		return table;
+	}
+	
+	
+	/**
+	 * @param n  number of squares 
+	 * @param k  number of tiles in a group 
+	 * @return the number of placements of k distinct tiles on n squares, n!/(n-k)! 
+	 */
+	private static int tableSize(int n, int k)
+	{
+		int size = 1;
+		for (int i = 0; i < k; i++)
+		{
+			size *= n - i;
+		}
+		return size;
+	}
+	
+	
+	/**
+	 * Rank a placement of distinct tiles on n squares in the range [0, n!/(n-k)!). 
+	 * 
+	 * @param squares  square of each tile 
+	 * @param n        number of squares 
+	 * @return the rank 
+	 */
+	static int rank(int[] squares, int n)
+	{
+		int r = 0;
+		for (int i = 0; i < squares.length; i++)
+		{
+			int s = squares[i];
+			for (int j = 0; j < i; j++)
+			{
+				if (squares[j] < squares[i])
+				{
+					s--;
+				}
+			}
+			r = r * (n - i) + s;
+		}
+		return r;
+	}
+	
+	
+	/**
+	 * Inverse of rank(). 
+	 * 
+	 * @param r        rank 
+	 * @param n        number of squares 
+	 * @param squares  filled with the square of each tile 
+	 */
+	static void unrank(int r, int n, int[] squares)
+	{
+		int k = squares.length;
+		for (int i = k - 1; i >= 0; i--)
+		{
+			squares[i] = r % (n - i);
+			r /= n - i;
+		}
+		boolean[] used = new boolean[n];
+		for (int i = 0; i < k; i++)
+		{
+			int s = squares[i];
+			int sq = 0;
+			while (used[sq] || s > 0)
+			{
+				if (!used[sq])
+				{
+					s--;
+				}
+				sq++;
+			}
+			used[sq] = true;
+			squares[i] = sq;
+		}
+	}
+}
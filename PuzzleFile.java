@@ -0,0 +1,390 @@
+package edu.iastate.cs472.proj1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * This class describes a binary file of many puzzles of the same width, to be solved by 
+ * BatchSolver.runBinary() without opening a file or a Scanner per puzzle.  Every puzzle is stored 
+ * packed as in Goal, so a record has a fixed width and puzzle i is found by its position alone. 
+ * The layout is 
+ * 
+ *     int     MAGIC 
+ *     int     board width, from 2 to 5 
+ *     long    number of puzzles 
+ *     for each puzzle, the low long of the packed board, followed by the high long if the width 
+ *     is 5 
+ * 
+ * all in big-endian order.  Each puzzle is solved for Goal.defaultGoal() of the width, as the text 
+ * files read by State(String) are. 
+ * 
+ * load() memory-maps the file read-only, as DistanceOracle.load() does, and low(), high() and 
+ * validate() read a record in place without allocating, so that millions of puzzles can be 
+ * scanned at the speed of the disk.  validate() applies the checks of State's constructors to the 
+ * packed board, and state() makes a State of a valid record. 
+ * 
+ * fromText() packs text puzzle files into this format and toText() unpacks it into one text file 
+ * per puzzle. 
+ */
+public class PuzzleFile
+{
+	private static final int MAGIC = 0x505a4231;    // "PZB1"
+	private static final int HEADER = 16;
+	
+	private final Path file;
+	private final Goal goal;            // Goal.defaultGoal() of the width, which also packs the boards
+	private final int count;
+	private final int recordBytes;      // 8, or 16 if the packed boards need the high long
+	private final ByteBuffer records;
+	
+	
+	private PuzzleFile(Path file, Goal goal, int count, ByteBuffer records)
+	{
+		this.file = file;
+		this.goal = goal;
+		this.count = count;
+		this.recordBytes = recordBytes(goal);
+		this.records = records;
+	}
+	
+	
+	/**
+	 * Memory-map a puzzle file.  Only the header and the file size are checked; see validate(). 
+	 * 
+	 * @param file 
+	 * @return the puzzles in the file 
+	 * @throws IOException 
+	 * @throws IllegalArgumentException if the file is not a puzzle file, has an unsupported width, 
+	 *                                  or is not as long as its number of puzzles requires 
+	 */
+	public static PuzzleFile load(Path file) throws IOException, IllegalArgumentException
+	{
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			if (ch.size() < HEADER)
+			{
+				throw new IllegalArgumentException(file + " is not a puzzle file");
+			}
+			if (ch.size() > Integer.MAX_VALUE)
+			{
+				throw new IllegalArgumentException(file + " is larger than 2 GB; split it");
+			}
+			MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+			if (buf.getInt() != MAGIC)
+			{
+				throw new IllegalArgumentException(file + " is not a puzzle file");
+			}
+			Goal goal = Goal.defaultGoal(buf.getInt());
+			long count = buf.getLong();
+			if (count < 0 || HEADER + count * recordBytes(goal) != ch.size())
+			{
+				throw new IllegalArgumentException(file + " is truncated");
+			}
+			return new PuzzleFile(file, goal, (int) count, buf);
+		}
+	}
+	
+	
+	/**
+	 * @param goal 
+	 * @return the number of bytes of a record of boards of the width of goal 
+	 */
+	private static int recordBytes(Goal goal)
+	{
+		return goal.size() * goal.bits() > 64 ? 16 : 8;
+	}
+	
+	
+	/**
+	 * @return the width of the boards 
+	 */
+	public int width()
+	{
+		return goal.width();
+	}
+	
+	
+	/**
+	 * @return the goal the puzzles are solved for, Goal.defaultGoal() of the width 
+	 */
+	public Goal goal()
+	{
+		return goal;
+	}
+	
+	
+	/**
+	 * @return the number of puzzles 
+	 */
+	public int count()
+	{
+		return count;
+	}
+	
+	
+	/**
+	 * @param i  index of a puzzle, from 0 to count() - 1 
+	 * @return the low long of its packed board 
+	 */
+	public long low(int i)
+	{
+		return records.getLong(HEADER + i * recordBytes);
+	}
+	
+	
+	/**
+	 * @param i  index of a puzzle, from 0 to count() - 1 
+	 * @return the high long of its packed board, zero if the width is below 5 
+	 */
+	public long high(int i)
+	{
+		return recordBytes == 8 ? 0 : records.getLong(HEADER + i * recordBytes + 8);
+	}
+	
+	
+	/**
+	 * Check that puzzle i holds every number 0, 1, ..., width * width - 1 exactly once, and no 
+	 * other bits, as State(int[][], Goal) requires of a board. 
+	 * 
+	 * @param i  index of a puzzle, from 0 to count() - 1 
+	 * @throws IllegalArgumentException if it does not 
+	 */
+	public void validate(int i) throws IllegalArgumentException
+	{
+		long low = low(i);
+		long high = high(i);
+		int n = goal.size();
+		int seen = 0;          // bit t is set once tile t has been found
+		long packedLow = 0;    // the board packed again from its tiles, to find stray bits
+		long packedHigh = 0;
+		for (int sq = 0; sq < n; sq++)
+		{
+			int t = goal.tileAt(low, high, sq);
+			if (t >= n || (seen & (1 << t)) != 0)
+			{
+				throw new IllegalArgumentException(file + ": puzzle " + i + " does not hold the numbers 0, 1, ..., "
+						+ (n - 1));
+			}
+			seen |= 1 << t;
+			packedLow |= goal.low(t, sq);
+			packedHigh |= goal.high(t, sq);
+		}
+		if (packedLow != low || packedHigh != high)
+		{
+			throw new IllegalArgumentException(file + ": puzzle " + i + " has bits outside its squares");
+		}
+	}
+	
+	
+	/**
+	 * Validate every puzzle. 
+	 * 
+	 * @throws IllegalArgumentException naming the first puzzle that is not valid 
+	 */
+	public void validate() throws IllegalArgumentException
+	{
+		for (int i = 0; i < count; i++)
+		{
+			validate(i);
+		}
+	}
+	
+	
+	/**
+	 * @param i  index of a puzzle, from 0 to count() - 1 
+	 * @return the initial state of puzzle i 
+	 * @throws IllegalArgumentException if the puzzle is not valid 
+	 */
+	public State state(int i) throws IllegalArgumentException
+	{
+		validate(i);
+		long low = low(i);
+		long high = high(i);
+		int blank = 0;
+		while (goal.tileAt(low, high, blank) != 0)
+		{
+			blank++;
+		}
+		return new State(goal, low, high, blank);
+	}
+	
+	
+	/**
+	 * Pack the text puzzle files matching a pattern, in the order of their names, into a puzzle file. 
+	 * 
+	 * @param pattern  directory or glob of files in the format read by State(String), as for 
+	 *                 BatchSolver.run() 
+	 * @param file     the puzzle file to write 
+	 * @return the number of puzzles written 
+	 * @throws IOException 
+	 * @throws IllegalArgumentException if a file is not a board as State(String) requires, or the 
+	 *                                  boards do not all have the same width 
+	 */
+	public static int fromText(String pattern, Path file) throws IOException, IllegalArgumentException
+	{
+		List<Path> files = BatchSolver.listFiles(pattern);
+		if (files.isEmpty())
+		{
+			throw new IllegalArgumentException("no files match " + pattern);
+		}
+		PuzzleWriter out = null;    // opened with the width of the first board
+		try
+		{
+			for (Path p : files)
+			{
+				try
+				{
+					int[][] board = State.readBoard(p.toString());
+					if (out == null)
+					{
+						out = new PuzzleWriter(file, board.length);
+					}
+					out.add(new State(board, out.goal));
+				}
+				catch (IllegalArgumentException e)
+				{
+					throw new IllegalArgumentException(p + ": " + e.getMessage(), e);
+				}
+			}
+			return files.size();
+		}
+		finally
+		{
+			if (out != null)
+			{
+				out.close();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Write every puzzle of a puzzle file to a text file of its own in the format read by 
+	 * State(String), named by its index with 8 digits, such as 00000000.txt. 
+	 * 
+	 * @param file  the puzzle file 
+	 * @param dir   directory receiving the text files, created if missing 
+	 * @throws IOException 
+	 * @throws IllegalArgumentException if the puzzle file or one of its puzzles is not valid 
+	 */
+	public static void toText(Path file, Path dir) throws IOException, IllegalArgumentException
+	{
+		PuzzleFile puzzles = load(file);
+		Files.createDirectories(dir);
+		int width = puzzles.width();
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < puzzles.count(); i++)
+		{
+			puzzles.validate(i);
+			sb.setLength(0);
+			for (int sq = 0; sq < width * width; sq++)
+			{
+				sb.append(puzzles.goal.tileAt(puzzles.low(i), puzzles.high(i), sq));
+				sb.append(sq % width == width - 1 ? "\n" : " ");
+			}
+			try (Writer w = Files.newBufferedWriter(dir.resolve(String.format("%08d.txt", i))))
+			{
+				w.write(sb.toString());
+			}
+		}
+	}
+	
+	
+	/**
+	 * Writes a puzzle file one puzzle at a time.  The number of puzzles in the header is filled in by 
+	 * close(). 
+	 */
+	public static class PuzzleWriter implements Closeable
+	{
+		private final FileChannel ch;
+		private final Goal goal;
+		private final ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+		private long count;
+		
+		
+		/**
+		 * @param file   the puzzle file, replaced if it exists 
+		 * @param width  width of the boards 
+		 * @throws IOException 
+		 * @throws IllegalArgumentException if the width is not from 2 to 5 
+		 */
+		public PuzzleWriter(Path file, int width) throws IOException, IllegalArgumentException
+		{
+			this.goal = Goal.defaultGoal(width);
+			this.ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+			buf.putInt(MAGIC).putInt(width).putLong(0);
+		}
+		
+		
+		/**
+		 * @param s  initial state of a puzzle 
+		 * @throws IOException 
+		 * @throws IllegalArgumentException if its board does not have the width of the file 
+		 */
+		public void add(State s) throws IOException, IllegalArgumentException
+		{
+			if (s.goal().width() != goal.width())
+			{
+				throw new IllegalArgumentException("board is not " + goal.width() + "X" + goal.width());
+			}
+			if (buf.remaining() < 16)
+			{
+				flush();
+			}
+			buf.putLong(s.packedBoard());
+			if (recordBytes(goal) == 16)
+			{
+				buf.putLong(s.packedBoardHigh());
+			}
+			count++;
+		}
+		
+		
+		private void flush() throws IOException
+		{
+			buf.flip();
+			while (buf.hasRemaining())
+			{
+				ch.write(buf);
+			}
+			buf.clear();
+		}
+		
+		
+		/**
+		 * Write the remaining puzzles and the number of puzzles, and close the file. 
+		 */
+		@Override
+		public void close() throws IOException
+		{
+			try
+			{
+				flush();
+				buf.putLong(count).flip();
+				while (buf.hasRemaining())
+				{
+					ch.write(buf, 8 + buf.position());
+				}
+			}
+			finally
+			{
+				ch.close();
+			}
+		}
+	}
+}
@@ -1,6 +1,11 @@
 package edu.iastate.cs472.proj1;
 
-import java.io.FileNotFoundException;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Arrays;
 
 /**
@@ -25,12 +30,33 @@ public class PuzzleSolver
 	 *         
 	 *  Each solution is printed out as a sequence of states, generated by single/double moves, from the 
 	 *  initial state to the goal state. If no solution exists, report it.  
+	 *  
+	 *  Usage: PuzzleSolver [puzzle file [goal file]].  Both files are in the format read by State(String) 
+	 *  and must have the same width; the goal defaults to Goal.defaultGoal() for that width. 
+	 *  
+	 *  Usage: PuzzleSolver --batch directory-or-glob [threads [mode [format]]] solves every matching file 
+	 *  with BatchSolver on the given number of threads (default one per processor) and search mode 
+	 *  (default AStar), printing the solutions in the given SolutionFormat (default Full), and exits 
+	 *  with status 1 if any file failed. 
+	 *  
+	 *  Usage: PuzzleSolver --batch-binary puzzles results [threads [mode]] does the same for the puzzles 
+	 *  of a PuzzleFile with BatchSolver.runBinary(), writing a ResultFile.  The files are converted with 
+	 *  
+	 *      --pack directory-or-glob puzzles            text puzzle files to a PuzzleFile 
+	 *      --unpack puzzles directory                  a PuzzleFile to one text file per puzzle 
+	 *      --pack-results text puzzles results         text solutions as printed by --batch to a ResultFile 
+	 *      --unpack-results results puzzles [format]   a ResultFile to text solutions on System.out 
+	 * 
+	 *  Any of the forms that solve puzzles may be preceded by --ties policy, which orders the states of 
+	 *  equal cost on OPEN by the named TieBreaking, in any case.  The default is the value of the system 
+	 *  property astar.ties, or LIFO if it is not set. 
 	 * 
 	 * @param args
-	 * @throws FileNotFoundException if the input file does not exist 
-	 * @throws IllegalArgumentException if the initial state from the file is not in the correct format
+	 * @throws IOException if the input file does not exist or the batch files cannot be listed 
+	 * @throws IllegalArgumentException if the initial state from the file is not in the correct format, 
+	 *                                  or the tie-breaking is not known 
 	 */
-	public static void main(String[] args) throws FileNotFoundException, IllegalArgumentException
+	public static void main(String[] args) throws IOException, IllegalArgumentException
 	{	
 		// Read an initial board configuration from a file.  
 
@@ -38,13 +64,70 @@ public class PuzzleSolver
 		
 		// You may make it interactive by repeatedly accepting puzzle files and print out 
 		// solutions.  (No extra credit but good for debugging and for the user.)
+		TieBreaking ties = TieBreaking.parse(System.getProperty("astar.ties", TieBreaking.LIFO.name()));
+		if (args.length > 1 && args[0].equals("--ties"))
+		{
+			ties = TieBreaking.parse(args[1]);
+			args = Arrays.copyOfRange(args, 2, args.length);
+		}
+		if (args.length > 1 && args[0].equals("--batch"))
+		{
+			int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+			SearchMode mode = args.length > 3 ? SearchMode.valueOf(args[3]) : SearchMode.AStar;
+			SolutionFormat format = args.length > 4 ? SolutionFormat.valueOf(args[4]) : SolutionFormat.Full;
+			if (BatchSolver.run(args[1], threads, mode, ties, format, System.out) > 0)
+			{
+				System.exit(1);
+			}
+			return;
+		}
+		if (args.length > 2 && args[0].equals("--batch-binary"))
+		{
+			int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+			SearchMode mode = args.length > 4 ? SearchMode.valueOf(args[4]) : SearchMode.AStar;
+			BatchSolver.runBinary(Paths.get(args[1]), Paths.get(args[2]), threads, mode, ties);
+			return;
+		}
+		if (args.length > 2 && args[0].equals("--pack"))
+		{
+			System.err.println(PuzzleFile.fromText(args[1], Paths.get(args[2])) + " puzzles packed");
+			return;
+		}
+		if (args.length > 2 && args[0].equals("--unpack"))
+		{
+			PuzzleFile.toText(Paths.get(args[1]), Paths.get(args[2]));
+			return;
+		}
+		if (args.length > 3 && args[0].equals("--pack-results"))
+		{
+			try (BufferedReader in = Files.newBufferedReader(Paths.get(args[1])))
+			{
+				System.err.println(ResultFile.fromText(in, Paths.get(args[2]), Paths.get(args[3])) + " results packed");
+			}
+			return;
+		}
+		if (args.length > 2 && args[0].equals("--unpack-results"))
+		{
+			SolutionFormat format = args.length > 3 ? SolutionFormat.valueOf(args[3]) : SolutionFormat.Full;
+			PrintStream out = new PrintStream(new BufferedOutputStream(System.out), false);
+			ResultFile.toText(Paths.get(args[1]), Paths.get(args[2]), format, out);
+			out.flush();
+			return;
+		}
+		if (args.length > 0)
+		{
+			int[][] board = State.readBoard(args[0]);
+			Goal goal = args.length > 1 ? new Goal(State.readBoard(args[1])) : Goal.defaultGoal(board.length);
+			System.out.println(EightPuzzle.solve8Puzzle(new State(board, goal), SearchMode.AStar, ties));
+			return;
+		}
 		String fileNames[] = new String[] {"8Puzzle.txt"};
 		State s = new State(fileNames[0]);
 		int[][] unsolvable = {{4,1,2},{5,0,3},{8,6,7}};
 		State s2 = new State(unsolvable);
 		int[][] test = {{7,2,4},{1,0,6},{8,3,5}};
 		State t1  = new State(test);
-		System.out.println(EightPuzzle.solve8Puzzle(t1));
+		System.out.println(EightPuzzle.solve8Puzzle(t1, SearchMode.AStar, ties));
 	}
 
 }
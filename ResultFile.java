@@ -0,0 +1,569 @@
+package edu.iastate.cs472.proj1;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * This class describes a binary file of the solutions of the puzzles of a PuzzleFile, record i 
+ * holding what EightPuzzle.solutionGoals() found for puzzle i.  A solution is stored as its moves, 
+ * each the ordinal of a Move in four bits, so the boards of the path are left to be replayed from 
+ * the puzzle.  The layout is 
+ * 
+ *     int     MAGIC 
+ *     int     board width 
+ *     long    number of records 
+ *     for each record 
+ *         byte     number of solutions, 0 if no solution exists 
+ *         for each solution 
+ *             byte     ordinal of the heuristic, or -1 if unknown 
+ *             short    number of moves, or -1 if the search failed 
+ *             bytes    the moves, two per byte, the first in the low half 
+ * 
+ * all in big-endian order.  The records have different lengths and are read in order with next(). 
+ * load() memory-maps the file read-only and next(), solutions(), heuristic(), length() and move() 
+ * read the current record in place without allocating. 
+ * 
+ * toText() writes the results in the text format of BatchSolver.run(), with the index of each puzzle 
+ * in place of its file name, and fromText() reads that format back. 
+ */
+public class ResultFile
+{
+	private static final int MAGIC = 0x505a5231;    // "PZR1"
+	private static final int HEADER = 16;
+	private static final Move[] MOVES = Move.values();
+	private static final Heuristic[] HEURISTICS = Heuristic.values();
+	
+	private final Path file;
+	private final int width;
+	private final long count;
+	private final ByteBuffer records;
+	private final int[] solution = new int[256];   // position of each solution of the current record
+	private int solutions = -1;                    // number of solutions of the current record, -1 before next()
+	
+	
+	private ResultFile(Path file, int width, long count, ByteBuffer records)
+	{
+		this.file = file;
+		this.width = width;
+		this.count = count;
+		this.records = records;
+	}
+	
+	
+	/**
+	 * Memory-map a result file. 
+	 * 
+	 * @param file 
+	 * @return the results, positioned before the first record 
+	 * @throws IOException 
+	 * @throws IllegalArgumentException if the file is not a result file 
+	 */
+	public static ResultFile load(Path file) throws IOException, IllegalArgumentException
+	{
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			if (ch.size() < HEADER)
+			{
+				throw new IllegalArgumentException(file + " is not a result file");
+			}
+			if (ch.size() > Integer.MAX_VALUE)
+			{
+				throw new IllegalArgumentException(file + " is larger than 2 GB; split it");
+			}
+			MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+			if (buf.getInt() != MAGIC)
+			{
+				throw new IllegalArgumentException(file + " is not a result file");
+			}
+			int width = buf.getInt();
+			long count = buf.getLong();
+			if (width < 2 || width > 5 || count < 0)
+			{
+				throw new IllegalArgumentException(file + " is not a result file");
+			}
+			return new ResultFile(file, width, count, buf);
+		}
+	}
+	
+	
+	/**
+	 * @return the width of the boards 
+	 */
+	public int width()
+	{
+		return width;
+	}
+	
+	
+	/**
+	 * @return the number of records 
+	 */
+	public long count()
+	{
+		return count;
+	}
+	
+	
+	/**
+	 * Move to the next record. 
+	 * 
+	 * @return false if there is none 
+	 * @throws IllegalArgumentException if the file ends within the record 
+	 */
+	public boolean next() throws IllegalArgumentException
+	{
+		if (solutions >= 0)
+		{
+			records.position(end(solutions - 1));
+		}
+		if (!records.hasRemaining())
+		{
+			solutions = -1;
+			return false;
+		}
+		int k = records.get() & 0xff;
+		int p = records.position();
+		for (int j = 0; j < k; j++)
+		{
+			solution[j] = p;
+			if (p + 3 > records.limit())
+			{
+				throw new IllegalArgumentException(file + " is truncated");
+			}
+			p = end(j);
+		}
+		if (p > records.limit())
+		{
+			throw new IllegalArgumentException(file + " is truncated");
+		}
+		solutions = k;
+		return true;
+	}
+	
+	
+	/**
+	 * @param j  index of a solution of the current record, or -1 
+	 * @return the position after it, or the position of the first solution if j is -1 
+	 */
+	private int end(int j)
+	{
+		if (j < 0)
+		{
+			return records.position();
+		}
+		int length = length(j);
+		return solution[j] + 3 + (Math.max(length, 0) + 1) / 2;
+	}
+	
+	
+	/**
+	 * @return the number of solutions of the current record, 0 if no solution exists 
+	 */
+	public int solutions()
+	{
+		return solutions;
+	}
+	
+	
+	/**
+	 * @param j  index of a solution of the current record 
+	 * @return its heuristic, or null if unknown 
+	 */
+	public Heuristic heuristic(int j)
+	{
+		int h = records.get(solution[j]);
+		return h >= 0 && h < HEURISTICS.length ? HEURISTICS[h] : null;
+	}
+	
+	
+	/**
+	 * @param j  index of a solution of the current record 
+	 * @return its number of moves, or -1 if the search failed 
+	 */
+	public int length(int j)
+	{
+		return records.getShort(solution[j] + 1);
+	}
+	
+	
+	/**
+	 * @param j  index of a solution of the current record 
+	 * @param k  index of a move, from 0 to length(j) - 1 
+	 * @return the k-th move of the solution 
+	 * @throws IllegalArgumentException if the code is not that of a Move 
+	 */
+	public Move move(int j, int k) throws IllegalArgumentException
+	{
+		int b = records.get(solution[j] + 3 + k / 2);
+		int code = k % 2 == 0 ? b & 0xf : (b >>> 4) & 0xf;
+		if (code >= MOVES.length)
+		{
+			throw new IllegalArgumentException(file + ": invalid move code " + code);
+		}
+		return MOVES[code];
+	}
+	
+	
+	/**
+	 * Append the record of one puzzle to a buffer. 
+	 * 
+	 * @param goals  as returned by EightPuzzle.solutionGoals(), null if no solution exists 
+	 * @param out 
+	 */
+	static void encode(State[] goals, ByteArrayOutputStream out)
+	{
+		if (goals == null)
+		{
+			out.write(0);
+			return;
+		}
+		out.write(goals.length);
+		for (State goal : goals)
+		{
+			if (goal == null)
+			{
+				out.write(-1);
+				out.write(0xff);
+				out.write(0xff);
+				continue;
+			}
+			int count = goal.numMoves;
+			out.write(goal.context.heuristic.ordinal());
+			out.write(count >>> 8);
+			out.write(count);
+			byte[] moves = new byte[(count + 1) / 2];
+			int k = count;
+			for (State cur = goal; cur.predecessor != null; cur = cur.predecessor)
+			{
+				k--;
+				moves[k / 2] |= (byte) (k % 2 == 0 ? cur.move.ordinal() : cur.move.ordinal() << 4);
+			}
+			out.write(moves, 0, moves.length);
+		}
+	}
+	
+	
+	/**
+	 * Write the results in the text format of BatchSolver.run(), replaying every solution from its 
+	 * puzzle.  Each puzzle is headed by "== i ==" with its index i. 
+	 * 
+	 * @param results  result file 
+	 * @param puzzles  the puzzle file that was solved 
+	 * @param format   format of the solutions 
+	 * @param out 
+	 * @throws IOException 
+	 * @throws IllegalArgumentException if the files do not match, or a solution is not a legal path 
+	 *                                  to the goal 
+	 */
+	public static void toText(Path results, Path puzzles, SolutionFormat format, Appendable out)
+			throws IOException, IllegalArgumentException
+	{
+		ResultFile r = load(results);
+		PuzzleFile p = PuzzleFile.load(puzzles);
+		if (r.width != p.width() || r.count != p.count())
+		{
+			throw new IllegalArgumentException(results + " does not hold the results of " + puzzles);
+		}
+		for (int i = 0; r.next(); i++)
+		{
+			State s0 = p.state(i);
+			State[] goals = r.solutions == 0 ? null : new State[r.solutions];
+			for (int j = 0; j < r.solutions; j++)
+			{
+				goals[j] = r.replay(s0, j);
+			}
+			out.append("== " + i + " ==\n");
+			EightPuzzle.writeSolutions(s0, goals, format, out);
+			out.append("\n\n");
+		}
+	}
+	
+	
+	/**
+	 * @param s0  initial state of the puzzle of the current record 
+	 * @param j   index of a solution of the current record 
+	 * @return the goal state of the solution, linked to a copy of s0 by its predecessors, or null if 
+	 *         the search failed 
+	 * @throws IllegalArgumentException if the solution is not a legal path to the goal 
+	 */
+	private State replay(State s0, int j) throws IllegalArgumentException
+	{
+		int length = length(j);
+		if (length < 0)
+		{
+			return null;
+		}
+		Heuristic h = heuristic(j);
+		State cur = (State) s0.clone();
+		cur.context = new SearchContext(h == null ? Heuristic.ManhattanDist : h, s0.goal());
+		for (int k = 0; k < length; k++)
+		{
+			State next = cur.isLegalMove(move(j, k)) ? cur.successor(move(j, k)) : null;
+			if (next == null)
+			{
+				throw new IllegalArgumentException(file + ": illegal move " + move(j, k) + " in " + s0);
+			}
+			cur = next;
+		}
+		if (cur.packedBoard() != s0.goal().packedLow() || cur.packedBoardHigh() != s0.goal().packedHigh())
+		{
+			throw new IllegalArgumentException(file + ": solution does not reach the goal from " + s0);
+		}
+		return cur;
+	}
+	
+	
+	private static final Pattern HEADER_LINE = Pattern.compile("(\\d+) moves in total \\(heuristic: (.*)\\)");
+	
+	
+	/**
+	 * Read solutions in the text format of BatchSolver.run(), in either SolutionFormat, and write them 
+	 * as a result file.  The sections headed by "== name ==" must be the solutions of the puzzles of 
+	 * the puzzle file in order; every solution is checked by replaying it. 
+	 * 
+	 * @param in       the text 
+	 * @param puzzles  the puzzle file that was solved 
+	 * @param results  the result file to write 
+	 * @return the number of records written 
+	 * @throws IOException 
+	 * @throws IllegalArgumentException if a section is not a solution of its puzzle, or there are not 
+	 *                                  as many sections as puzzles 
+	 */
+	public static int fromText(BufferedReader in, Path puzzles, Path results) throws IOException, IllegalArgumentException
+	{
+		PuzzleFile p = PuzzleFile.load(puzzles);
+		List<String> section = new ArrayList<>();
+		int i = 0;
+		try (ResultWriter out = new ResultWriter(results, p.width()))
+		{
+			ByteArrayOutputStream record = new ByteArrayOutputStream();
+			String line = in.readLine();
+			while (line != null)
+			{
+				if (!line.startsWith("== "))
+				{
+					line = in.readLine();
+					continue;
+				}
+				String name = line;
+				section.clear();
+				for (line = in.readLine(); line != null && !line.startsWith("== "); line = in.readLine())
+				{
+					section.add(line);
+				}
+				if (i >= p.count())
+				{
+					throw new IllegalArgumentException(name + ": more sections than the " + p.count() + " puzzles");
+				}
+				record.reset();
+				encode(parse(name, section, p.state(i)), record);
+				out.add(record.toByteArray(), 1);
+				i++;
+			}
+		}
+		if (i != p.count())
+		{
+			throw new IllegalArgumentException("found " + i + " sections for " + p.count() + " puzzles");
+		}
+		return i;
+	}
+	
+	
+	/**
+	 * @param name     header line of the section 
+	 * @param section  lines of one section of the text of BatchSolver.run() 
+	 * @param s0       initial state of its puzzle 
+	 * @return the goal states of the solutions as EightPuzzle.solutionGoals() returns them 
+	 * @throws IllegalArgumentException if the section is not a solution of s0 
+	 */
+	private static State[] parse(String name, List<String> section, State s0) throws IllegalArgumentException
+	{
+		List<State> goals = new ArrayList<>();
+		State cur = null;       // last state of the solution being read, null if none
+		int expected = 0;
+		for (String line : section)
+		{
+			if (line.startsWith("FAILED: "))
+			{
+				throw new IllegalArgumentException(name + ": " + line);
+			}
+			if (line.startsWith("No solution exists"))
+			{
+				return null;
+			}
+			if (line.startsWith("OPEN list empty"))
+			{
+				finish(name, cur, expected);
+				goals.add(null);
+				cur = null;
+				continue;
+			}
+			Matcher m = HEADER_LINE.matcher(line);
+			if (m.matches())
+			{
+				finish(name, cur, expected);
+				cur = (State) s0.clone();
+				cur.context = new SearchContext(heuristic(name, m.group(2)), s0.goal());
+				expected = Integer.parseInt(m.group(1));
+				goals.add(cur);
+				continue;
+			}
+			if (cur == null)
+			{
+				continue;
+			}
+			for (String token : line.trim().split(" +"))
+			{
+				if (token.isEmpty() || Character.isDigit(token.charAt(0)))
+				{
+					continue;     // a row of a board
+				}
+				Move move;
+				try
+				{
+					move = Move.valueOf(token);
+				}
+				catch (IllegalArgumentException e)
+				{
+					throw new IllegalArgumentException(name + ": unknown move " + token);
+				}
+				State next = cur.isLegalMove(move) ? cur.successor(move) : null;
+				if (next == null)
+				{
+					throw new IllegalArgumentException(name + ": illegal move " + token);
+				}
+				cur = next;
+				goals.set(goals.size() - 1, cur);
+			}
+		}
+		finish(name, cur, expected);
+		if (goals.isEmpty())
+		{
+			throw new IllegalArgumentException(name + ": no solution found");
+		}
+		return goals.toArray(new State[0]);
+	}
+	
+	
+	/**
+	 * @param name      header line of the section 
+	 * @param cur       last state of the solution read, or null 
+	 * @param expected  number of moves given in its first line 
+	 * @throws IllegalArgumentException if the solution does not have that many moves or does not 
+	 *                                  reach the goal 
+	 */
+	private static void finish(String name, State cur, int expected) throws IllegalArgumentException
+	{
+		if (cur == null)
+		{
+			return;
+		}
+		Goal goal = cur.goal();
+		if (cur.numMoves != expected || cur.packedBoard() != goal.packedLow() || cur.packedBoardHigh() != goal.packedHigh())
+		{
+			throw new IllegalArgumentException(name + ": solution does not reach the goal in " + expected + " moves");
+		}
+	}
+	
+	
+	/**
+	 * @param name   header line of the section 
+	 * @param label  name of a heuristic in the first line of a solution 
+	 * @return the heuristic 
+	 * @throws IllegalArgumentException if no heuristic has that name 
+	 */
+	private static Heuristic heuristic(String name, String label) throws IllegalArgumentException
+	{
+		for (Heuristic h : HEURISTICS)
+		{
+			if (EightPuzzle.label(h).equals(label))
+			{
+				return h;
+			}
+		}
+		throw new IllegalArgumentException(name + ": unknown heuristic " + label);
+	}
+	
+	
+	/**
+	 * Writes a result file from encoded records.  The number of records in the header is filled in by 
+	 * close(). 
+	 */
+	public static class ResultWriter implements Closeable
+	{
+		private final FileChannel ch;
+		private long count;
+		
+		
+		/**
+		 * @param file   the result file, replaced if it exists 
+		 * @param width  width of the boards 
+		 * @throws IOException 
+		 */
+		public ResultWriter(Path file, int width) throws IOException
+		{
+			this.ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+			write(ByteBuffer.allocate(HEADER).putInt(MAGIC).putInt(width).putLong(0).flip());
+		}
+		
+		
+		/**
+		 * @param records  records made by encode() 
+		 * @param n        number of records in them 
+		 * @throws IOException 
+		 */
+		void add(byte[] records, int n) throws IOException
+		{
+			write(ByteBuffer.wrap(records));
+			count += n;
+		}
+		
+		
+		private void write(ByteBuffer buf) throws IOException
+		{
+			while (buf.hasRemaining())
+			{
+				ch.write(buf);
+			}
+		}
+		
+		
+		/**
+		 * Write the number of records and close the file. 
+		 */
+		@Override
+		public void close() throws IOException
+		{
+			try
+			{
+				ByteBuffer buf = ByteBuffer.allocate(8).putLong(count).flip();
+				while (buf.hasRemaining())
+				{
+					ch.write(buf, 8 + buf.position());
+				}
+			}
+			finally
+			{
+				ch.close();
+			}
+		}
+	}
+}
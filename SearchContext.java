@@ -0,0 +1,136 @@
+package edu.iastate.cs472.proj1;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * Everything one search needs besides its lists: the heuristic and its weight, the moves it allows, the goal, the 
+ * statistics of its work, and an optional listener.  Every State carries the context of the search that generated it, so that 
+ * cost() and solutionPath() do not depend on any global setting and several searches can run at the 
+ * same time, each with its own context. 
+ * 
+ * The statistics are updated by the thread running the search without synchronization; read them 
+ * after the search has returned.  cancel() may be called from any thread and makes the search 
+ * return without a solution. 
+ * 
+ * A context has no listener unless one is set after it is created.  SearchMode.goal() and 
+ * EightPuzzle.solutionGoals() take a listener for the contexts they create, so that a caller such 
+ * as BatchSolver can observe its own searches and no others. 
+ * 
+ * With a weight w > 1, State.cost() is g + floor(w * h) and A* becomes weighted A*: it expands fewer 
+ * states and, if h is admissible, still returns a solution at most w times as long as the shortest 
+ * one, since floor(w * h) never exceeds w times the true distance.  AnytimeAStar lowers the weight 
+ * of its context between its iterations. 
+ * 
+ * The tie-breaking orders the states of equal cost on OPEN.  A context gets LIFO unless it is given 
+ * another one; PuzzleSolver takes it from its --ties option. 
+ */
+public class SearchContext
+{
+	public final Heuristic heuristic;
+	public final Goal goal;
+	public final Move[] moves;              // moves allowed with the heuristic; see EightPuzzle.moves()
+	public final MoveTable moveTable;       // the same moves by empty square, for the width of the goal
+	double weight = 1;                      // factor of the heuristic in State.cost(), at least 1 
+	public final TieBreaking tieBreaking;   // order of the states of equal cost on OPEN
+	final PatternDatabase patterns;         // database of the goal if heuristic is PatternDatabase,
+	                                        // null otherwise
+	
+	public final SearchStats stats = new SearchStats();
+	public SearchListener listener;         // null if none 
+	
+	private volatile boolean cancelled = false;
+	
+	
+	/**
+	 * @param h     heuristic 
+	 * @param goal  goal configuration of the states searched 
+	 */
+	public SearchContext(Heuristic h, Goal goal)
+	{
+		this(h, goal, 1, TieBreaking.LIFO);
+	}
+	
+	
+	/**
+	 * @param h       heuristic 
+	 * @param goal    goal configuration of the states searched 
+	 * @param weight  factor of the heuristic in State.cost() 
+	 * @throws IllegalArgumentException if weight is less than 1 
+	 */
+	public SearchContext(Heuristic h, Goal goal, double weight) throws IllegalArgumentException
+	{
+		this(h, goal, weight, TieBreaking.LIFO);
+	}
+	
+	
+	/**
+	 * @param h            heuristic 
+	 * @param goal         goal configuration of the states searched 
+	 * @param weight       factor of the heuristic in State.cost() 
+	 * @param tieBreaking  order of the states of equal cost on OPEN 
+	 * @throws IllegalArgumentException if weight is less than 1 
+	 */
+	public SearchContext(Heuristic h, Goal goal, double weight, TieBreaking tieBreaking) 
+			throws IllegalArgumentException
+	{
+		if (!(weight >= 1))
+		{
+			throw new IllegalArgumentException("weight must be at least 1");
+		}
+		this.heuristic = h;
+		this.goal = goal;
+		this.moves = EightPuzzle.moves(h);
+		this.moveTable = MoveTable.of(goal.width(), moves.length > 4);
+		this.patterns = h == Heuristic.PatternDatabase ? PatternDatabase.forGoal(goal) : null;
+		this.weight = weight;
+		this.tieBreaking = tieBreaking;
+	}
+	
+	
+	/**
+	 * @return the factor of the heuristic in State.cost() 
+	 */
+	public double weight()
+	{
+		return weight;
+	}
+	
+	
+	/**
+	 * Record the end of the search and tell the listener, if any. 
+	 * 
+	 * @param goal   the goal state reached, or null if none 
+	 * @param start  System.nanoTime() at the start of the search 
+	 */
+	void finished(State goal, long start)
+	{
+		stats.totalNanos = System.nanoTime() - start;
+		stats.depth = goal == null ? -1 : goal.numMoves;
+		if (listener != null)
+		{
+			listener.finished(this, goal);
+		}
+	}
+	
+	
+	/**
+	 * Ask the search to stop.  It returns without a solution at its next expansion. 
+	 */
+	public void cancel()
+	{
+		cancelled = true;
+	}
+	
+	
+	/**
+	 * @return true if cancel() has been called 
+	 */
+	public boolean isCancelled()
+	{
+		return cancelled;
+	}
+}
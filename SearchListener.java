@@ -0,0 +1,55 @@
+package edu.iastate.cs472.proj1;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * Receives events from searches whose SearchContext has it as listener.  The methods are called on 
+ * the thread running the search, so they should return quickly, and an implementation shared by 
+ * concurrent searches must be thread-safe. 
+ */
+public interface SearchListener
+{
+	/**
+	 * Called after a state has been removed from OPEN and before its successors are generated. 
+	 * 
+	 * @param context  context of the search 
+	 * @param s        the state being expanded 
+	 */
+	default void expanded(SearchContext context, State s) {}
+	
+	
+	/**
+	 * Called once when a search returns, with its statistics complete. 
+	 * 
+	 * @param context  context of the search 
+	 * @param goal     the goal state reached, or null if the search failed or was cancelled 
+	 */
+	default void finished(SearchContext context, State goal) {}
+	
+	
+	/**
+	 * Called by an anytime search each time its best solution improves, by becoming shorter or by a 
+	 * tighter bound. 
+	 * 
+	 * @param context  context of the search 
+	 * @param goal     the goal state of the best solution, linked to the initial state by its 
+	 *                 predecessors; it is not changed by the rest of the search 
+	 * @param bound    proven bound on the ratio of the length of the solution to the shortest one, 
+	 *                 or Double.NaN if the heuristic is not admissible 
+	 */
+	default void improved(SearchContext context, State goal, double bound) {}
+	
+	
+	/**
+	 * @return true if searches reporting to this listener should measure SearchStats.evaluationNanos 
+	 *         and SearchStats.queueNanos, which reads the clock around every list operation 
+	 */
+	default boolean timed() 
+	{
+		return false;
+	}
+}
@@ -0,0 +1,191 @@
+package edu.iastate.cs472.proj1;
+
+import java.nio.file.Path;
+
+/**
+ * 
+ * Search algorithms that EightPuzzle.solve8Puzzle() can use.  Parallel runs ParallelAStar with a 
+ * thread per processor.  WeightedAStar runs A* with the heuristic weighted by WEIGHT, and ARAStar runs 
+ * AnytimeAStar from the weight WEIGHT down to 1; neither has a time budget here, see 
+ * AnytimeAStar.search() for one.  SMAStar runs MemoryBoundedAStar with a budget of NODES nodes and 
+ * returns MemoryBoundedAStar.BUDGET_EXHAUSTED, or a null goal, if no solution fits in it.  Arena runs 
+ * ArenaAStar, off the heap if the system property arena.direct is true.  External runs ExternalAStar 
+ * with its files in DIR and a memory budget of MEMORY bytes.  DCFAStar runs FrontierAStar, which keeps 
+ * no CLOSED list.  All of them produce a solution 
+ * string in the format of EightPuzzle.solutionPath(), or the goal state from which it is written. 
+ *
+ */
+public enum SearchMode 
+{
+	AStar, IDAStar, Bidirectional, Oracle, Parallel, WeightedAStar, ARAStar, SMAStar, Arena, External, DCFAStar;
+	
+	/**
+	 * Weight of the heuristic for WeightedAStar and initial weight for ARAStar, given by the system 
+	 * property astar.weight (default 1.5 and AnytimeAStar.INITIAL_WEIGHT). 
+	 */
+	private static final String WEIGHT = "astar.weight";
+	
+	/**
+	 * Budget of SMAStar in nodes, given by the system property sma.nodes (default 
+	 * MemoryBoundedAStar.DEFAULT_BUDGET). 
+	 */
+	private static final String NODES = "sma.nodes";
+	
+	/**
+	 * Whether Arena keeps its nodes off the heap, given by the system property arena.direct (default 
+	 * false). 
+	 */
+	private static final String DIRECT = "arena.direct";
+	
+	/**
+	 * Directory of the files of External, given by the system property external.dir (default the 
+	 * temporary directory java.io.tmpdir). 
+	 */
+	private static final String DIR = "external.dir";
+	
+	/**
+	 * Memory budget of External in bytes, given by the system property external.memory (default 
+	 * ExternalAStar.DEFAULT_MEMORY). 
+	 */
+	private static final String MEMORY = "external.memory";
+	
+	
+	/**
+	 * Solve the puzzle from s0 with this search algorithm. 
+	 * 
+	 * Precondition: the puzzle is solvable with the initial state s0.
+	 * 
+	 * @param s0  initial state
+	 * @param h   heuristic 
+	 * @return    solution string 
+	 */
+	public String solve(State s0, Heuristic h)
+	{
+		switch (this)
+		{
+			case IDAStar -> {return IDAStarSearch.solve(s0, h);}
+			case Bidirectional -> {return BidirectionalAStar.solve(s0, h);}
+			case Oracle -> {return DistanceOracle.solve(s0, h);}
+			case Parallel -> {return ParallelAStar.solve(s0, h, Runtime.getRuntime().availableProcessors());}
+			case WeightedAStar -> {return EightPuzzle.AStar(s0, h, weight(1.5));}
+			case ARAStar -> {return EightPuzzle.solutionPath(goal(s0, h));}
+			case SMAStar -> {return MemoryBoundedAStar.solve(s0, new SearchContext(h, s0.goal()), nodes());}
+			case Arena -> {return EightPuzzle.solutionPath(goal(s0, h));}
+			case External -> {return EightPuzzle.solutionPath(goal(s0, h));}
+			case DCFAStar -> {return FrontierAStar.solve(s0, h);}
+			default -> {return EightPuzzle.AStar(s0, h);}
+		}
+	}
+	
+	
+	/**
+	 * Solve the puzzle from s0 with this search algorithm, returning the path instead of a string. 
+	 * 
+	 * Precondition: the puzzle is solvable with the initial state s0.
+	 * 
+	 * @param s0  initial state
+	 * @param h   heuristic 
+	 * @return    the goal state, linked to a copy of s0 by its predecessors, or null if the search 
+	 *            failed 
+	 */
+	public State goal(State s0, Heuristic h)
+	{
+		return goal(s0, h, null, TieBreaking.LIFO);
+	}
+	
+	
+	/**
+	 * Same as goal(s0, h) but with the given listener and tie-breaking in the context of the search. 
+	 * 
+	 * @param s0        initial state
+	 * @param h         heuristic 
+	 * @param listener  listener of the search, or null for none 
+	 * @param ties      order of the states of equal cost on OPEN 
+	 * @return    the goal state, linked to a copy of s0 by its predecessors, or null if the search 
+	 *            failed 
+	 */
+	public State goal(State s0, Heuristic h, SearchListener listener, TieBreaking ties)
+	{
+		switch (this)
+		{
+			case IDAStar -> {return IDAStarSearch.goal(s0, context(s0, h, 1, listener, ties));}
+			case Bidirectional -> 
+			{
+				return new BidirectionalAStar(s0, context(s0, BidirectionalAStar.supported(h), 1, listener, ties)).search();
+			}
+			case Oracle -> {return DistanceOracle.goal(s0, context(s0, h, 1, listener, ties));}
+			case Parallel -> 
+			{
+				SearchContext context = context(s0, h, 1, listener, ties);
+				return ParallelAStar.search((State) s0.clone(), context, Runtime.getRuntime().availableProcessors());
+			}
+			case WeightedAStar -> 
+			{
+				SearchContext context = context(s0, h, weight(1.5), listener, ties);
+				return EightPuzzle.search((State) s0.clone(), context, FrontierType.BucketQueue.create(context));
+			}
+			case ARAStar -> 
+			{
+				SearchContext context = context(s0, h, weight(AnytimeAStar.INITIAL_WEIGHT), listener, ties);
+				return AnytimeAStar.search(s0, context, AnytimeAStar.WEIGHT_STEP, 0);
+			}
+			case SMAStar -> {return MemoryBoundedAStar.search(s0, context(s0, h, 1, listener, ties), nodes());}
+			case Arena -> {return ArenaAStar.search(s0, context(s0, h, 1, listener, ties), Boolean.getBoolean(DIRECT));}
+			case External -> {return external(context(s0, h, 1, listener, ties)).search(s0);}
+			case DCFAStar -> {return FrontierAStar.search(s0, context(s0, h, 1, listener, ties));}
+			default -> 
+			{
+				SearchContext context = context(s0, h, 1, listener, ties);
+				return EightPuzzle.search((State) s0.clone(), context, FrontierType.BucketQueue.create(context));
+			}
+		}
+	}
+	
+	
+	/**
+	 * @param s0        initial state 
+	 * @param h         heuristic 
+	 * @param weight    factor of the heuristic 
+	 * @param listener  listener of the search, or null for none 
+	 * @param ties      order of the states of equal cost on OPEN 
+	 * @return a context for a search from s0 
+	 */
+	private static SearchContext context(State s0, Heuristic h, double weight, SearchListener listener, 
+			TieBreaking ties)
+	{
+		SearchContext context = new SearchContext(h, s0.goal(), weight, ties);
+		context.listener = listener;
+		return context;
+	}
+	
+	
+	/**
+	 * @param fallback  weight if the system property astar.weight is not set 
+	 * @return the weight of the heuristic 
+	 */
+	private static double weight(double fallback)
+	{
+		String w = System.getProperty(WEIGHT);
+		return w == null ? fallback : Double.parseDouble(w);
+	}
+	
+	
+	/**
+	 * @return the budget of SMAStar in nodes 
+	 */
+	private static int nodes()
+	{
+		return Integer.getInteger(NODES, MemoryBoundedAStar.DEFAULT_BUDGET);
+	}
+	
+	
+	/**
+	 * @param context  context of the search 
+	 * @return an ExternalAStar with the directory and memory budget of External 
+	 */
+	private static ExternalAStar external(SearchContext context)
+	{
+		Path dir = Path.of(System.getProperty(DIR, System.getProperty("java.io.tmpdir")));
+		return new ExternalAStar(context, dir, Long.getLong(MEMORY, ExternalAStar.DEFAULT_MEMORY));
+	}
+}
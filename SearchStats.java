@@ -0,0 +1,100 @@
+package edu.iastate.cs472.proj1;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * Counters of the work done by one search, kept in its SearchContext.  The counts are always 
+ * collected since they cost an increment each; the time spent evaluating states and in the OPEN and 
+ * CLOSED lists is only measured by A* when the context's SearchListener asks for it, as reading the 
+ * clock around every list operation slows the search down by a noticeable fraction. 
+ * 
+ * Like the context, a SearchStats object is written by the thread running the search without 
+ * synchronization; read it after the search has returned or from the listener. 
+ */
+public class SearchStats
+{
+	public long expanded = 0;           // states removed from OPEN
+	public long generated = 0;          // successor states generated
+	public long duplicatesOpen = 0;     // successors whose board was already on OPEN
+	public long duplicatesClosed = 0;   // successors whose board was already on CLOSED
+	public long reopened = 0;           // states moved back from CLOSED to OPEN on a shorter path
+	public int peakOpen = 0;            // largest size of OPEN
+	public int peakClosed = 0;          // largest size of CLOSED
+	public int depth = -1;              // number of moves of the solution found; negative if none
+	
+	public long totalNanos = 0;         // time of the whole search
+	public long evaluationNanos = 0;    // time generating successors and evaluating their cost;
+	                                    // only measured if SearchListener.timed()
+	public long queueNanos = 0;         // time in OPEN and CLOSED operations; only measured if 
+	                                    // SearchListener.timed()
+	
+	
+	/**
+	 * Record the sizes of OPEN and CLOSED if they are the largest so far. 
+	 * 
+	 * @param open    size of OPEN 
+	 * @param closed  size of CLOSED 
+	 */
+	void sizes(int open, int closed)
+	{
+		if (open > peakOpen)
+		{
+			peakOpen = open;
+		}
+		if (closed > peakClosed)
+		{
+			peakClosed = closed;
+		}
+	}
+	
+	
+	/**
+	 * The effective branching factor is the b for which a uniform tree of the solution depth d has 
+	 * as many nodes as the search generated: generated + 1 = 1 + b + b^2 + ... + b^d. 
+	 * 
+	 * @return the effective branching factor, or 0 if no solution has been found 
+	 */
+	public double effectiveBranchingFactor()
+	{
+		if (depth <= 0)
+		{
+			return 0;
+		}
+		double lo = 1;
+		double hi = Math.max(2, generated + 1);
+		for (int k = 0; k < 100; k++)
+		{
+			double b = (lo + hi) / 2;
+			double nodes = 0;
+			double power = 1;
+			for (int i = 0; i <= depth; i++)
+			{
+				nodes += power;
+				power *= b;
+			}
+			if (nodes < generated + 1)
+			{
+				lo = b;
+			}
+			else
+			{
+				hi = b;
+			}
+		}
+		return (lo + hi) / 2;
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return String.format("depth %d, expanded %d, generated %d, duplicates %d on OPEN %d on CLOSED, "
+				+ "reopened %d, peak OPEN %d, peak CLOSED %d, b* %.3f, %.3f ms (evaluation %.3f ms, queue %.3f ms)",
+				depth, expanded, generated, duplicatesOpen, duplicatesClosed, reopened, peakOpen, peakClosed,
+				effectiveBranchingFactor(), totalNanos / 1e6, evaluationNanos / 1e6, queueNanos / 1e6);
+	}
+}
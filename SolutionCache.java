@@ -0,0 +1,218 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * A bounded cache of A* solutions in front of EightPuzzle.AStar(), for workloads that submit the 
+ * same initial states again and again.  An entry is keyed by the goal, the packed board of a state 
+ * and the heuristic, which also determines the allowed moves, and holds the moves from that state 
+ * to the goal rather than the rendered solution string. 
+ * 
+ * Every state on a solution path is cached as well: the rest of the path from it is a solution 
+ * found by the same search, optimal if the heuristic is admissible.  A query for such a state is a 
+ * hit even though it was never searched from, although the path returned may differ from the one 
+ * that a fresh search would print when there are several optimal solutions.  The suffix entries 
+ * share the move array of the path they come from. 
+ * 
+ * When the cache holds capacity entries, adding one evicts the least recently used.  All methods 
+ * are thread-safe; two threads missing on the same key at once both run the search. 
+ */
+public class SolutionCache
+{
+	/**
+	 * Key of an entry: a board configuration solved with a heuristic towards a goal. 
+	 */
+	private record Key(Goal goal, long tiles, long tilesHigh, Heuristic heuristic) {}
+	
+	
+	/**
+	 * The moves path[from], path[from + 1], ..., path[path.length - 1]. 
+	 */
+	private record Entry(Move[] path, int from) {}
+	
+	
+	private final int capacity;
+	private final LinkedHashMap<Key, Entry> entries;
+	
+	private long hits = 0;          // all hits, including suffix hits
+	private long suffixHits = 0;    // hits on states in the middle of a cached path
+	private long misses = 0;
+	private long evictions = 0;
+	
+	
+	/**
+	 * @param capacity  maximum number of entries, at least 1 
+	 * @throws IllegalArgumentException if capacity < 1 
+	 */
+	public SolutionCache(int capacity) throws IllegalArgumentException
+	{
+		if (capacity < 1)
+		{
+			throw new IllegalArgumentException("capacity must be at least 1");
+		}
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest)
+			{
+				if (size() > SolutionCache.this.capacity)
+				{
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+	
+	
+	/**
+	 * Solve the puzzle as EightPuzzle.solve8Puzzle(s0) does, with every A* search going through this 
+	 * cache. 
+	 * 
+	 * @param s0  initial state 
+	 * @return a string as specified for EightPuzzle.solve8Puzzle() 
+	 */
+	public String solve8Puzzle(State s0)
+	{
+		return EightPuzzle.solve8Puzzle(s0, this::solve);
+	}
+	
+	
+	/**
+	 * Return the solution of EightPuzzle.AStar(s0, h) from the cache, or run the search and cache 
+	 * its path and all of the path's suffixes. 
+	 * 
+	 * Precondition: the puzzle is solvable with the initial state s0. 
+	 * 
+	 * @param s0  initial state 
+	 * @param h   heuristic 
+	 * @return    solution string in the format of EightPuzzle.solutionPath() 
+	 */
+	public String solve(State s0, Heuristic h)
+	{
+		SearchContext context = new SearchContext(h, s0.goal());
+		Key key = new Key(s0.goal(), s0.packedBoard(), s0.packedBoardHigh(), h);
+		Entry e;
+		synchronized (this)
+		{
+			e = entries.get(key);
+			if (e == null)
+			{
+				misses++;
+			}
+			else
+			{
+				hits++;
+				if (e.from > 0)
+				{
+					suffixHits++;
+				}
+			}
+		}
+		if (e != null)
+		{
+			Move[] moves = Arrays.copyOfRange(e.path, e.from, e.path.length);
+			return EightPuzzle.solutionPath(EightPuzzle.replay(s0, context, moves, moves.length));
+		}
+		
+		State goal = EightPuzzle.search((State) s0.clone(), context, FrontierType.BucketQueue.create(context));
+		if (goal == null)
+		{
+			return "OPEN list empty, exit with failure";
+		}
+		put(goal, h);
+		return EightPuzzle.solutionPath(goal);
+	}
+	
+	
+	/**
+	 * Cache the path ending in goal under every state on it but the goal itself. 
+	 * 
+	 * @param goal  last state of a predecessor chain found by A* 
+	 * @param h     heuristic of the search 
+	 */
+	private void put(State goal, Heuristic h)
+	{
+		Move[] path = new Move[goal.numMoves];
+		State[] states = new State[goal.numMoves];
+		State cur = goal;
+		for (int k = path.length - 1; k >= 0; k--)
+		{
+			path[k] = cur.move;
+			cur = cur.predecessor;
+			states[k] = cur;
+		}
+		synchronized (this)
+		{
+			// the deepest suffixes go in first, so that the initial state is the most recently used
+			for (int k = path.length - 1; k >= 0; k--)
+			{
+				State s = states[k];
+				entries.put(new Key(s.goal(), s.packedBoard(), s.packedBoardHigh(), h), new Entry(path, k));
+			}
+		}
+	}
+	
+	
+	/**
+	 * @return the number of entries 
+	 */
+	public synchronized int size()
+	{
+		return entries.size();
+	}
+	
+	
+	/**
+	 * @return the number of queries answered from the cache 
+	 */
+	public synchronized long hits()
+	{
+		return hits;
+	}
+	
+	
+	/**
+	 * @return the number of queries answered from an entry for a state inside a cached path 
+	 */
+	public synchronized long suffixHits()
+	{
+		return suffixHits;
+	}
+	
+	
+	/**
+	 * @return the number of queries that ran a search 
+	 */
+	public synchronized long misses()
+	{
+		return misses;
+	}
+	
+	
+	/**
+	 * @return the number of entries evicted to stay within the capacity 
+	 */
+	public synchronized long evictions()
+	{
+		return evictions;
+	}
+	
+	
+	@Override
+	public synchronized String toString()
+	{
+		return String.format("%d entries, %d hits (%d on suffixes), %d misses, %d evictions",
+				entries.size(), hits, suffixHits, misses, evictions);
+	}
+}
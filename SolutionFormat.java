@@ -0,0 +1,16 @@
+package edu.iastate.cs472.proj1;
+
+
+/**
+ * 
+ * Formats in which EightPuzzle.writeSolution() prints a solution path.  Full is the format of the 
+ * project description: the number of moves, then every configuration on the path with the move 
+ * between each two.  MovesOnly prints the number of moves and the initial configuration as Full 
+ * does, followed by a blank line and the moves on one line separated by spaces, which is much 
+ * shorter for batch output. 
+ *
+ */
+public enum SolutionFormat 
+{
+	Full, MovesOnly 
+}
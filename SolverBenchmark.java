@@ -0,0 +1,1144 @@
+package edu.iastate.cs472.proj1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ *  
+ * @author Owen Kim
+ *
+ */
+
+/**
+ * Stand-alone benchmarks of the solver.  Run with a mode as the first argument: 
+ * 
+ *     frontier [heuristic] [n] [ties] 
+ *                                expansions per second of A* with each FrontierType on the first n 
+ *                                (default 10) deepest instances of the 8-puzzle (default heuristic 
+ *                                ManhattanDist), with the given TieBreaking (default LIFO, any case) 
+ *     pdb [n]                    load time of the default pattern database, and nodes expanded by A* 
+ *                                with PatternDatabase versus ManhattanDist on n deepest instances 
+ *     bidir [heuristic] [n]      nodes expanded and time taken by bidirectional versus unidirectional 
+ *                                A* on n instances spread evenly over all 181440 solvable 8-puzzle 
+ *                                configurations (default all of them, heuristic ManhattanDist) 
+ *     check [heuristic]          solution length of A* with the heuristic (default each of the three 
+ *                                of EightPuzzle.solve8Puzzle()) on every one of the 181440 solvable 
+ *                                8-puzzle configurations, compared with its distance from the 
+ *                                breadth-first search of the goal, or for DoubleMoveHeuristic with the 
+ *                                recorded DOUBLE_MOVE_EXCESS; exits with an IllegalStateException on 
+ *                                any difference 
+ *     oracle                     generation and load time of the distance oracle, and time per 
+ *                                table lookup and per solution over all solvable configurations 
+ *     alloc                      bytes allocated per heuristic evaluation, which must be zero; exits with 
+ *                                an IllegalStateException otherwise 
+ *     hda [heuristic] [n] [walk] time of ParallelAStar on 1, 2, 4, 8 and 16 threads versus 
+ *                                EightPuzzle.search() on n (default 10) deepest 8-puzzle instances 
+ *                                and n 15-puzzle instances made by fixed random walks of the given 
+ *                                length (default 100) from the goal (default heuristic ManhattanDist) 
+ *     cache [n] [capacity] [s]   time of n (default 100000) ManhattanDist A* requests with and without 
+ *                                a SolutionCache of the given capacity (default 10000), the requests 
+ *                                drawn from 50000 instances with Zipf exponent s (default 1.0) 
+ *     heuristic [n] [walk]       nodes expanded and time taken by A* with ManhattanDist, LinearConflict 
+ *                                and WalkingDistance on n (default 100) 8-puzzle instances at each of 
+ *                                the depths 10, 15, 20, 25 and 30, and on n / 10 15-puzzle instances 
+ *                                made by random walks of each of the lengths walk / 2 and walk 
+ *                                (default 100) 
+ *     ties [n] [walk]            nodes expanded in all and on the last f-layer by A* with each 
+ *                                TieBreaking, with ManhattanDist, on the instances of heuristic 
+ *     weighted [n] [walk]        time and solution length of A*, weighted A* with weights 1.5, 2 and 3, 
+ *                                and AnytimeAStar from 3 down to 1 with its time to each improved 
+ *                                solution, on n (default 10) 15-puzzle instances made by random walks of 
+ *                                the given length (default 200), with LinearConflict 
+ *     sma [budget] [n] [walk]    MemoryBoundedAStar with budgets of budget / 100, budget / 10 and 
+ *                                budget (default 100000) nodes versus A* on n (default 10) 15-puzzle 
+ *                                instances made by random walks of the given length (default 100), 
+ *                                with LinearConflict, and the heap retained per node held 
+ *     arena [n] [walk]           time, garbage collections and peak heap of A* with State objects 
+ *                                versus ArenaAStar on and off the heap, over a batch of n (default 20) 
+ *                                15-puzzle instances made by random walks of the given length 
+ *                                (default 140), with ManhattanDist 
+ *     dcfa [n] [walk]            time, nodes stored and peak heap of A* versus FrontierAStar on n 
+ *                                (default 10) 15-puzzle instances made by random walks of the given 
+ *                                length (default 140), with ManhattanDist 
+ *     external [n] [walk] [mem]  time, solution length and bytes read and written of ExternalAStar with a 
+ *                                memory budget of mem bytes (default 1 MB) versus ArenaAStar on n 
+ *                                (default 5) 15-puzzle instances made by random walks of the given 
+ *                                length (default 140), with ManhattanDist, and the work and I/O of each 
+ *                                f-layer of the last instance 
+ */
+public class SolverBenchmark 
+{
+	/**
+	 * Number of solvable 8-puzzle configurations whose solution by A* with DoubleMoveHeuristic is longer 
+	 * than the shortest with double moves by 0, 1, 2 and 3 moves, recorded from EightPuzzle.search() 
+	 * with the BucketQueue frontier; see check(). 
+	 */
+	private static final int[] DOUBLE_MOVE_EXCESS = {145102, 28204, 7562, 572};
+	
+	
+	public static void main(String[] args)
+	{
+		String mode = args.length > 0 ? args[0] : "frontier";
+		switch (mode)
+		{
+			case "frontier" -> frontier(args.length > 1 ? Heuristic.valueOf(args[1]) : Heuristic.ManhattanDist, 
+					args.length > 2 ? Integer.parseInt(args[2]) : 10, 
+					args.length > 3 ? TieBreaking.parse(args[3]) : TieBreaking.LIFO);
+			case "pdb" -> pdb(args.length > 1 ? Integer.parseInt(args[1]) : 148);
+			case "bidir" -> bidir(args.length > 1 ? Heuristic.valueOf(args[1]) : Heuristic.ManhattanDist, 
+					args.length > 2 ? Integer.parseInt(args[2]) : Integer.MAX_VALUE);
+			case "check" -> 
+			{
+				for (Heuristic h : args.length > 1 ? new Heuristic[] {Heuristic.valueOf(args[1])} : new Heuristic[] {Heuristic.TileMismatch, 
+						Heuristic.ManhattanDist, Heuristic.DoubleMoveHeuristic})
+				{
+					check(h);
+				}
+			}
+			case "oracle" -> oracle();
+			case "alloc" -> alloc();
+			case "hda" -> hda(args.length > 1 ? Heuristic.valueOf(args[1]) : Heuristic.ManhattanDist, 
+					args.length > 2 ? Integer.parseInt(args[2]) : 10, args.length > 3 ? Integer.parseInt(args[3]) : 100);
+			case "cache" -> cache(args.length > 1 ? Integer.parseInt(args[1]) : 100000, 
+					args.length > 2 ? Integer.parseInt(args[2]) : 10000, 
+					args.length > 3 ? Double.parseDouble(args[3]) : 1.0);
+			case "heuristic" -> heuristic(args.length > 1 ? Integer.parseInt(args[1]) : 100, 
+					args.length > 2 ? Integer.parseInt(args[2]) : 100);
+			case "ties" -> ties(args.length > 1 ? Integer.parseInt(args[1]) : 100, 
+					args.length > 2 ? Integer.parseInt(args[2]) : 100);
+			case "weighted" -> weighted(args.length > 1 ? Integer.parseInt(args[1]) : 10, 
+					args.length > 2 ? Integer.parseInt(args[2]) : 200);
+			case "arena" -> arena(args.length > 1 ? Integer.parseInt(args[1]) : 20, 
+					args.length > 2 ? Integer.parseInt(args[2]) : 140);
+			case "sma" -> sma(args.length > 1 ? Integer.parseInt(args[1]) : 100000, 
+					args.length > 2 ? Integer.parseInt(args[2]) : 10, args.length > 3 ? Integer.parseInt(args[3]) : 100);
+			case "dcfa" -> dcfa(args.length > 1 ? Integer.parseInt(args[1]) : 10, 
+					args.length > 2 ? Integer.parseInt(args[2]) : 140);
+			case "external" -> external(args.length > 1 ? Integer.parseInt(args[1]) : 5, 
+					args.length > 2 ? Integer.parseInt(args[2]) : 140, 
+					args.length > 3 ? Long.parseLong(args[3]) : 1 << 20);
+			default -> throw new IllegalArgumentException("unknown mode " + mode);
+		}
+	}
+	
+	
+	/**
+	 * Solve n deepest instances once with each FrontierType and report expansions per second. 
+	 * 
+	 * @param h
+	 * @param n
+	 * @param ties 
+	 */
+	private static void frontier(Heuristic h, int n, TieBreaking ties)
+	{
+		List<State> deepest = deepestInstances();
+		deepest = deepest.subList(0, Math.min(n, deepest.size()));
+		System.out.println(deepest.size() + " instances at depth " + deepest.get(0).numMoves 
+				+ " (heuristic: " + h + ", ties: " + ties + ")");
+		for (FrontierType type : FrontierType.values())
+		{
+			long expanded = 0;
+			long start = System.nanoTime();
+			for (State s : deepest)
+			{
+				SearchContext context = new SearchContext(h, s.goal(), 1, ties);
+				EightPuzzle.search((State) s.clone(), context, type.create(context));
+				expanded += context.stats.expanded;
+			}
+			double secs = (System.nanoTime() - start) / 1e9;
+			System.out.printf("%-12s %10d expansions %9.3f s %12.0f expansions/s%n", 
+					type, expanded, secs, expanded / secs);
+		}
+	}
+	
+	
+	/**
+	 * Compare the nodes expanded and time taken by A* with ManhattanDist and with PatternDatabase. 
+	 * 
+	 * @param n  number of deepest instances 
+	 */
+	private static void pdb(int n)
+	{
+		long start = System.nanoTime();
+		PatternDatabase.forGoal(Goal.EIGHT_PUZZLE);
+		System.out.printf("pattern database ready in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+		List<State> deepest = deepestInstances();
+		deepest = deepest.subList(0, Math.min(n, deepest.size()));
+		long manhattan = 0;
+		for (Heuristic h : new Heuristic[] {Heuristic.ManhattanDist, Heuristic.PatternDatabase})
+		{
+			long expanded = 0;
+			start = System.nanoTime();
+			for (State s : deepest)
+			{
+				SearchContext context = new SearchContext(h, s.goal());
+				EightPuzzle.search((State) s.clone(), context, FrontierType.BucketQueue.create(context));
+				expanded += context.stats.expanded;
+			}
+			double secs = (System.nanoTime() - start) / 1e9;
+			if (h == Heuristic.ManhattanDist)
+			{
+				manhattan = expanded;
+			}
+			System.out.printf("%-16s %10d expansions %9.3f s %7.1f%% of ManhattanDist%n", 
+					h, expanded, secs, 100.0 * expanded / manhattan);
+		}
+	}
+	
+	
+	/**
+	 * Compare the nodes expanded and time taken by unidirectional and bidirectional A*, and check that 
+	 * both find solutions of the same length.  The lengths may differ with DoubleMoveHeuristic, which 
+	 * is not admissible. 
+	 * 
+	 * @param h
+	 * @param n  number of instances 
+	 */
+	private static void bidir(Heuristic h, int n)
+	{
+		List<State> all = allInstances();
+		int stride = Math.max(1, all.size() / Math.max(1, n));
+		List<State> sample = new ArrayList<>();
+		for (int i = 0; i < all.size() && sample.size() < n; i += stride)
+		{
+			sample.add(all.get(i));
+		}
+		System.out.println(sample.size() + " instances (heuristic: " + h + ")");
+		
+		long uniExpanded = 0, biExpanded = 0, uniNanos = 0, biNanos = 0;
+		int differ = 0;
+		for (State s : sample)
+		{
+			long start = System.nanoTime();
+			SearchContext context = new SearchContext(h, s.goal());
+			State uni = EightPuzzle.search((State) s.clone(), context, FrontierType.BucketQueue.create(context));
+			long mid = System.nanoTime();
+			BidirectionalAStar bi = new BidirectionalAStar(s, h);
+			State meet = bi.search();
+			biNanos += System.nanoTime() - mid;
+			uniNanos += mid - start;
+			uniExpanded += context.stats.expanded;
+			biExpanded += bi.expanded();
+			if (uni.numMoves != meet.numMoves)
+			{
+				differ++;
+			}
+		}
+		System.out.printf("%-14s %12d expansions %9.3f s%n", "A*", uniExpanded, uniNanos / 1e9);
+		System.out.printf("%-14s %12d expansions %9.3f s %7.1f%% of the expansions of A*%n", 
+				"bidirectional", biExpanded, biNanos / 1e9, 100.0 * biExpanded / uniExpanded);
+		System.out.println(differ + " solutions of different length");
+	}
+	
+	
+	/**
+	 * Solve every solvable configuration of the 8-puzzle with A* and check that each solution is as 
+	 * long as the distance found by the breadth-first search of allInstances(), printing every 
+	 * configuration where it is not. 
+	 * 
+	 * DoubleMoveHeuristic is not admissible, so its solutions are compared with the shortest ones with 
+	 * double moves from DistanceOracle instead, and the number of solutions longer by 0, 1, 2, ... 
+	 * moves must be DOUBLE_MOVE_EXCESS.  These lengths are not all those of the original AStar(), 
+	 * which never lowered the cost of a state already on OPEN when a cheaper path to it was found (it 
+	 * set the predecessor of the discarded duplicate instead), and so also returned solutions longer 
+	 * than the shortest with ManhattanDist.  EightPuzzle.search() does lower it: on a sample of 1003 
+	 * configurations, 17 solutions with DoubleMoveHeuristic differ from the original ones by up to 2 
+	 * moves either way, e.g. 16 moves instead of 18. 
+	 * 
+	 * @param h  admissible single-move heuristic, or DoubleMoveHeuristic 
+	 * @throws IllegalStateException if any solution differs in length 
+	 */
+	private static void check(Heuristic h) throws IllegalStateException
+	{
+		List<State> all = allInstances();
+		boolean doubleMoves = h == Heuristic.DoubleMoveHeuristic;
+		DistanceOracle oracle = doubleMoves ? DistanceOracle.forGoal(Goal.EIGHT_PUZZLE) : null;
+		int[] excess = new int[DOUBLE_MOVE_EXCESS.length];
+		long start = System.nanoTime();
+		long expanded = 0;
+		int differ = 0;
+		for (State s : all)
+		{
+			SearchContext context = new SearchContext(h, s.goal());
+			State goal = EightPuzzle.search((State) s.clone(), context, FrontierType.BucketQueue.create(context));
+			expanded += context.stats.expanded;
+			int length = goal == null ? -1 : goal.numMoves;
+			int expected = doubleMoves ? oracle.distance(s, true) : s.numMoves;
+			if (doubleMoves && length >= expected && length - expected < excess.length)
+			{
+				excess[length - expected]++;
+			}
+			else if (length != expected)
+			{
+				differ++;
+				System.out.println("length " + length + " instead of " + expected + " for\n" + s);
+			}
+		}
+		System.out.printf("%d configurations (heuristic: %s), %d expansions, %.3f s, %d solutions of different length%n", 
+				all.size(), h, expanded, (System.nanoTime() - start) / 1e9, differ);
+		if (doubleMoves)
+		{
+			System.out.println("solutions longer than the shortest by 0, 1, 2, ... moves: " + Arrays.toString(excess) 
+					+ ", recorded " + Arrays.toString(DOUBLE_MOVE_EXCESS));
+			if (!Arrays.equals(excess, DOUBLE_MOVE_EXCESS))
+			{
+				throw new IllegalStateException("solution lengths with DoubleMoveHeuristic differ from DOUBLE_MOVE_EXCESS");
+			}
+		}
+		if (differ > 0)
+		{
+			throw new IllegalStateException(differ + " solutions differ in length from the breadth-first search");
+		}
+	}
+	
+	
+	/**
+	 * Generate the distance oracle of the 8-puzzle into a temporary file, load it, and time lookups 
+	 * and path reconstruction for every solvable configuration.  Checks every distance against the 
+	 * breadth-first search of allInstances(). 
+	 * 
+	 * @throws IllegalStateException if a distance is wrong 
+	 */
+	private static void oracle() throws IllegalStateException
+	{
+		DistanceOracle oracle;
+		try
+		{
+			Path file = Files.createTempFile("oracle", ".oracle");
+			long start = System.nanoTime();
+			DistanceOracle.generate(Goal.EIGHT_PUZZLE, file);
+			long mid = System.nanoTime();
+			oracle = DistanceOracle.load(file);
+			long end = System.nanoTime();
+			System.out.printf("generated in %.1f ms, %d bytes, loaded in %.3f ms%n", 
+					(mid - start) / 1e6, Files.size(file), (end - mid) / 1e6);
+			Files.delete(file);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		List<State> all = allInstances();
+		for (int round = 0; round < 3; round++)   // the early rounds warm up the JIT
+		{
+			long start = System.nanoTime();
+			int sum = 0;
+			for (State s : all)
+			{
+				sum += oracle.entry(s.packedBoard(), s.packedBoardHigh(), false);
+			}
+			long mid = System.nanoTime();
+			for (State s : all)
+			{
+				if (oracle.distance(s, false) != s.numMoves)
+				{
+					throw new IllegalStateException("wrong distance for " + s);
+				}
+			}
+			long end = System.nanoTime();
+			System.out.printf("%d configurations: %.1f ns per lookup, %.2f us per solution (checksum %d)%n", 
+					all.size(), (double) (mid - start) / all.size(), (end - mid) / 1e3 / all.size(), sum);
+		}
+	}
+	
+	
+	/**
+	 * Evaluate every Heuristic on fresh copies of the deepest instances, measuring the bytes allocated 
+	 * by this thread while doing so. 
+	 * 
+	 * @throws IllegalStateException if heuristic evaluation allocates 
+	 */
+	private static void alloc() throws IllegalStateException
+	{
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long tid = Thread.currentThread().getId();
+		List<State> deepest = deepestInstances();
+		State[] fresh = new State[deepest.size()];
+		for (Heuristic h : Heuristic.values())
+		{
+			SearchContext context = new SearchContext(h, Goal.EIGHT_PUZZLE);
+			long bytes = Long.MAX_VALUE;
+			for (int round = 0; round < 20; round++)   // the early rounds warm up the JIT
+			{
+				for (int i = 0; i < fresh.length; i++)
+				{
+					fresh[i] = (State) deepest.get(i).clone();
+					fresh[i].context = context;
+				}
+				long before = bean.getThreadAllocatedBytes(tid);
+				for (State s : fresh)
+				{
+					s.cost();
+				}
+				// the fewest bytes of any round, since JIT compilation may allocate during a round 
+				bytes = Math.min(bytes, bean.getThreadAllocatedBytes(tid) - before);
+			}
+			System.out.printf("%-20s %d bytes allocated for %d evaluations%n", h, bytes, fresh.length);
+			if (bytes > 0)
+			{
+				throw new IllegalStateException(h + " evaluation allocates");
+			}
+		}
+	}
+	
+	
+	/**
+	 * Solve the same instances sequentially and with ParallelAStar on an increasing number of threads, 
+	 * and report the time, speedup and expansions of each.  Checks that every parallel solution has 
+	 * the length of the sequential one. 
+	 * 
+	 * @param h     heuristic, which must be admissible for the check to hold 
+	 * @param n     number of instances of each size 
+	 * @param walk  number of random moves making a 15-puzzle instance 
+	 * @throws IllegalStateException if a solution length differs 
+	 */
+	private static void hda(Heuristic h, int n, int walk) throws IllegalStateException
+	{
+		List<State> deepest = deepestInstances();
+		List<State> instances = new ArrayList<>(deepest.subList(0, Math.min(n, deepest.size())));
+		instances.addAll(walks(n, walk));
+		System.out.printf("%d instances (heuristic: %s), %d processors%n", instances.size(), h, 
+				Runtime.getRuntime().availableProcessors());
+		
+		for (State s : instances)    // warms up the JIT
+		{
+			SearchContext context = new SearchContext(h, s.goal());
+			EightPuzzle.search((State) s.clone(), context, FrontierType.BucketQueue.create(context));
+			ParallelAStar.search((State) s.clone(), new SearchContext(h, s.goal()), 2);
+		}
+		int[] lengths = new int[instances.size()];
+		double base = 0;
+		for (int threads : new int[] {0, 1, 2, 4, 8, 16})    // 0 for EightPuzzle.search()
+		{
+			long expanded = 0;
+			long start = System.nanoTime();
+			for (int i = 0; i < instances.size(); i++)
+			{
+				State s0 = (State) instances.get(i).clone();
+				SearchContext context = new SearchContext(h, s0.goal());
+				State goal = threads == 0 ? EightPuzzle.search(s0, context, FrontierType.BucketQueue.create(context))
+						: ParallelAStar.search(s0, context, threads);
+				if (threads == 0)
+				{
+					lengths[i] = goal.numMoves;
+				}
+				else if (goal.numMoves != lengths[i])
+				{
+					throw new IllegalStateException("parallel solution differs in length for " + instances.get(i));
+				}
+				expanded += context.stats.expanded;
+			}
+			double secs = (System.nanoTime() - start) / 1e9;
+			if (threads == 0)
+			{
+				base = secs;
+			}
+			System.out.printf("%-10s %9.3f s  speedup %5.2f  %10d expansions%n", 
+					threads == 0 ? "A*" : threads + " threads", secs, base / secs, expanded);
+		}
+	}
+	
+	
+	/**
+	 * Serve n requests drawn from a Zipf distribution over instances, first by A* alone and then 
+	 * through a SolutionCache, and compare.  The instances are a fixed random sample of all solvable 
+	 * configurations, the one of rank r requested with probability proportional to 1 / r^s. 
+	 * 
+	 * @param n         number of requests 
+	 * @param capacity  capacity of the cache 
+	 * @param s         exponent of the Zipf distribution 
+	 * @throws IllegalStateException if a cached solution has a different number of moves than A*'s 
+	 */
+	private static void cache(int n, int capacity, double s) throws IllegalStateException
+	{
+		List<State> all = allInstances();
+		Collections.shuffle(all, new Random(472));
+		List<State> instances = all.subList(0, Math.min(50000, all.size()));
+		double[] cdf = new double[instances.size()];
+		double sum = 0;
+		for (int r = 0; r < cdf.length; r++)
+		{
+			sum += 1 / Math.pow(r + 1, s);
+			cdf[r] = sum;
+		}
+		Random rnd = new Random(472);
+		State[] requests = new State[n];
+		for (int i = 0; i < n; i++)
+		{
+			int r = Arrays.binarySearch(cdf, rnd.nextDouble() * sum);
+			requests[i] = instances.get(r < 0 ? Math.min(-r - 1, cdf.length - 1) : r);
+		}
+		
+		int[] lengths = new int[n];
+		long start = System.nanoTime();
+		for (int i = 0; i < n; i++)
+		{
+			lengths[i] = moves(EightPuzzle.AStar((State) requests[i].clone(), Heuristic.ManhattanDist));
+		}
+		long uncached = System.nanoTime() - start;
+		
+		SolutionCache cache = new SolutionCache(capacity);
+		start = System.nanoTime();
+		for (int i = 0; i < n; i++)
+		{
+			String solution = cache.solve((State) requests[i].clone(), Heuristic.ManhattanDist);
+			if (moves(solution) != lengths[i])
+			{
+				throw new IllegalStateException("cached solution differs in length for " + requests[i]);
+			}
+		}
+		long cached = System.nanoTime() - start;
+		System.out.printf("%d requests over %d instances, s = %.2f, capacity %d%n", n, instances.size(), s, capacity);
+		System.out.printf("A*     %10.1f ms, %.2f us per request%n", uncached / 1e6, uncached / 1e3 / n);
+		System.out.printf("cached %10.1f ms, %.2f us per request, hit rate %.1f%%: %s%n", cached / 1e6, 
+				cached / 1e3 / n, 100.0 * cache.hits() / n, cache);
+	}
+	
+	
+	/**
+	 * Compare the heuristics that dominate the Manhattan distance against it, stratum by stratum: 
+	 * 8-puzzle instances drawn at fixed depths, then 15-puzzle instances of two random walk lengths. 
+	 * 
+	 * @param n     number of 8-puzzle instances per depth 
+	 * @param walk  number of random moves making the deeper 15-puzzle instances 
+	 * @throws IllegalStateException if a solution differs in length from that with ManhattanDist 
+	 */
+	private static void heuristic(int n, int walk) throws IllegalStateException
+	{
+		Heuristic[] heuristics = {Heuristic.ManhattanDist, Heuristic.LinearConflict, Heuristic.WalkingDistance};
+		List<String> names = new ArrayList<>();
+		List<List<State>> strata = strata(n, walk, names);
+		
+		for (List<State> stratum : strata)    // warms up the JIT and builds the walking distance tables 
+		{
+			for (Heuristic h : heuristics)
+			{
+				SearchContext context = new SearchContext(h, stratum.get(0).goal());
+				EightPuzzle.search((State) stratum.get(0).clone(), context, FrontierType.BucketQueue.create(context));
+			}
+		}
+		System.out.printf("%-20s %-16s %12s %10s %9s%n", "stratum", "heuristic", "expanded", "time (s)", "vs MD");
+		for (int k = 0; k < strata.size(); k++)
+		{
+			List<State> stratum = strata.get(k);
+			int[] lengths = new int[stratum.size()];
+			long manhattan = 0;
+			for (Heuristic h : heuristics)
+			{
+				long expanded = 0;
+				long start = System.nanoTime();
+				for (int i = 0; i < stratum.size(); i++)
+				{
+					State s0 = (State) stratum.get(i).clone();
+					SearchContext context = new SearchContext(h, s0.goal());
+					State goal = EightPuzzle.search(s0, context, FrontierType.BucketQueue.create(context));
+					if (h == Heuristic.ManhattanDist)
+					{
+						lengths[i] = goal.numMoves;
+					}
+					else if (goal.numMoves != lengths[i])
+					{
+						throw new IllegalStateException(h + " solution differs in length for " + stratum.get(i));
+					}
+					expanded += context.stats.expanded;
+				}
+				double secs = (System.nanoTime() - start) / 1e9;
+				if (h == Heuristic.ManhattanDist)
+				{
+					manhattan = expanded;
+				}
+				System.out.printf("%-20s %-16s %12d %10.3f %8.1f%%%n", names.get(k), h, expanded, secs, 
+						100.0 * expanded / manhattan);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Compare the TieBreaking policies stratum by stratum on the strata of heuristic(), counting the 
+	 * states expanded in all and on the last f-layer, those whose cost equals the solution length, 
+	 * apart from the goal. 
+	 * 
+	 * @param n     number of 8-puzzle instances per depth 
+	 * @param walk  number of random moves making the deeper 15-puzzle instances 
+	 * @throws IllegalStateException if a solution differs in length from that with LIFO 
+	 */
+	private static void ties(int n, int walk) throws IllegalStateException
+	{
+		Heuristic h = Heuristic.ManhattanDist;
+		List<String> names = new ArrayList<>();
+		List<List<State>> strata = strata(n, walk, names);
+		
+		for (List<State> stratum : strata)    // warms up the JIT 
+		{
+			for (TieBreaking ties : TieBreaking.values())
+			{
+				SearchContext context = new SearchContext(h, stratum.get(0).goal(), 1, ties);
+				EightPuzzle.search((State) stratum.get(0).clone(), context, FrontierType.BucketQueue.create(context));
+			}
+		}
+		System.out.printf("%-20s %-6s %12s %12s %9s %10s%n", "stratum", "ties", "expanded", "last layer", 
+				"vs LIFO", "time (s)");
+		for (int k = 0; k < strata.size(); k++)
+		{
+			List<State> stratum = strata.get(k);
+			int[] lengths = new int[stratum.size()];
+			long lifo = 0;
+			for (TieBreaking ties : TieBreaking.values())
+			{
+				long expanded = 0;
+				long last = 0;
+				long start = System.nanoTime();
+				for (int i = 0; i < stratum.size(); i++)
+				{
+					State s0 = (State) stratum.get(i).clone();
+					SearchContext context = new SearchContext(h, s0.goal(), 1, ties);
+					int[] byCost = new int[256];
+					context.listener = new SearchListener() 
+					{
+						@Override
+						public void expanded(SearchContext c, State s)
+						{
+							byCost[Math.min(s.cost(), byCost.length - 1)]++;
+						}
+					};
+					State goal = EightPuzzle.search(s0, context, FrontierType.BucketQueue.create(context));
+					if (ties == TieBreaking.LIFO)
+					{
+						lengths[i] = goal.numMoves;
+					}
+					else if (goal.numMoves != lengths[i])
+					{
+						throw new IllegalStateException(ties + " solution differs in length for " + stratum.get(i));
+					}
+					expanded += context.stats.expanded;
+					last += byCost[goal.numMoves];
+				}
+				double secs = (System.nanoTime() - start) / 1e9;
+				if (ties == TieBreaking.LIFO)
+				{
+					lifo = last;
+				}
+				System.out.printf("%-20s %-6s %12d %12d %8.1f%% %10.3f%n", names.get(k), ties, expanded, last, 
+						100.0 * last / Math.max(lifo, 1), secs);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Compare A* with weighted A* and with AnytimeAStar, whose improved solutions are timed as they 
+	 * are reported. 
+	 * 
+	 * @param n     number of instances 
+	 * @param walk  number of random moves making an instance 
+	 * @throws IllegalStateException if a solution is longer than its bound allows, or AnytimeAStar 
+	 *                               does not end with a shortest solution 
+	 */
+	private static void weighted(int n, int walk) throws IllegalStateException
+	{
+		Heuristic h = Heuristic.LinearConflict;
+		List<State> instances = walks(n, walk);
+		for (State s : instances.subList(0, Math.min(3, n)))    // warms up the JIT 
+		{
+			EightPuzzle.AStar(s, h);
+			EightPuzzle.AStar(s, h, 2);
+		}
+		System.out.printf("%d 15-puzzle instances, walk %d (heuristic: %s)%n", n, walk, h);
+		int[] lengths = new int[n];
+		for (double w : new double[] {1, 1.5, 2, 3})
+		{
+			long expanded = 0;
+			long moves = 0;
+			long start = System.nanoTime();
+			for (int i = 0; i < n; i++)
+			{
+				State s0 = (State) instances.get(i).clone();
+				SearchContext context = new SearchContext(h, s0.goal(), w);
+				State goal = EightPuzzle.search(s0, context, FrontierType.BucketQueue.create(context));
+				if (w == 1)
+				{
+					lengths[i] = goal.numMoves;
+				}
+				else if (goal.numMoves > w * lengths[i])
+				{
+					throw new IllegalStateException("weighted solution too long for " + instances.get(i));
+				}
+				expanded += context.stats.expanded;
+				moves += goal.numMoves;
+			}
+			System.out.printf("%-12s %9.3f s %10d expansions %6d moves%n", w == 1 ? "A*" : "w = " + w, 
+					(System.nanoTime() - start) / 1e9, expanded, moves);
+		}
+		
+		long first = 0;
+		long total = 0;
+		long firstMoves = 0;
+		long expanded = 0;
+		for (int i = 0; i < n; i++)
+		{
+			long start = System.nanoTime();
+			long[] firstNanos = {-1};
+			int[] firstLength = {0};
+			SearchContext context = new SearchContext(h, instances.get(i).goal(), 3);
+			context.listener = new SearchListener()
+			{
+				@Override
+				public void improved(SearchContext c, State goal, double bound)
+				{
+					if (firstNanos[0] < 0)
+					{
+						firstNanos[0] = System.nanoTime() - start;
+						firstLength[0] = goal.numMoves;
+					}
+				}
+			};
+			State goal = AnytimeAStar.search(instances.get(i), context, 0.5, 0);
+			total += System.nanoTime() - start;
+			if (goal.numMoves != lengths[i])
+			{
+				throw new IllegalStateException("anytime solution not optimal for " + instances.get(i));
+			}
+			first += firstNanos[0];
+			firstMoves += firstLength[0];
+			expanded += context.stats.expanded;
+		}
+		System.out.printf("ARA* first  %9.3f s %10s            %6d moves%n", first / 1e9, "", firstMoves);
+		System.out.printf("ARA* final  %9.3f s %10d expansions %6d moves%n", total / 1e9, expanded, 
+				(long) Arrays.stream(lengths).sum());
+	}
+	
+	
+	/**
+	 * Solve a batch of instances with EightPuzzle.search(), then with ArenaAStar over one arena on the 
+	 * heap and one off it, each arena reused for the whole batch.  For each, report the time taken 
+	 * by the garbage collectors, as counted by their MXBeans, and the peak heap as the sum of the peak 
+	 * usage of the heap memory pools, both reset by a full collection before the batch. 
+	 * 
+	 * @param n     number of instances 
+	 * @param walk  number of random moves making an instance 
+	 * @throws IllegalStateException if a solution differs in length from that of EightPuzzle.search() 
+	 */
+	private static void arena(int n, int walk) throws IllegalStateException
+	{
+		Heuristic h = Heuristic.ManhattanDist;
+		List<State> instances = walks(n, walk);
+		System.out.printf("%d 15-puzzle instances, walk %d (heuristic: %s)%n", n, walk, h);
+		int[] lengths = new int[n];
+		String[] names = {"State objects", "arena on heap", "arena off heap"};
+		for (int kind = 0; kind < names.length; kind++)
+		{
+			NodeArena arena = kind == 0 ? null : new NodeArena(Goal.defaultGoal(4), kind == 2);
+			List<MemoryPoolMXBean> pools = heapPools();
+			long collections = 0;
+			long collectionMillis = 0;
+			for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+			{
+				collections -= gc.getCollectionCount();
+				collectionMillis -= gc.getCollectionTime();
+			}
+			long expanded = 0;
+			long arenaBytes = 0;
+			long start = System.nanoTime();
+			for (int i = 0; i < n; i++)
+			{
+				SearchContext context = new SearchContext(h, instances.get(i).goal());
+				State goal = arena == null 
+						? EightPuzzle.search((State) instances.get(i).clone(), context, FrontierType.BucketQueue.create(context)) 
+						: ArenaAStar.search(instances.get(i), context, arena);
+				if (kind == 0)
+				{
+					lengths[i] = goal.numMoves;
+				}
+				else if (goal.numMoves != lengths[i])
+				{
+					throw new IllegalStateException("ArenaAStar solution differs in length for " + instances.get(i));
+				}
+				expanded += context.stats.expanded;
+				arenaBytes = arena == null ? 0 : Math.max(arenaBytes, arena.bytes());
+			}
+			double seconds = (System.nanoTime() - start) / 1e9;
+			for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+			{
+				collections += gc.getCollectionCount();
+				collectionMillis += gc.getCollectionTime();
+			}
+			long peak = peakHeap(pools);
+			System.out.printf("%-15s %8.3f s %10d expansions, %4d collections in %6d ms, peak heap %7.1f MB, arena %6.1f MB%n", 
+					names[kind], seconds, expanded, collections, collectionMillis, peak / 1e6, arenaBytes / 1e6);
+		}
+	}
+	
+	
+	/**
+	 * Solve n instances with EightPuzzle.search() and with FrontierAStar, and report for each the 
+	 * time, the nodes expanded, the largest number of nodes stored, on OPEN and CLOSED for A* and on 
+	 * OPEN for FrontierAStar, and the largest peak heap of a search, measured as in arena() with a 
+	 * full collection before every search. 
+	 * 
+	 * @param n     number of instances 
+	 * @param walk  number of random moves making an instance 
+	 * @throws IllegalStateException if a solution differs in length from that of EightPuzzle.search() 
+	 */
+	private static void dcfa(int n, int walk) throws IllegalStateException
+	{
+		Heuristic h = Heuristic.ManhattanDist;
+		List<State> instances = walks(n, walk);
+		System.out.printf("%d 15-puzzle instances, walk %d (heuristic: %s)%n", n, walk, h);
+		int[] lengths = new int[n];
+		String[] names = {"A*", "DCFA*"};
+		for (int kind = 0; kind < names.length; kind++)
+		{
+			long expanded = 0;
+			long stored = 0;
+			long peak = 0;
+			long nanos = 0;
+			for (int i = 0; i < n; i++)
+			{
+				List<MemoryPoolMXBean> pools = heapPools();
+				long start = System.nanoTime();
+				SearchContext context = new SearchContext(h, instances.get(i).goal());
+				State goal = kind == 0 
+						? EightPuzzle.search((State) instances.get(i).clone(), context, FrontierType.BucketQueue.create(context)) 
+						: FrontierAStar.search(instances.get(i), context);
+				nanos += System.nanoTime() - start;
+				peak = Math.max(peak, peakHeap(pools));
+				if (kind == 0)
+				{
+					lengths[i] = goal.numMoves;
+				}
+				else if (goal.numMoves != lengths[i])
+				{
+					throw new IllegalStateException("FrontierAStar solution differs in length for " + instances.get(i));
+				}
+				expanded += context.stats.expanded;
+				stored = Math.max(stored, (long) context.stats.peakOpen + context.stats.peakClosed);
+			}
+			System.out.printf("%-6s %8.3f s %10d expansions, at most %9d nodes stored, peak heap %7.1f MB%n", 
+					names[kind], nanos / 1e9, expanded, stored, peak / 1e6);
+		}
+	}
+	
+	
+	/**
+	 * Collect garbage and reset the peak usage of the heap memory pools. 
+	 * 
+	 * @return the heap memory pools 
+	 */
+	private static List<MemoryPoolMXBean> heapPools()
+	{
+		System.gc();
+		List<MemoryPoolMXBean> pools = new ArrayList<>();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+		{
+			if (pool.getType() == MemoryType.HEAP)
+			{
+				pool.resetPeakUsage();
+				pools.add(pool);
+			}
+		}
+		return pools;
+	}
+	
+	
+	/**
+	 * @param pools  heap memory pools 
+	 * @return the sum of their peak usage in bytes 
+	 */
+	private static long peakHeap(List<MemoryPoolMXBean> pools)
+	{
+		long peak = 0;
+		for (MemoryPoolMXBean pool : pools)
+		{
+			peak += pool.getPeakUsage().getUsed();
+		}
+		return peak;
+	}
+	
+	
+	/**
+	 * Compare MemoryBoundedAStar with A* at several budgets, then measure the heap it retains per node 
+	 * by collecting garbage once the budget is full. 
+	 * 
+	 * @param budget  largest budget in nodes 
+	 * @param n       number of instances 
+	 * @param walk    number of random moves making an instance 
+	 * @throws IllegalStateException if a solution differs in length from A*'s 
+	 */
+	private static void sma(int budget, int n, int walk) throws IllegalStateException
+	{
+		Heuristic h = Heuristic.LinearConflict;
+		List<State> instances = walks(n, walk);
+		System.out.printf("%d 15-puzzle instances, walk %d (heuristic: %s)%n", n, walk, h);
+		int[] lengths = new int[n];
+		long expanded = 0;
+		long peak = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < n; i++)
+		{
+			SearchContext context = new SearchContext(h, instances.get(i).goal());
+			lengths[i] = EightPuzzle.search((State) instances.get(i).clone(), context, 
+					FrontierType.BucketQueue.create(context)).numMoves;
+			expanded += context.stats.expanded;
+			peak = Math.max(peak, context.stats.peakOpen + context.stats.peakClosed);
+		}
+		System.out.printf("%-16s %9.3f s %10d expansions %8s regenerations, peak %d states%n", "A*", 
+				(System.nanoTime() - start) / 1e9, expanded, "", peak);
+		for (int b : new int[] {budget / 100, budget / 10, budget})
+		{
+			int solved = 0;
+			long regenerated = 0;
+			expanded = 0;
+			start = System.nanoTime();
+			for (int i = 0; i < n; i++)
+			{
+				SearchContext context = new SearchContext(h, instances.get(i).goal());
+				State goal = MemoryBoundedAStar.search(instances.get(i), context, Math.max(b, 2));
+				if (goal != null)
+				{
+					if (goal.numMoves != lengths[i])
+					{
+						throw new IllegalStateException("SMA* solution differs in length for " + instances.get(i));
+					}
+					solved++;
+				}
+				expanded += context.stats.expanded;
+				regenerated += context.stats.reopened;
+			}
+			System.out.printf("SMA* %-11s %9.3f s %10d expansions %8d regenerations, %d of %d solved%n", 
+					b + " nodes", (System.nanoTime() - start) / 1e9, expanded, regenerated, solved, n);
+		}
+		
+		// a walk ten times as long gives an instance hard enough to fill the budget 
+		State hard = walks(1, 10 * walk).get(0);
+		Runtime rt = Runtime.getRuntime();
+		System.gc();
+		long before = rt.totalMemory() - rt.freeMemory();
+		long[] used = {-1};
+		SearchContext context = new SearchContext(h, Goal.defaultGoal(4));
+		context.listener = new SearchListener()
+		{
+			@Override
+			public void expanded(SearchContext c, State s)
+			{
+				if (used[0] < 0 && c.stats.peakOpen >= budget)
+				{
+					System.gc();
+					used[0] = rt.totalMemory() - rt.freeMemory() - before;
+					c.cancel();
+				}
+			}
+		};
+		MemoryBoundedAStar.search(hard, context, budget);
+		if (used[0] < 0)
+		{
+			System.out.println("the search ended before the budget of " + budget + " nodes was full");
+			return;
+		}
+		System.out.printf("heap retained with %d nodes held: %.1f MB, %.0f bytes per node (BYTES_PER_NODE = %d)%n", 
+				budget, used[0] / 1e6, (double) used[0] / budget, MemoryBoundedAStar.BYTES_PER_NODE);
+	}
+	
+	
+	/**
+	 * Solve n instances with ExternalAStar in the temporary directory and with ArenaAStar, comparing 
+	 * the time and solution length, and report the work and I/O of every f-layer of the last instance. 
+	 * 
+	 * @param n       number of instances 
+	 * @param walk    number of random moves making an instance 
+	 * @param memory  memory budget of ExternalAStar in bytes 
+	 * @throws IllegalStateException if a solution differs in length from that of ArenaAStar 
+	 */
+	private static void external(int n, int walk, long memory) throws IllegalStateException
+	{
+		Heuristic h = Heuristic.ManhattanDist;
+		Path dir = Path.of(System.getProperty("java.io.tmpdir"));
+		List<State> instances = walks(n, walk);
+		System.out.printf("%d 15-puzzle instances, walk %d, memory budget %d bytes (heuristic: %s)%n", n, walk, 
+				memory, h);
+		System.out.printf("%-9s %6s %12s %10s %12s %10s %10s %10s%n", "instance", "moves", "A* expanded", "A* (s)", 
+				"ext expanded", "ext (s)", "MB read", "MB written");
+		List<ExternalAStar.Layer> layers = null;
+		for (int i = 0; i < n; i++)
+		{
+			State s0 = instances.get(i);
+			long start = System.nanoTime();
+			SearchContext context = new SearchContext(h, s0.goal());
+			State goal = ArenaAStar.search(s0, context, false);
+			double secs = (System.nanoTime() - start) / 1e9;
+			
+			start = System.nanoTime();
+			SearchContext external = new SearchContext(h, s0.goal());
+			ExternalAStar search = new ExternalAStar(external, dir, memory);
+			State found = search.search(s0);
+			double externalSecs = (System.nanoTime() - start) / 1e9;
+			if (found.numMoves != goal.numMoves)
+			{
+				throw new IllegalStateException("external solution differs in length for " + s0);
+			}
+			layers = search.layers();
+			long read = 0;
+			long written = 0;
+			for (ExternalAStar.Layer layer : layers)
+			{
+				read += layer.bytesRead;
+				written += layer.bytesWritten;
+			}
+			System.out.printf("%-9d %6d %12d %10.3f %12d %10.3f %10.1f %10.1f%n", i, goal.numMoves, 
+					context.stats.expanded, secs, external.stats.expanded, externalSecs, read / 1e6, written / 1e6);
+		}
+		System.out.printf("%nf-layers of instance %d%n", n - 1);
+		System.out.printf("%6s %12s %12s %12s %10s %10s%n", "f", "expanded", "generated", "duplicates", "MB read", 
+				"MB written");
+		for (ExternalAStar.Layer layer : layers)
+		{
+			System.out.printf("%6d %12d %12d %12d %10.1f %10.1f%n", layer.f, layer.expanded, layer.generated, 
+					layer.duplicates, layer.bytesRead / 1e6, layer.bytesWritten / 1e6);
+		}
+	}
+	
+	
+	/**
+	 * @param n      number of 8-puzzle instances per depth 
+	 * @param walk   number of random moves making the deeper 15-puzzle instances 
+	 * @param names  list to which the name of each stratum is added 
+	 * @return n random 8-puzzle instances at each of the depths 10, 15, 20, 25 and 30, then n / 10 
+	 *         (at least 1) 15-puzzle instances made by random walks of each of the lengths walk / 2 and 
+	 *         walk, one list per stratum 
+	 */
+	private static List<List<State>> strata(int n, int walk, List<String> names)
+	{
+		List<List<State>> layers = layers();
+		Random rnd = new Random(472);
+		List<List<State>> strata = new ArrayList<>();
+		for (int depth = 10; depth <= 30; depth += 5)
+		{
+			List<State> layer = layers.get(depth);
+			List<State> stratum = new ArrayList<>();
+			for (int i = 0; i < n; i++)
+			{
+				stratum.add(new State(layer.get(rnd.nextInt(layer.size())).board()));
+			}
+			names.add("8-puzzle depth " + depth);
+			strata.add(stratum);
+		}
+		for (int length : new int[] {walk / 2, walk})
+		{
+			names.add("15-puzzle walk " + length);
+			strata.add(walks(Math.max(n / 10, 1), length));
+		}
+		return strata;
+	}
+	
+	
+	/**
+	 * @param n     number of instances 
+	 * @param walk  number of random single moves from the goal 
+	 * @return n 15-puzzle instances made by fixed random walks from the default goal 
+	 */
+	private static List<State> walks(int n, int walk)
+	{
+		List<State> instances = new ArrayList<>();
+		Random rnd = new Random(472);
+		Goal fifteen = Goal.defaultGoal(4);
+		Move[] moves = {Move.LEFT, Move.RIGHT, Move.UP, Move.DOWN};
+		for (int i = 0; i < n; i++)
+		{
+			State s = new State(fifteen.board(), fifteen);
+			for (int k = 0; k < walk; k++)
+			{
+				Move m = moves[rnd.nextInt(moves.length)];
+				State t = s.isLegalMove(m) ? s.successorState(m) : null;
+				s = t == null ? s : t;
+			}
+			instances.add(new State(s.board(), fifteen));
+		}
+		return instances;
+	}
+	
+	
+	/**
+	 * @param solution  string returned by EightPuzzle.AStar() 
+	 * @return the number of moves at its start 
+	 */
+	private static int moves(String solution)
+	{
+		return Integer.parseInt(solution.substring(0, solution.indexOf(' ')));
+	}
+	
+	
+	/**
+	 * @return all states at the largest distance from the goal, with numMoves set to that distance 
+	 */
+	static List<State> deepestInstances()
+	{
+		List<List<State>> layers = layers();
+		return layers.get(layers.size() - 1);
+	}
+	
+	
+	/**
+	 * @return all states reachable from the goal configuration in order of distance, with numMoves 
+	 *         set to that distance 
+	 */
+	static List<State> allInstances()
+	{
+		List<State> all = new ArrayList<>();
+		for (List<State> layer : layers())
+		{
+			all.addAll(layer);
+		}
+		return all;
+	}
+	
+	
+	/**
+	 * Breadth-first search over single moves from the goal configuration. 
+	 * 
+	 * @return the states at each distance from the goal, with numMoves set to that distance 
+	 */
+	private static List<List<State>> layers()
+	{
+		List<List<State>> layers = new ArrayList<>();
+		int[][] goal = {{1,2,3},{8,0,4},{7,6,5}};
+		Move[] moves = {Move.LEFT, Move.RIGHT, Move.UP, Move.DOWN};
+		HashMap<Long, Integer> seen = new HashMap<>();
+		List<State> layer = new ArrayList<>();
+		layer.add(new State(goal));
+		seen.put(layer.get(0).packedBoard(), 0);
+		while (true)
+		{
+			layers.add(layer);
+			List<State> next = new ArrayList<>();
+			for (State s : layer)
+			{
+				for (Move m : moves)
+				{
+					State t = s.isLegalMove(m) ? s.successorState(m) : null;
+					if (t != null && seen.putIfAbsent(t.packedBoard(), t.numMoves) == null)
+					{
+						t.predecessor = null;
+						next.add(t);
+					}
+				}
+			}
+			if (next.isEmpty())
+			{
+				return layers;
+			}
+			layer = next;
+		}
+	}
+}
@@ -0,0 +1,207 @@
+package edu.iastate.cs472.proj1;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * A SearchListener that adds up the SearchStats of every search finished with it, for monitoring a 
+ * long-running process such as the batch solver.  register() publishes the totals as the MBean 
+ * edu.iastate.cs472.proj1:type=SolverStats on the platform MBean server until unregister(), where 
+ * they can be read with jconsole or any other JMX client.  Safe for use by concurrent searches. 
+ */
+public class SolverStats implements SolverStatsMBean, SearchListener
+{
+	public static final String OBJECT_NAME = "edu.iastate.cs472.proj1:type=SolverStats";
+	
+	private final LongAdder searches = new LongAdder();
+	private final LongAdder solved = new LongAdder();
+	private final LongAdder expanded = new LongAdder();
+	private final LongAdder generated = new LongAdder();
+	private final LongAdder reopened = new LongAdder();
+	private final LongAdder nanos = new LongAdder();
+	private final DoubleAdder branching = new DoubleAdder();    // sum of b* over solved searches
+	private final AtomicInteger peakOpen = new AtomicInteger();
+	private final AtomicReference<String> last = new AtomicReference<>("");
+	
+	private static SolverStats registered;    // the object last registered by register(), null if none
+	
+	
+	/**
+	 * Register this object on the platform MBean server, replacing one registered before. 
+	 * 
+	 * @throws IllegalStateException if JMX refuses the registration 
+	 */
+	public void register() throws IllegalStateException
+	{
+		synchronized (SolverStats.class)
+		{
+			try
+			{
+				ObjectName name = new ObjectName(OBJECT_NAME);
+				var server = ManagementFactory.getPlatformMBeanServer();
+				if (server.isRegistered(name))
+				{
+					server.unregisterMBean(name);
+				}
+				server.registerMBean(this, name);
+				registered = this;
+			}
+			catch (JMException e)
+			{
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Unregister this object from the platform MBean server, unless another one has replaced it 
+	 * there since. 
+	 * 
+	 * @throws IllegalStateException if JMX refuses to unregister it 
+	 */
+	public void unregister() throws IllegalStateException
+	{
+		synchronized (SolverStats.class)
+		{
+			if (registered != this)
+			{
+				return;
+			}
+			try
+			{
+				ObjectName name = new ObjectName(OBJECT_NAME);
+				var server = ManagementFactory.getPlatformMBeanServer();
+				if (server.isRegistered(name))
+				{
+					server.unregisterMBean(name);
+				}
+				registered = null;
+			}
+			catch (JMException e)
+			{
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+	
+	
+	@Override
+	public void finished(SearchContext context, State goal)
+	{
+		SearchStats stats = context.stats;
+		searches.increment();
+		expanded.add(stats.expanded);
+		generated.add(stats.generated);
+		reopened.add(stats.reopened);
+		nanos.add(stats.totalNanos);
+		peakOpen.accumulateAndGet(stats.peakOpen, Math::max);
+		if (goal != null)
+		{
+			solved.increment();
+			branching.add(stats.effectiveBranchingFactor());
+		}
+		last.set(context.heuristic + ": " + stats);
+	}
+	
+	
+	@Override
+	public long getSearches()
+	{
+		return searches.sum();
+	}
+	
+	
+	@Override
+	public long getSolved()
+	{
+		return solved.sum();
+	}
+	
+	
+	@Override
+	public long getExpanded()
+	{
+		return expanded.sum();
+	}
+	
+	
+	@Override
+	public long getGenerated()
+	{
+		return generated.sum();
+	}
+	
+	
+	@Override
+	public long getReopened()
+	{
+		return reopened.sum();
+	}
+	
+	
+	@Override
+	public int getPeakOpen()
+	{
+		return peakOpen.get();
+	}
+	
+	
+	@Override
+	public double getMeanMillis()
+	{
+		long n = searches.sum();
+		return n == 0 ? 0 : nanos.sum() / 1e6 / n;
+	}
+	
+	
+	@Override
+	public double getMeanEffectiveBranchingFactor()
+	{
+		long n = solved.sum();
+		return n == 0 ? 0 : branching.sum() / n;
+	}
+	
+	
+	@Override
+	public String getLastSearch()
+	{
+		return last.get();
+	}
+	
+	
+	@Override
+	public void reset()
+	{
+		searches.reset();
+		solved.reset();
+		expanded.reset();
+		generated.reset();
+		reopened.reset();
+		nanos.reset();
+		branching.reset();
+		peakOpen.set(0);
+		last.set("");
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return String.format("%d searches, %d solved, %d expanded, %d generated, %d reopened, peak OPEN %d, "
+				+ "mean %.3f ms, mean b* %.3f", getSearches(), getSolved(), getExpanded(), getGenerated(),
+				getReopened(), getPeakOpen(), getMeanMillis(), getMeanEffectiveBranchingFactor());
+	}
+}
@@ -0,0 +1,36 @@
+package edu.iastate.cs472.proj1;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * Management interface of SolverStats, exposing totals over all searches reported to it. 
+ */
+public interface SolverStatsMBean
+{
+	long getSearches();
+	
+	long getSolved();
+	
+	long getExpanded();
+	
+	long getGenerated();
+	
+	long getReopened();
+	
+	int getPeakOpen();
+	
+	double getMeanMillis();
+	
+	double getMeanEffectiveBranchingFactor();
+	
+	/**
+	 * @return the statistics of the most recently finished search 
+	 */
+	String getLastSearch();
+	
+	void reset();
+}
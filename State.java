@@ -7,6 +7,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.KeyPair;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -20,11 +21,12 @@ import java.util.Scanner;
 
 
 /**
- * This class represents a board configuration in the 8-puzzle.  Only the initial configuration is 
+ * This class represents a board configuration in the 8-puzzle, or more generally in a sliding puzzle 
+ * on a width X width board with the goal configuration given by a Goal object.  Only the initial configuration is 
  * generated by a constructor, while intermediate configurations will be generated via calling
  * the method successorState().  State objects will form two circular doubly-linked lists OPEN and 
  * CLOSED, which will be used by the A* algorithm to search for a path from a given initial board
- * configuration to the final board configuration below: 
+ * configuration to the final board configuration, which for the 8-puzzle is (Goal.EIGHT_PUZZLE): 
  * 
  *  1 2 3 
  *  8   4
@@ -33,20 +35,41 @@ import java.util.Scanner;
  *
  * The final configuration (i.e., the goal state) above is not explicitly represented as an object 
  * of the State class. 
+ * 
+ * The board configuration is stored packed in two longs as described in Goal, together with the index 
+ * of the empty square; for the 8-puzzle and the 15-puzzle the high long is zero.  board() builds the 
+ * 2-dimensional array from the packed board on every call; the deprecated field board[][] holds a 
+ * copy for callers that still read it, made only when they might. 
  */
 
 public class State implements Cloneable, Comparable<State>
 {
-	public int[][] board; 		// configuration of tiles 
+	private final Goal goal;    // goal configuration, which also determines the board size 
+	private long tiles;         // configuration of tiles, packed as described in Goal (low long)  
+	private long tilesHigh;     // high long of the packed configuration; zero for up to 16 squares 
+	private int blank;          // index of the empty square in row-major order 
+	
+	/**
+	 * The board configuration as a width X width array, which State used to keep, for callers that 
+	 * still read it; use board() instead.  The public constructors set it, and board() sets it if it 
+	 * is null, as it is in states made by successorState() and clone().  It is a copy: changing it 
+	 * does not change this state. 
+	 */
+	@Deprecated
+	public int[][] board;
 	
 	public State previous;    	// previous node on the OPEN/CLOSED list
 	public State next; 			// next node on the OPEN/CLOSED list
 	public State predecessor; 	// predecessor node on the path from the initial state 
+	public int queueIndex = -1; // position of this state in an array-backed OPEN list (StateHeap); 
+	                            // negative if not on one. 
 	
 	public Move move;           // the move that generated this state from its predecessor
 	public int numMoves; 	    // number of moves from the initial state to this state
 
-	public static Heuristic heu; // heuristic used. shared by all the states. 
+	public SearchContext context; // search this state belongs to, holding the heuristic used; set by 
+	                              // the OPEN list the state is added to and inherited by successors 
+	                              // and clones. 
 	
 	private int numMismatchedTiles = -1;    // number of mismatched tiles between this state 
 	                                        // and the goal state; negative if not computed yet.
@@ -54,24 +77,56 @@ public class State implements Cloneable, Comparable<State>
 	                                        // goal state; negative if not computed yet. 
 	private int numSingleDoubleMoves = -1;  // number of single and double moves with each double 
 										    // move counted as one; negative if not computed yet. 
+	private int patternDistance = -1;       // sum of the pattern database entries for this state; 
+	                                        // negative if not computed yet. 
+	private int linearConflict = -1;        // Manhattan distance plus two moves per tile in a linear 
+	                                        // conflict; negative if not computed yet. 
+	private int walkIndex = -1;             // index of this state in the walking distance tables of 
+	                                        // the goal; negative if not computed yet. 
 
 	
 	/**
 	 * Constructor (for the initial state).  
 	 * 
 	 * It takes a 2-dimensional array representing an initial board configuration. The empty 
-	 * square is represented by the number 0.  
+	 * square is represented by the number 0.  The goal is Goal.defaultGoal() for the width of 
+	 * the board, i.e., Goal.EIGHT_PUZZLE for a 3X3 board. 
 	 * 
 	 *     a) Initialize all three links previous, next, and predecessor to null.  
 	 *     b) Set move to null and numMoves to zero.
 	 *
 	 * @param board
 	 * @throws IllegalArgumentException		if board is not a 3X3 array or its nine entries are 
-	 * 										not respectively the digits 0, 1, ..., 8. 
+	 * 										not respectively the digits 0, 1, ..., 8 (or in general, 
+	 * 										not a square array of width 2 to 5 with entries 0, 1, ..., 
+	 * 										width * width - 1). 
 	 */
     public State (int[][] board) throws IllegalArgumentException
     {
-		this.board = board;
+    	this(board, Goal.defaultGoal(board.length));
+    }
+    
+    
+	/**
+	 * Constructor (for the initial state) with the given goal configuration. 
+	 *
+	 * @param board
+	 * @param goal
+	 * @throws IllegalArgumentException		if board does not have the width of the goal or its entries are 
+	 * 										not the numbers 0, 1, ..., width * width - 1. 
+	 */
+    public State (int[][] board, Goal goal) throws IllegalArgumentException
+    {
+    	if (board.length != goal.width())
+    	{
+    		throw new IllegalArgumentException("board is not " + goal.width() + "X" + goal.width());
+    	}
+    	Goal.flatten(board, goal.width());
+    	this.goal = goal;
+		this.tiles = goal.packLow(board);
+		this.tilesHigh = goal.packHigh(board);
+		this.blank = findBlank();
+		this.board = unpack();
 		this.previous = null;
 		this.next = null;
 		this.predecessor = null;
@@ -85,7 +140,8 @@ public class State implements Cloneable, Comparable<State>
      * 
      * It takes a state from an input file that has three rows, each containing three digits 
      * separated by exactly one blank.  Every row starts with a digit. The nine digits are 
-     * from 0 to 8 with no duplicates.  
+     * from 0 to 8 with no duplicates.  More generally, the file may have width rows of width 
+     * numbers each, for width from 2 to 5, holding 0, 1, ..., width * width - 1.  
      * 
      * Do the same initializations as for the first constructor. 
      * 
@@ -95,42 +151,84 @@ public class State implements Cloneable, Comparable<State>
      */
     public State (String inputFileName) throws FileNotFoundException, IllegalArgumentException
     {
-		int[][] board = {{0, 0, 0}, {0, 0, 0}, {0, 0, 0}};
-		try
+    	this(readBoard(inputFileName));
+	}
+    
+    
+    /**
+     * Read a board configuration from a file in the format described for State(String), with blank 
+     * lines ignored. 
+     * 
+     * @param inputFileName
+     * @return the board
+     * @throws FileNotFoundException
+     * @throws IllegalArgumentException  if the rows are not all as long as there are rows 
+     */
+    static int[][] readBoard(String inputFileName) throws FileNotFoundException, IllegalArgumentException
+    {
+    	List<int[]> rows = new ArrayList<>();
+		try (Scanner s = new Scanner(new File(inputFileName)))
 		{
-			File f = new File(inputFileName);
-			Scanner s = new Scanner(f);
-			while (s.hasNextInt())
+			while (s.hasNextLine())
 			{
-				for (int i = 0; i < board.length; i++)
+				String line = s.nextLine().trim();
+				if (line.isEmpty())
 				{
-					for (int j = 0; j < board[0].length; j++)
-					{
-						board[i][j] = s.nextInt();
-					}
+					continue;
 				}
+				String[] digits = line.split(" ");
+				int[] row = new int[digits.length];
+				for (int j = 0; j < row.length; j++)
+				{
+					row[j] = Integer.parseInt(digits[j]);
+				}
+				rows.add(row);
 			}
 		}
-		catch (IllegalArgumentException | FileNotFoundException e)
+		int[][] board = rows.toArray(new int[0][]);
+		for (int[] row : board)
 		{
-			if (e instanceof IllegalArgumentException) {
-				throw (IllegalArgumentException) e;
-			} else if (e instanceof FileNotFoundException) {
-				throw (FileNotFoundException) e;
+			if (row.length != board.length)
+			{
+				throw new IllegalArgumentException(inputFileName + " does not hold a square board");
 			}
 		}
-		this.board = board;
-		this.previous = null;
-		this.next = null;
-		this.predecessor =null;
-		this.move = null;
-		this.numMoves = 0;
-	}
+		return board;
+    }
+    
+    
+    /**
+     * Constructor for a state with the given packed board configuration, used by successorState() 
+     * and clone(). All links are null, move is null and numMoves is zero. 
+     * 
+     * @param goal
+     * @param tiles      low long of the packed board configuration 
+     * @param tilesHigh  high long of the packed board configuration 
+     * @param blank      index of the empty square 
+     */
+    State (Goal goal, long tiles, long tilesHigh, int blank)
+    {
+    	this.goal = goal;
+    	this.tiles = tiles;
+    	this.tilesHigh = tilesHigh;
+    	this.blank = blank;
+    }
+    
+    
+    /**
+     * Create a state that is never on the board, to serve as the dummy head of a linked list. 
+     * 
+     * @return a state whose squares are all filled with the square mask 
+     */
+    static State sentinel()
+    {
+    	return new State(Goal.EIGHT_PUZZLE, -1L, -1L, -1);
+    }
     
     
     /**
      * Generate the successor state resulting from a given move.  Throw an exception if the move 
-     * cannot be executed.  Besides setting the array board[][] properly, you also need to do the 
+     * cannot be executed.  Besides setting the board configuration properly, you also need to do the 
      * following:
      * 
      *     a) set the predecessor of the successor state to this state;
@@ -138,6 +236,10 @@ public class State implements Cloneable, Comparable<State>
      *     c) Set the links next and previous to null;
      *     d) Set the variable numMoves for the successor state to this.numMoves + 1. 
      * 
+     * The successor's board is derived from the packed board by shifting the one or two moved tiles, 
+     * so no arrays are allocated.  Legality is looked up in a MoveTable rather than tested move by 
+     * move. 
+     * 
      * @param m  one of the moves LEFT, RIGHT, UP, DOWN, DBL_LEFT, DBL_RIGHT, DBL_UP, and DBL_DOWN
 	 *           LEFT -> move 0 block to the right
 	 *           RIGHT -> move 0 block to the left
@@ -156,109 +258,69 @@ public class State implements Cloneable, Comparable<State>
      */                                  
     public State successorState(Move m) throws IllegalArgumentException
     {
-		State s = (State) this.clone();
-		int empty_row = 0;
-		int empty_col = 0;
-		for (int i = 0; i < this.board.length; i++)
+    	if (!isLegalMove(m))
+    	{
+    		throw new IllegalArgumentException(m + " is not legal with the empty square on row " 
+    				+ this.blank / goal.width() + ", column " + this.blank % goal.width());
+    	}
+    	return successor(m);
+    }
+    
+    
+    /**
+     * Same as successorState(m) but without checking m, for the searches, which only try the moves 
+     * listed for the empty square by the MoveTable of their context. 
+     * 
+     * Precondition: m is legal in this state. 
+     * 
+     * @param m  a single or double move 
+     * @return null  			if the successor state is this.predecessor
+     *         successor state  otherwise 
+     */
+    State successor(Move m)
+    {
+		// slide each of the numTiles() tiles following the empty square one square towards it 
+		int step = m.rowStep() * goal.width() + m.colStep();
+		long t = this.tiles;
+		long th = this.tilesHigh;
+		long mask = goal.mask();
+		int to = this.blank;
+		for (int k = 0; k < m.numTiles(); k++)
 		{
-			for (int j = 0; j < this.board[0].length; j++)
-			{
-				if (this.board[i][j] == 0)
-				{
-					empty_row = i;
-					empty_col = j;
-				}
-			}
+			int from = to + step;
+			int tile = goal.tileAt(t, th, from);
+			t = (t | goal.low(tile, to)) & ~goal.low(mask, from);
+			th = (th | goal.high(tile, to)) & ~goal.high(mask, from);
+			to = from;
 		}
-		try {
-			switch (m) {
-				case LEFT:
-					if (empty_col == 2) {
-						throw new IllegalArgumentException();
-					} else {
-						s.board[empty_row][empty_col] = s.board[empty_row][empty_col + 1];
-						s.board[empty_row][empty_col + 1] = 0;
-					}
-					break;
-				case RIGHT:
-					if (empty_col == 0) {
-						throw new IllegalArgumentException();
-					} else {
-						s.board[empty_row][empty_col] = s.board[empty_row][empty_col - 1];
-						s.board[empty_row][empty_col - 1] = 0;
-					}
-					break;
-				case UP:
-					if (empty_row == 2) {
-						throw new IllegalArgumentException();
-					} else {
-						s.board[empty_row][empty_col] = s.board[empty_row + 1][empty_col];
-						s.board[empty_row + 1][empty_col] = 0;
-					}
-					break;
-				case DOWN:
-					if (empty_row == 0) {
-						throw new IllegalArgumentException();
-					} else {
-						s.board[empty_row][empty_col] = s.board[empty_row - 1][empty_col];
-						s.board[empty_row - 1][empty_col] = 0;
-					}
-					break;
-				case DBL_LEFT:
-					if (empty_col == 2 || empty_col == 1) {
-						throw new IllegalArgumentException();
-					} else {
-						s.board[empty_row][empty_col] = s.board[empty_row][empty_col + 1];
-						s.board[empty_row][empty_col + 1] = s.board[empty_row][empty_col + 2];
-						s.board[empty_row][empty_col + 2] = 0;
-					}
-					break;
-				case DBL_RIGHT:
-					if (empty_col == 0 || empty_col == 1) {
-						throw new IllegalArgumentException();
-					} else {
-						s.board[empty_row][empty_col] = s.board[empty_row][empty_col - 1];
-						s.board[empty_row][empty_col - 1] = s.board[empty_row][empty_col - 2];
-						s.board[empty_row][empty_col - 2] = 0;
-					}
-					break;
-				case DBL_UP:
-					if (empty_row == 2 || empty_row == 1) {
-						throw new IllegalArgumentException();
-					} else {
-						s.board[empty_row][empty_col] = s.board[empty_row + 1][empty_col];
-						s.board[empty_row + 1][empty_col] = s.board[empty_row + 2][empty_col];
-						s.board[empty_row + 2][empty_col] = 0;
-					}
-					break;
-				case DBL_DOWN:
-					if (empty_row == 0 || empty_row == 1) {
-						throw new IllegalArgumentException();
-					} else {
-						s.board[empty_row][empty_col] = s.board[empty_row - 1][empty_col];
-						s.board[empty_row - 1][empty_col] = s.board[empty_row - 2][empty_col];
-						s.board[empty_row - 2][empty_col] = 0;
-					}
-					break;
-			}
-		} catch (IllegalArgumentException e) {
+		if (this.predecessor != null && this.predecessor.tiles == t && this.predecessor.tilesHigh == th) {
 			return null;
 		}
+		State s = new State(goal, t, th, to);
+		s.context = this.context;
 		s.predecessor = this;
 		s.move = m;
 		s.numMoves = this.numMoves + 1;
-		if (this.predecessor != null && this.predecessor.equals(s)) {
-			return null;
-		} else {
-			return s;
-		}
+		updateHeuristics(s, this.blank, step, m.numTiles());
+		return s;
+    }
+    
+    
+    /**
+     * @param m  a single or double move 
+     * @return whether m can be made in this state, i.e., the tiles it slides are on the board 
+     */
+    public boolean isLegalMove(Move m)
+    {
+    	return MoveTable.of(goal.width(), true).isLegal(this.blank, m);
     }
     
         
     /**
      * Determines if the board configuration in this state can be rearranged into the goal configuration. 
      * According to the PowerPoint notes that introduce the 8-puzzle, we check if this state has an odd number 
-     * of inversions. 
+     * of inversions.  In general the parity of the inversions (plus the row of the empty square for an 
+     * even width) must match that of the goal; see Goal.solvable(). 
      */
     /**
      * 
@@ -266,40 +328,13 @@ public class State implements Cloneable, Comparable<State>
      */
     public boolean solvable() //done
     {
-		int[] flat = new int[9];
-		int idx = 0;
-		int inv_c = 0;
-		for (int i = 0; i < this.board.length; i++)
-		{
-			for (int j = 0; j < this.board[0].length; j++)
-			{
-				flat[idx] = this.board[i][j];
-				idx++;
-			}
-		}
-		for (int i = 0; i < flat.length; i++)
-		{
-			for (int j = i+1; j < flat.length; j++)
-			{
-				if (flat[i] > flat[j] && flat[i] != 0 && flat[j] != 0)
-				{
-					inv_c++;
-				}
-			}
-		}
-		if ((inv_c - 7) % 2 == 0)
-		{
-			return true;
-		}
-		else
-		{
-			return false;
-		}
+		return goal.solvable(this.tiles, this.tilesHigh);
     }
     
     
     /**
-     * Check if this state is the goal state, namely, if the array board[][] stores the following contents: 
+     * Check if this state is the goal state, namely, if the array board[][] stores the following contents 
+     * (or the configuration of its Goal object for other boards): 
      * 
      * 		1 2 3 
      * 		8 0 4 
@@ -309,8 +344,7 @@ public class State implements Cloneable, Comparable<State>
      */
     public boolean isGoalState() //done
     {
-    	int[][] goal = {{1,2,3},{8,0,4},{7,6,5}};
-    	return Arrays.deepEquals(this.board, goal);
+    	return this.tiles == goal.packedLow() && this.tilesHigh == goal.packedHigh();
     }
     
     
@@ -321,6 +355,8 @@ public class State implements Cloneable, Comparable<State>
      *     b) Two adjacent tiles in each row have exactly one blank in between. 
      *     c) The empty square is represented by a blank.  
      *     
+     * On boards with two-digit tiles every square is right-aligned to two characters.
+     *     
      * For example, 
      * 
      * 2   3
@@ -330,22 +366,29 @@ public class State implements Cloneable, Comparable<State>
      */
     @Override
 	public String toString() {
+		int[][] board = this.board();
+		String format = goal.size() > 10 ? "%2d" : "%d";
+		String empty = goal.size() > 10 ? "  " : " ";
 		StringBuilder sb = new StringBuilder();
-		for (int i = 0; i < this.board.length; i++)
+		for (int i = 0; i < board.length; i++)
 		{
-			for (int j = 0; j < this.board[0].length; j++)
+			for (int j = 0; j < board[0].length; j++)
 			{
 				if (j != 0)
 				{
 					sb.append(" ");
 				}
-				if (this.board[i][j] == 0)
+				if (board[i][j] == 0)
 				{
-					sb.append(" ");
+					sb.append(empty);
+				}
+				else if (goal.size() > 10)
+				{
+					sb.append(String.format(format, board[i][j]));
 				}
 				else
 				{
-					sb.append(this.board[i][j]);
+					sb.append(board[i][j]);
 				}
 			}
 			sb.append("\n");
@@ -355,60 +398,176 @@ public class State implements Cloneable, Comparable<State>
     
     
     /**
-     * Create a clone of this State object by copying over the board[][]. Set the links previous,
-     * next, and predecessor to null. 
-     * 
-     * The method is called by SuccessorState(); 
+     * Create a clone of this State object by copying over the packed board and the context. Set the 
+     * links previous, next, and predecessor to null. 
      */
     @Override
     public Object clone()
     {
-		int[][] deepcpy_board = new int[this.board.length][this.board[0].length];
-		for (int i = 0; i < this.board.length; i++)
-		{
-			deepcpy_board[i] = Arrays.copyOf(this.board[i], this.board[i].length);
-		}
-		State s = new State(deepcpy_board);
+		State s = new State(this.goal, this.tiles, this.tilesHigh, this.blank);
+		s.context = this.context;
 		s.previous = null;
 		s.next = null;
 		s.predecessor = null;
     	return s;
     }
+    
+    
+    /**
+     * Return the board configuration as a width X width array, built from the packed board.  Every 
+     * call returns a new array, which belongs to the caller; changing it does not change this state. 
+     * The first call also sets the field board if it is null. 
+     * 
+     * @return the configuration of tiles 
+     */
+    public int[][] board()
+    {
+    	if (board == null)
+    	{
+    		board = unpack();
+    	}
+    	return unpack();
+    }
+    
+    
+    /**
+     * @return a new width X width array holding the board configuration 
+     */
+    private int[][] unpack()
+    {
+    	int width = goal.width();
+    	int[][] b = new int[width][width];
+    	for (int i = 0; i < goal.size(); i++)
+    	{
+    		b[i / width][i % width] = goal.tileAt(this.tiles, this.tilesHigh, i);
+    	}
+    	return b;
+    }
   
 
     /**
-     * Compare this state with the argument state.  Two states are equal if their arrays board[][] 
-     * have the same content.
+     * Compare this state with the argument state.  Two states are equal if their packed boards 
+     * are the same, i.e., if their arrays board[][] have the same content.
      */
     @Override 
     public boolean equals(Object o) //done
     {
 		State s2 = (State) o;
-		return Arrays.deepEquals(this.board, s2.board);
+		return this.tiles == s2.tiles && this.tilesHigh == s2.tilesHigh;
+    }
+    
+    
+    /**
+     * Consistent with equals(): states with the same board configuration have the same hash code. 
+     */
+    @Override
+    public int hashCode()
+    {
+    	long h = this.tiles ^ this.tilesHigh * 0xC2B2AE3D27D4EB4FL;
+    	return (int) (h ^ (h >>> 32)) * 0x9E3779B9;
+    }
+    
+    
+    /**
+     * Return the low long of the board configuration packed as described in Goal: bits() bits per square 
+     * in row-major order with the first square in the highest bits.  Two states have the same packed 
+     * board (low and high long) if and only if their arrays board[][] have the same content, and 
+     * comparing packed boards as unsigned numbers orders states lexicographically.  For up to 16 squares 
+     * the low long is the whole packed board. 
+     * 
+     * @return the low long of the packed board configuration 
+     */
+    public long packedBoard()
+    {
+    	return this.tiles;
+    }
+    
+    
+    /**
+     * @return the high long of the packed board configuration; zero for up to 16 squares
+     */
+    public long packedBoardHigh()
+    {
+    	return this.tilesHigh;
+    }
+    
+    
+    /**
+     * @return the index of the empty square in row-major order
+     */
+    public int blankIndex()
+    {
+    	return this.blank;
+    }
+    
+    
+    /**
+     * @return the goal configuration of this state's puzzle 
+     */
+    public Goal goal()
+    {
+    	return this.goal;
+    }
+    
+    
+    /**
+     * @return the index of the square holding 0, or -1 if there is none 
+     */
+    private int findBlank()
+    {
+    	for (int i = 0; i < goal.size(); i++)
+    	{
+    		if (goal.tileAt(this.tiles, this.tilesHigh, i) == 0)
+    		{
+    			return i;
+    		}
+    	}
+    	return -1;
     }
         
     
     /**
      * Evaluate the cost of this state as the sum of the number of moves from the initial state and 
-     * the estimated number of moves to the goal state using the heuristic stored in the instance 
-     * variable heu. 
+     * the estimated number of moves to the goal state using the heuristic of the instance variable 
+     * context, heu = context.heuristic. 
      * 
      * If heu == TileMismatch, add up numMoves and the return values from computeNumMismatchedTiles().
      * If heu == MahattanDist, add up numMoves and the return values of computeMahattanDistance(). 
      * If heu == DoubleMoveHeuristic, add up numMoves and the return value of computeNumSingleDoubleMoves(). 
+     * If heu == PatternDatabase, add up numMoves and the return value of computePatternDistance(). 
+     * If heu == LinearConflict, add up numMoves and the return value of computeLinearConflict(). 
+     * If heu == WalkingDistance, add up numMoves and the return value of computeWalkingDistance(). 
+     * 
+     * If the weight of the context is w > 1, the estimate h above is replaced by floor(w * h). 
      * 
      * @return estimated number of moves from the initial state to the goal state via this state.
      * @throws IllegalArgumentException if heuristic is none of TileMismatch, MahattanDist, DoubleMoveHeuristic. 
      */
     public int cost() throws IllegalArgumentException //done
+    {
+    	int h = estimate();
+    	double w = context.weight;
+    	return this.numMoves + (w == 1 ? h : (int) (w * h));
+    }
+    
+    
+    /**
+     * @return the estimated number of moves from this state to the goal state, by the heuristic of 
+     *         the instance variable context and without its weight 
+     * @throws IllegalArgumentException if heuristic is none of the Heuristic values 
+     */
+    int estimate() throws IllegalArgumentException
     {
 		try
 		{
-			switch (heu)
+			switch (context.heuristic)
 			{
-				case TileMismatch -> {return this.numMoves + this.computeNumMismatchedTiles();}
-				case ManhattanDist -> {return this.numMoves + this.computeManhattanDistance();}
-				case DoubleMoveHeuristic -> {return this.numMoves + this.computeNumSingleDoubleMoves();}
+				case TileMismatch -> {return this.computeNumMismatchedTiles();}
+				case ManhattanDist -> {return this.computeManhattanDistance();}
+				case DoubleMoveHeuristic -> {return this.computeNumSingleDoubleMoves();}
+				case PatternDatabase -> {return this.computePatternDistance();}
+				case LinearConflict -> {return this.computeLinearConflict();}
+				case WalkingDistance -> {return this.computeWalkingDistance();}
 			}
 		}
 		catch (IllegalArgumentException e)
@@ -454,27 +613,11 @@ public class State implements Cloneable, Comparable<State>
      */
 	private int computeNumMismatchedTiles() //done
 	{
-		if(this.numMismatchedTiles >= 0)
-		{
-			return this.numMismatchedTiles;
-		}
-		else
+		if(this.numMismatchedTiles < 0)
 		{
-			int[][] goal = {{1,2,3},{8,0,4},{7,6,5}};
-			int count = 0;
-			for (int i = 0; i < this.board.length; i++)
-			{
-				for (int j = 0; j < this.board[0].length; j++)
-				{
-					if(goal[i][j] != this.board[i][j] && goal[i][j] != 0)
-					{
-						count++;
-					}
-				}
-			}
-			this.numMismatchedTiles = count;
-			return count;
+			this.numMismatchedTiles = goal.heuristic(Heuristic.TileMismatch, this.tiles, this.tilesHigh);
 		}
+		return this.numMismatchedTiles;
 	}
 
 	
@@ -486,39 +629,11 @@ public class State implements Cloneable, Comparable<State>
 	 */
 	private int computeManhattanDistance() //done
 	{
-		if(this.ManhattanDistance >= 0)
+		if(this.ManhattanDistance < 0)
 		{
-			return this.ManhattanDistance;
-		}
-		else
-		{
-			HashMap<Integer,int[]> hm = new HashMap<>();
-			int[][] goal = {{1,2,3},{8,0,4},{7,6,5}};
-			int sum = 0;
-
-			for (int i = 0; i < this.board.length; i++)
-			{
-				for (int j = 0; j < this.board[0].length; j++)
-				{
-					int[] arr = {i,j};
-					hm.put(goal[i][j],arr);
-				}
-			}
-			for (int i = 0; i < this.board.length; i++)
-			{
-				for (int j = 0; j < this.board[0].length; j++)
-				{
-					if(this.board[i][j] != goal[i][j] && this.board[i][j] != 0)
-					{
-						int[] cord = hm.get(this.board[i][j]);
-						int man_d = Math.abs(cord[0] - i) + Math.abs(cord[1] - j);
-						sum = sum + man_d;
-					}
-				}
-			}
-			this.ManhattanDistance = sum;
-			return sum;
+			this.ManhattanDistance = goal.heuristic(Heuristic.ManhattanDist, this.tiles, this.tilesHigh);
 		}
+		return this.ManhattanDistance;
 	}
 	
 	
@@ -526,43 +641,160 @@ public class State implements Cloneable, Comparable<State>
 	 * Return the value of the private variable numSingleDoubleMoves if it is non-negative, and compute its value 
 	 * otherwise. 
 	 * 
+	 * This is the Manhattan distance with each row or column distance of 2 counted as 1, since a double
+	 * move can cover it (in general, each row or column distance d counted as (d + 1) / 2). 
+	 * 
 	 * @return the value of the private variable numSingleDoubleMoves that bounds from below the number of moves, 
 	 *         single or double, which will take this state to the goal state.
 	 */
-	private int computeNumSingleDoubleMoves() {
-		if (this.numSingleDoubleMoves >= 0) {
-			return this.numSingleDoubleMoves;
-		} else {
-			HashMap<Integer, int[]> hm = new HashMap<>();
-			int[][] goal = {{1, 2, 3}, {8, 0, 4}, {7, 6, 5}};
-			int sum = 0;
-
-			for (int i = 0; i < this.board.length; i++) {
-				for (int j = 0; j < this.board[0].length; j++) {
-					int[] arr = {i, j};
-					hm.put(goal[i][j], arr);
-				}
-			}
-			for (int i = 0; i < this.board.length; i++) {
-				for (int j = 0; j < this.board[0].length; j++) {
-					if (this.board[i][j] != goal[i][j] && this.board[i][j] != 0) {
-						int[] cord = hm.get(this.board[i][j]);
-						int dbl_mv_man_d_row = Math.abs(cord[0] - i);
-						int dbl_mv_man_d_col = Math.abs(cord[1] - j);
-						if(dbl_mv_man_d_row == 2)
-						{
-							dbl_mv_man_d_row = 1;
-						}
-						if(dbl_mv_man_d_col == 2)
-						{
-							dbl_mv_man_d_col = 1;
-						}
-						sum = sum + dbl_mv_man_d_row + dbl_mv_man_d_col;
-					}
-				}
+	private int computeNumSingleDoubleMoves() 
+	{
+		if(this.numSingleDoubleMoves < 0)
+		{
+			this.numSingleDoubleMoves = goal.heuristic(Heuristic.DoubleMoveHeuristic, this.tiles, this.tilesHigh);
+		}
+		return this.numSingleDoubleMoves;
+	}
+	
+	
+	/**
+	 * Return the value of the private variable patternDistance if it is non-negative, and look it up 
+	 * otherwise. 
+	 * 
+	 * @return the additive pattern database estimate of the number of moves to the goal state. 
+	 */
+	private int computePatternDistance()
+	{
+		if(this.patternDistance < 0)
+		{
+			this.patternDistance = context.patterns.distance(this.tiles, this.tilesHigh);
+		}
+		return this.patternDistance;
+	}
+	
+	
+	/**
+	 * Return the value of the private variable linearConflict if it is non-negative, and compute it 
+	 * otherwise. 
+	 * 
+	 * @return the Manhattan distance plus twice the number of tiles that must leave their goal row or 
+	 *         column to let another tile of it past; see Goal.linearConflicts(). 
+	 */
+	private int computeLinearConflict()
+	{
+		if(this.linearConflict < 0)
+		{
+			this.linearConflict = goal.heuristic(Heuristic.LinearConflict, this.tiles, this.tilesHigh);
+		}
+		return this.linearConflict;
+	}
+	
+	
+	/**
+	 * Find the position of this state in the walking distance tables if it is not known yet, and 
+	 * look the distance up there. 
+	 * 
+	 * @return the walking distance between this state and the goal state. 
+	 */
+	private int computeWalkingDistance()
+	{
+		WalkingDistance wd = goal.walkingDistance();
+		if(this.walkIndex < 0)
+		{
+			this.walkIndex = wd.index(this.tiles, this.tilesHigh);
+		}
+		return wd.distance(this.walkIndex);
+	}
+	
+	
+	/**
+	 * Carry the heuristic values already computed for the parent state over to its successor s.  Only 
+	 * the tiles moved by the last move change position, so each value changes by the precomputed 
+	 * deltas for those tiles and for the empty square. 
+	 * 
+	 * @param s      successor state
+	 * @param from   index of the first square whose tile moved, i.e., the parent's empty square
+	 * @param step   offset between consecutive moved squares
+	 * @param count  number of tiles moved
+	 */
+	private void updateHeuristics(State s, int from, int step, int count)
+	{
+		if (this.numMismatchedTiles >= 0)
+		{
+			s.numMismatchedTiles = this.numMismatchedTiles + delta(Heuristic.TileMismatch, from, step, count);
+		}
+		if (this.ManhattanDistance >= 0)
+		{
+			s.ManhattanDistance = this.ManhattanDistance + delta(Heuristic.ManhattanDist, from, step, count);
+		}
+		if (this.numSingleDoubleMoves >= 0)
+		{
+			s.numSingleDoubleMoves = this.numSingleDoubleMoves + delta(Heuristic.DoubleMoveHeuristic, from, step, count);
+		}
+		if (this.linearConflict >= 0)
+		{
+			s.linearConflict = this.linearConflict + delta(Heuristic.ManhattanDist, from, step, count) 
+					+ 2 * lineConflictDelta(s, from, step);
+		}
+		if (this.walkIndex >= 0)
+		{
+			// each moved tile moves one table entry; the empty square moves by step each time 
+			WalkingDistance wd = goal.walkingDistance();
+			int index = this.walkIndex;
+			for (int sq = from + step; sq != s.blank + step; sq += step)
+			{
+				index = wd.next(index, step, goal.tileAt(this.tiles, this.tilesHigh, sq));
 			}
-			this.numSingleDoubleMoves = sum;
-			return sum;
+			s.walkIndex = index;
+		}
+	}
+	
+	
+	/**
+	 * A vertical move changes the rows of the moved tiles but not their order in the column, and a 
+	 * horizontal move the other way round, so only the rows (columns) between the two empty squares 
+	 * can change their linear conflicts. 
+	 * 
+	 * @param s      successor state
+	 * @param from   the parent's empty square
+	 * @param step   offset between consecutive moved squares
+	 * @return the change of Goal.linearConflicts() from this state to its successor 
+	 */
+	private int lineConflictDelta(State s, int from, int step)
+	{
+		int width = goal.width();
+		boolean vertical = step == width || step == -width;
+		int a = vertical ? from / width : from % width;
+		int b = vertical ? s.blank / width : s.blank % width;
+		int d = 0;
+		for (int line = Math.min(a, b); line <= Math.max(a, b); line++)
+		{
+			d += goal.lineConflicts(s.tiles, s.tilesHigh, vertical, line) 
+					- goal.lineConflicts(this.tiles, this.tilesHigh, vertical, line);
+		}
+		return d;
+	}
+	
+	
+	/**
+	 * @param h      TileMismatch, ManhattanDist or DoubleMoveHeuristic
+	 * @param from   the parent's empty square
+	 * @param step   offset between consecutive moved squares
+	 * @param count  number of tiles moved
+	 * @return the change of the heuristic value from this state to its successor
+	 */
+	private int delta(Heuristic h, int from, int step, int count)
+	{
+		byte[] deltaTable = goal.deltaTable(h);
+		int n = goal.size();
+		int d = 0;
+		int to = from;
+		for (int k = 0; k < count; k++)
+		{
+			int sq = to + step;
+			d += deltaTable[(goal.tileAt(this.tiles, this.tilesHigh, sq) * n + sq) * n + to];
+			to = sq;
 		}
+		return d + deltaTable[from * n + to];
 	}
 }
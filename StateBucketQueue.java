@@ -0,0 +1,160 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.Arrays;
+
+/**
+ *  
+ * @author Owen Kim
+ *
+ */
+
+/**
+ * This class describes a bucket queue of states to be used as the OPEN list by the A* algorithm. 
+ * Since cost estimates are small non-negative integers, the states with cost f are kept on a 
+ * circular doubly-linked list with a dummy head stored at buckets[f], linked through the fields 
+ * previous and next of State just like OrderedStateList.  
+ * 
+ * A new state is added at the front of its bucket, or at the back with FIFO tie-breaking, so states 
+ * are removed in exactly the same order as from an OrderedStateList OPEN list: by non-decreasing 
+ * cost, then as the TieBreaking of the context says.  With HighG there is a bucket for every cost 
+ * and rank, indexed by TieBreaking.bucket(), so that the buckets are still removed in order. 
+ * Insertion, removal and update() take O(1) time apart from skipping empty buckets, and findState() 
+ * looks the board up in a StateIndex.  
+ */
+public class StateBucketQueue implements Frontier
+{
+	private State[] buckets = new State[64];   // dummy heads, created on first use 
+	private int size = 0;
+	private int minBucket = 0;                 // no state on the queue is in a bucket below minBucket 
+	private StateIndex index = new StateIndex();
+	private final SearchContext context; 
+	private final TieBreaking ties;
+	
+	
+	/**
+	 * Constructs an empty queue. Initialize heuristic. 
+	 * 
+	 * @param context  search whose heuristic evaluates the states on the queue 
+	 */
+	public StateBucketQueue(SearchContext context)
+	{
+		this.context = context;   // initialize heuristic used for evaluating the State objects on the queue.
+		this.ties = context.tieBreaking;
+	}
+	
+	
+	@Override
+	public int size()
+	{
+		return size;
+	}
+	
+	
+	@Override
+	public void addState(State s)
+	{
+		s.context = context;
+		index.put(s);
+		link(s);
+		size++;
+	}
+	
+	
+	@Override
+	public State remove()
+	{
+		State pop = peek();
+		if (pop == null)
+		{
+			return null;
+		}
+		index.remove(pop);
+		unlink(pop);
+		size--;
+		return pop;
+	}
+	
+	
+	@Override
+	public State peek()
+	{
+		if (size == 0)
+		{
+			return null;
+		}
+		while (buckets[minBucket] == null || buckets[minBucket].next == buckets[minBucket])
+		{
+			minBucket++;
+		}
+		return buckets[minBucket].next;
+	}
+	
+	
+	@Override
+	public State findState(State s)
+	{
+		return index.get(s);
+	}
+	
+	
+	@Override
+	public void removeState(State s) throws IllegalStateException
+	{
+		State del = index.remove(s);
+		if (del == null)
+		{
+			throw new IllegalStateException();
+		}
+		unlink(del);
+		size--;
+	}
+	
+	
+	@Override
+	public void update(State s)
+	{
+		unlink(s);
+		link(s);
+	}
+	
+	
+	/**
+	 * Add s at the front of the bucket for its cost and rank, or at the back with FIFO. 
+	 * 
+	 * @param s
+	 */
+	private void link(State s)
+	{
+		int f = ties.bucket(s.cost(), ties.rank(s));
+		if (f >= buckets.length)
+		{
+			buckets = Arrays.copyOf(buckets, Math.max(f + 1, buckets.length * 2));
+		}
+		State head = buckets[f];
+		if (head == null)
+		{
+			head = State.sentinel();
+			head.next = head;
+			head.previous = head;
+			buckets[f] = head;
+		}
+		State before = ties == TieBreaking.FIFO ? head.previous : head;   // s goes right after it 
+		s.next = before.next;
+		s.previous = before;
+		before.next.previous = s;
+		before.next = s;
+		if (f < minBucket)
+		{
+			minBucket = f;
+		}
+	}
+	
+	
+	private void unlink(State s)
+	{
+		s.previous.next = s.next;
+		s.next.previous = s.previous;
+		s.previous = null;
+		s.next = null;
+	}
+}
@@ -22,19 +22,16 @@ import java.util.Comparator;
  * By definition the first state is less than the second one.  
  * 
  * The comparator will be used for maintaining the CLOSED list used in the A* algorithm. 
+ * 
+ * Since a packed board stores the digits in this order from the highest bits down, the comparison 
+ * is an unsigned comparison of the packed boards (high long first). 
  */
 public class StateComparator implements Comparator<State>
 {
 	@Override
 	public int compare(State s1, State s2)
 	{
-		for (int i = 0; i < 3; i++) {
-			for (int j = 0; j < 3; j++) {
-				if (s1.board[i][j] != s2.board[i][j]) {
-					return Integer.compare(s1.board[i][j], s2.board[i][j]);
-				}
-			}
-		}
-		return 0; // States are equal
+		int c = Long.compareUnsigned(s1.packedBoardHigh(), s2.packedBoardHigh());
+		return c != 0 ? c : Long.compareUnsigned(s1.packedBoard(), s2.packedBoard());
 	}
 }
@@ -0,0 +1,239 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.Arrays;
+
+/**
+ *  
+ * @author Owen Kim
+ *
+ */
+
+/**
+ * This class describes an array-backed d-ary min-heap of states ordered by cost estimate, to be used 
+ * as the OPEN list by the A* algorithm.  Every state on the heap records its own position in the 
+ * field queueIndex so that update() can sift it up in O(log n) after a decrease of its cost 
+ * instead of removing and reinserting it.  States are also kept in a StateIndex so findState() 
+ * takes O(1) expected time.  
+ * 
+ * States of equal cost are ordered by the TieBreaking of the context, and then by when they were 
+ * added or last updated, as the other Frontier implementations order them: every state gets a 
+ * stamp from a counter, kept in an array parallel to the heap, and the latest stamp comes first 
+ * unless the tie-breaking is FIFO. 
+ */
+public class StateHeap implements Frontier
+{
+	private State[] heap = new State[64];
+	private long[] stamps = new long[64];   // stamps[i] is the stamp of heap[i] 
+	private long stamp = 0;                 // stamp of the next state added or updated 
+	private int size = 0;
+	private final int arity;     // number of children of each node, at least 2 
+	private StateIndex index = new StateIndex();
+	private final SearchContext context; 
+	private final TieBreaking ties;
+	
+	
+	/**
+	 * Constructs an empty heap. Initialize heuristic. 
+	 * 
+	 * @param context  search whose heuristic evaluates the states on the queue 
+	 * @param arity   number of children per node 
+	 * @throws IllegalArgumentException if arity < 2
+	 */
+	public StateHeap(SearchContext context, int arity) throws IllegalArgumentException
+	{
+		if (arity < 2)
+		{
+			throw new IllegalArgumentException();
+		}
+		this.context = context;   // initialize heuristic used for evaluating the State objects on the queue.
+		this.ties = context.tieBreaking;
+		this.arity = arity;
+	}
+	
+	
+	@Override
+	public int size()
+	{
+		return size;
+	}
+	
+	
+	@Override
+	public void addState(State s)
+	{
+		if (size == heap.length)
+		{
+			heap = Arrays.copyOf(heap, size * 2);
+			stamps = Arrays.copyOf(stamps, size * 2);
+		}
+		s.context = context;
+		index.put(s);
+		heap[size] = s;
+		stamps[size] = stamp++;
+		s.queueIndex = size;
+		size++;
+		siftUp(s.queueIndex);
+	}
+	
+	
+	@Override
+	public State remove()
+	{
+		if (size == 0)
+		{
+			return null;
+		}
+		State pop = heap[0];
+		removeAt(0);
+		return pop;
+	}
+	
+	
+	@Override
+	public State peek()
+	{
+		return size == 0 ? null : heap[0];
+	}
+	
+	
+	@Override
+	public State findState(State s)
+	{
+		return index.get(s);
+	}
+	
+	
+	@Override
+	public void removeState(State s) throws IllegalStateException
+	{
+		State del = index.get(s);
+		if (del == null)
+		{
+			throw new IllegalStateException();
+		}
+		removeAt(del.queueIndex);
+	}
+	
+	
+	@Override
+	public void update(State s)
+	{
+		stamps[s.queueIndex] = stamp++;
+		siftUp(s.queueIndex);
+	}
+	
+	
+	/**
+	 * Remove the state at position i by moving the last state into its place and restoring 
+	 * the heap order. 
+	 * 
+	 * @param i
+	 */
+	private void removeAt(int i)
+	{
+		index.remove(heap[i]);
+		heap[i].queueIndex = -1;
+		size--;
+		if (i == size)
+		{
+			heap[size] = null;
+			return;
+		}
+		heap[i] = heap[size];
+		stamps[i] = stamps[size];
+		heap[i].queueIndex = i;
+		heap[size] = null;
+		siftDown(i);
+		siftUp(heap[i].queueIndex);
+	}
+	
+	
+	private void siftUp(int i)
+	{
+		State s = heap[i];
+		long t = stamps[i];
+		while (i > 0)
+		{
+			int parent = (i - 1) / arity;
+			if (!precedes(s, t, heap[parent], stamps[parent]))
+			{
+				break;
+			}
+			move(parent, i);
+			i = parent;
+		}
+		heap[i] = s;
+		stamps[i] = t;
+		s.queueIndex = i;
+	}
+	
+	
+	private void siftDown(int i)
+	{
+		State s = heap[i];
+		long t = stamps[i];
+		while (true)
+		{
+			int first = i * arity + 1;
+			if (first >= size)
+			{
+				break;
+			}
+			int last = Math.min(first + arity, size);
+			int min = first;
+			for (int k = first + 1; k < last; k++)
+			{
+				if (precedes(heap[k], stamps[k], heap[min], stamps[min]))
+				{
+					min = k;
+				}
+			}
+			if (!precedes(heap[min], stamps[min], s, t))
+			{
+				break;
+			}
+			move(min, i);
+			i = min;
+		}
+		heap[i] = s;
+		stamps[i] = t;
+		s.queueIndex = i;
+	}
+	
+	
+	/**
+	 * Move the state at position from to position to. 
+	 */
+	private void move(int from, int to)
+	{
+		heap[to] = heap[from];
+		stamps[to] = stamps[from];
+		heap[to].queueIndex = to;
+	}
+	
+	
+	/**
+	 * @return true if state a with stamp ta is to be removed before state b with stamp tb: it has a 
+	 *         smaller cost, or the same cost and a smaller rank, or the same rank and a later stamp 
+	 *         (an earlier one with FIFO) 
+	 */
+	private boolean precedes(State a, long ta, State b, long tb)
+	{
+		int ca = a.cost();
+		int cb = b.cost();
+		if (ca != cb)
+		{
+			return ca < cb;
+		}
+		if (ties == TieBreaking.HighG)
+		{
+			int ra = ties.rank(a);
+			int rb = ties.rank(b);
+			if (ra != rb)
+			{
+				return ra < rb;
+			}
+		}
+		return ties == TieBreaking.FIFO ? ta < tb : ta > tb;
+	}
+}
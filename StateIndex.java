@@ -0,0 +1,202 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.Arrays;
+
+/**
+ *  
+ * @author Owen Kim
+ *
+ */
+
+/**
+ * This class describes a hash index of states keyed on their packed boards, which is maintained 
+ * alongside the OPEN and CLOSED lists so that looking up, adding and removing a state by its board 
+ * configuration takes O(1) expected time instead of a sequential search.  
+ * 
+ * The index uses open addressing with linear probing over parallel arrays holding the low and high 
+ * longs of each packed board and the state, so no key is ever boxed.  Removal uses backward-shift 
+ * deletion, which keeps probe sequences short without tombstones. 
+ */
+public class StateIndex 
+{
+	private long[] keys; 
+	private long[] keysHigh;
+	private State[] states;    // null marks an empty slot 
+	private int size = 0;
+	private int shift;         // 64 - log2(capacity) 
+	
+	
+	/**
+	 * Constructs an empty index. 
+	 */
+	public StateIndex()
+	{
+		this(64);
+	}
+	
+	
+	/**
+	 * Constructs an empty index sized for the expected number of states. 
+	 * 
+	 * @param expected
+	 */
+	public StateIndex(int expected)
+	{
+		int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+		keys = new long[capacity];
+		keysHigh = new long[capacity];
+		states = new State[capacity];
+		shift = 64 - Integer.numberOfTrailingZeros(capacity);
+	}
+	
+	
+	public int size()
+	{
+		return size;
+	}
+	
+	
+	/**
+	 * @param key      low long of a packed board configuration 
+	 * @param keyHigh  high long of a packed board configuration 
+	 * @return the state in the index with the given board if found 
+	 *         null if not found 
+	 */
+	public State get(long key, long keyHigh)
+	{
+		int mask = states.length - 1;
+		for (int i = slot(key, keyHigh); states[i] != null; i = (i + 1) & mask)
+		{
+			if (keys[i] == key && keysHigh[i] == keyHigh)
+			{
+				return states[i];
+			}
+		}
+		return null;
+	}
+	
+	
+	/**
+	 * @param s
+	 * @return the state in the index with the same board configuration as s if found 
+	 *         null if not found 
+	 */
+	public State get(State s)
+	{
+		return get(s.packedBoard(), s.packedBoardHigh());
+	}
+	
+	
+	/**
+	 * Add the state s, replacing any state with the same board configuration. 
+	 * 
+	 * @param s
+	 */
+	public void put(State s)
+	{
+		if (2 * (size + 1) > states.length)
+		{
+			resize(states.length * 2);
+		}
+		long key = s.packedBoard();
+		long keyHigh = s.packedBoardHigh();
+		int mask = states.length - 1;
+		int i = slot(key, keyHigh);
+		while (states[i] != null)
+		{
+			if (keys[i] == key && keysHigh[i] == keyHigh)
+			{
+				states[i] = s;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		keysHigh[i] = keyHigh;
+		states[i] = s;
+		size++;
+	}
+	
+	
+	/**
+	 * Remove the state with the same board configuration as s. 
+	 * 
+	 * @param s
+	 * @return the removed state, or null if there was none 
+	 */
+	public State remove(State s)
+	{
+		long key = s.packedBoard();
+		long keyHigh = s.packedBoardHigh();
+		int mask = states.length - 1;
+		int i = slot(key, keyHigh);
+		while (states[i] != null && (keys[i] != key || keysHigh[i] != keyHigh))
+		{
+			i = (i + 1) & mask;
+		}
+		State del = states[i];
+		if (del == null)
+		{
+			return null;
+		}
+		// shift back every following entry whose probe sequence passes through the freed slot 
+		int hole = i;
+		for (int j = (i + 1) & mask; states[j] != null; j = (j + 1) & mask)
+		{
+			int home = slot(keys[j], keysHigh[j]);
+			if (((j - home) & mask) >= ((j - hole) & mask))
+			{
+				keys[hole] = keys[j];
+				keysHigh[hole] = keysHigh[j];
+				states[hole] = states[j];
+				hole = j;
+			}
+		}
+		states[hole] = null;
+		size--;
+		return del;
+	}
+	
+	
+	/**
+	 * Remove all states. 
+	 */
+	public void clear()
+	{
+		Arrays.fill(states, null);
+		size = 0;
+	}
+	
+	
+	private int slot(long key, long keyHigh)
+	{
+		return (int) (((key ^ keyHigh * 0xC2B2AE3D27D4EB4FL) * 0x9E3779B97F4A7C15L) >>> shift);
+	}
+	
+	
+	private void resize(int capacity)
+	{
+		long[] oldKeys = keys;
+		long[] oldKeysHigh = keysHigh;
+		State[] oldStates = states;
+		keys = new long[capacity];
+		keysHigh = new long[capacity];
+		states = new State[capacity];
+		shift = 64 - Integer.numberOfTrailingZeros(capacity);
+		int mask = capacity - 1;
+		for (int k = 0; k < oldStates.length; k++)
+		{
+			if (oldStates[k] != null)
+			{
+				int i = slot(oldKeys[k], oldKeysHigh[k]);
+				while (states[i] != null)
+				{
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[k];
+				keysHigh[i] = oldKeysHigh[k];
+				states[i] = oldStates[k];
+			}
+		}
+	}
+}
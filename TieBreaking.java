@@ -0,0 +1,61 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.Arrays;
+
+/**
+ * 
+ * Orders of the states of equal cost on OPEN, chosen by SearchContext.tieBreaking and followed by 
+ * every Frontier and by ArenaAStar.  LIFO, the default, removes the state added or rerouted last 
+ * first, and FIFO the one added or rerouted first.  HighG removes the state with the most moves from 
+ * the initial state first, and the last added among those.  Since the cost is g + floor(w * h) with 
+ * w >= 1, which grows by at least 1 with each unit of h, this is the same as preferring the state 
+ * with the smallest heuristic value.  On the last f-layer, where the goal is, HighG goes straight 
+ * down towards the goal instead of expanding the states of the layer breadth-first. 
+ *
+ */
+public enum TieBreaking 
+{
+	LIFO, FIFO, HighG;
+	
+	
+	/**
+	 * @param name  name of a tie-breaking, in any case 
+	 * @return the tie-breaking of that name 
+	 * @throws IllegalArgumentException if there is none 
+	 */
+	public static TieBreaking parse(String name) throws IllegalArgumentException
+	{
+		for (TieBreaking t : values())
+		{
+			if (t.name().equalsIgnoreCase(name))
+			{
+				return t;
+			}
+		}
+		throw new IllegalArgumentException("unknown tie-breaking " + name + ", expected one of " 
+				+ Arrays.toString(values()));
+	}
+	
+	
+	/**
+	 * @param s  a state whose context has this tie-breaking 
+	 * @return the rank of s among states of the same cost, the smallest removed first: cost - g for 
+	 *         HighG, zero otherwise 
+	 */
+	int rank(State s)
+	{
+		return this == HighG ? s.cost() - s.numMoves : 0;
+	}
+	
+	
+	/**
+	 * @param cost  cost of a state 
+	 * @param rank  its rank(), from 0 to cost 
+	 * @return the index of the bucket of the state in a bucket queue, increasing with the cost and, 
+	 *         for equal costs, with the rank 
+	 */
+	int bucket(int cost, int rank)
+	{
+		return this == HighG ? cost * (cost + 1) / 2 + rank : cost;
+	}
+}
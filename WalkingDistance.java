@@ -0,0 +1,270 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * This class holds the tables of the walking distance heuristic for one Goal.  Forget which column 
+ * each tile is in and keep only, for every row, how many of its tiles belong to each goal row, 
+ * together with the row of the empty square.  A vertical move takes one tile from a row next to 
+ * the empty square into the row of the empty square, and a horizontal move changes nothing.  The 
+ * fewest vertical moves that bring these counts to those of the goal is a lower bound on the vertical 
+ * moves of a solution; the same with columns bounds the horizontal moves, and the sum of the two is 
+ * the walking distance.  It is at least the Manhattan distance, and much more when several tiles 
+ * of a row share a goal row. 
+ * 
+ * The counts of a board of width w are a w x w matrix, encoded in a long with 3 bits per entry in 
+ * row-major order and the line of the empty square above them at bit 48.  A breadth-first search 
+ * from the goal counts enumerates the reachable matrices (24964 for the 15-puzzle), whose codes 
+ * are kept sorted with their distances and, for each of them, the matrix reached by moving a tile 
+ * of each goal line from the line before or after the empty square.  A board is thus described by 
+ * the pair of its positions in the vertical and the horizontal table, and a move changes one of them 
+ * by a table lookup.  If the empty square of the goal is on the diagonal the two tables are equal 
+ * and only one is built. 
+ */
+public class WalkingDistance
+{
+	private static final int BITS = 3;         // bits of a matrix entry, enough for counts up to 4
+	private static final int BLANK_SHIFT = 48; // position of the line of the empty square in a code
+	
+	private final Goal goal;
+	private final int width;
+	private final Table vertical;     // rows of the tiles against their goal rows
+	private final Table horizontal;   // columns of the tiles against their goal columns
+	
+	
+	/**
+	 * The reachable count matrices of one direction. 
+	 */
+	private static class Table
+	{
+		final long[] keys;    // codes of the matrices in increasing order
+		final byte[] dist;    // fewest moves from each matrix to the goal matrix
+		final int[] next;     // at (k * 2 + dir) * width + g, the matrix reached from keys[k] by moving a
+		                      // tile of goal line g into the line of the empty square from the line
+		                      // before it (dir 0) or after it (dir 1); -1 if there is no such tile
+		
+		Table(long[] keys, byte[] dist, int[] next)
+		{
+			this.keys = keys;
+			this.dist = dist;
+			this.next = next;
+		}
+	}
+	
+	
+	/**
+	 * Build the tables of a goal.  Goal.walkingDistance() builds them once per goal. 
+	 * 
+	 * @param goal 
+	 * @throws IllegalArgumentException if the board is wider than 4 
+	 */
+	WalkingDistance(Goal goal) throws IllegalArgumentException
+	{
+		if (goal.width() > 4)
+		{
+			throw new IllegalArgumentException("walking distance is only defined up to width 4");
+		}
+		this.goal = goal;
+		this.width = goal.width();
+		int blank = goal.goalSquare(0);
+		this.vertical = build(goalCode(true));
+		this.horizontal = blank / width == blank % width ? vertical : build(goalCode(false));
+	}
+	
+	
+	/**
+	 * @param row  true for the vertical table, false for the horizontal one 
+	 * @return the code of the goal board in that table 
+	 */
+	private long goalCode(boolean row)
+	{
+		return code(goal.packedLow(), goal.packedHigh(), row);
+	}
+	
+	
+	/**
+	 * @param low    low long of a packed board 
+	 * @param high   high long of a packed board 
+	 * @param row    true to count tiles by row and goal row, false by column and goal column 
+	 * @return the code of the count matrix of the board 
+	 */
+	private long code(long low, long high, boolean row)
+	{
+		long code = 0;
+		for (int i = 0; i < width * width; i++)
+		{
+			int t = goal.tileAt(low, high, i);
+			int line = row ? i / width : i % width;
+			if (t == 0)
+			{
+				code |= (long) line << BLANK_SHIFT;
+			}
+			else
+			{
+				int g = row ? goal.goalRow(t) : goal.goalCol(t);
+				code += 1L << (BITS * (line * width + g));
+			}
+		}
+		return code;
+	}
+	
+	
+	/**
+	 * Enumerate the matrices reachable from the goal matrix by breadth-first search and link them 
+	 * by their moves. 
+	 * 
+	 * @param start  code of the goal matrix 
+	 * @return the table 
+	 */
+	private Table build(long start)
+	{
+		Map<Long, Integer> depth = new HashMap<>();
+		ArrayDeque<Long> queue = new ArrayDeque<>();
+		depth.put(start, 0);
+		queue.add(start);
+		while (!queue.isEmpty())
+		{
+			long c = queue.poll();
+			int d = depth.get(c);
+			for (int dir = 0; dir < 2; dir++)
+			{
+				for (int g = 0; g < width; g++)
+				{
+					long m = move(c, dir, g);
+					if (m >= 0 && !depth.containsKey(m))
+					{
+						depth.put(m, d + 1);
+						queue.add(m);
+					}
+				}
+			}
+		}
+		
+		long[] keys = new long[depth.size()];
+		int k = 0;
+		for (long c : depth.keySet())
+		{
+			keys[k++] = c;
+		}
+		Arrays.sort(keys);
+		byte[] dist = new byte[keys.length];
+		int[] next = new int[keys.length * 2 * width];
+		for (k = 0; k < keys.length; k++)
+		{
+			dist[k] = (byte) (int) depth.get(keys[k]);
+			for (int dir = 0; dir < 2; dir++)
+			{
+				for (int g = 0; g < width; g++)
+				{
+					long m = move(keys[k], dir, g);
+					next[(k * 2 + dir) * width + g] = m < 0 ? -1 : Arrays.binarySearch(keys, m);
+				}
+			}
+		}
+		return new Table(keys, dist, next);
+	}
+	
+	
+	/**
+	 * @param c    code of a matrix 
+	 * @param dir  0 to take the tile from the line before the empty square, 1 from the line after it 
+	 * @param g    goal line of the tile 
+	 * @return the code of the matrix after the move, or -1 if there is no such tile 
+	 */
+	private long move(long c, int dir, int g)
+	{
+		int blank = (int) (c >>> BLANK_SHIFT);
+		int from = dir == 0 ? blank - 1 : blank + 1;
+		if (from < 0 || from >= width)
+		{
+			return -1;
+		}
+		int shift = BITS * (from * width + g);
+		if (((c >>> shift) & ((1 << BITS) - 1)) == 0)
+		{
+			return -1;
+		}
+		c -= 1L << shift;
+		c += 1L << (BITS * (blank * width + g));
+		return (c & ((1L << BLANK_SHIFT) - 1)) | (long) from << BLANK_SHIFT;
+	}
+	
+	
+	/**
+	 * @param low    low long of a packed board 
+	 * @param high   high long of a packed board 
+	 * @return the index of the board, combining its positions in the vertical and horizontal tables 
+	 */
+	public int index(long low, long high)
+	{
+		int v = Arrays.binarySearch(vertical.keys, code(low, high, true));
+		int h = Arrays.binarySearch(horizontal.keys, code(low, high, false));
+		return v * horizontal.keys.length + h;
+	}
+	
+	
+	/**
+	 * @param index  index of a board as returned by index() or next() 
+	 * @return the walking distance of the board 
+	 */
+	public int distance(int index)
+	{
+		int n = horizontal.keys.length;
+		return vertical.dist[index / n] + horizontal.dist[index % n];
+	}
+	
+	
+	/**
+	 * @param low    low long of a packed board 
+	 * @param high   high long of a packed board 
+	 * @return the walking distance of the board 
+	 */
+	public int distance(long low, long high)
+	{
+		return distance(index(low, high));
+	}
+	
+	
+	/**
+	 * @param index  index of a board 
+	 * @param step   offset from the empty square to the square of the tile that slides into it, 
+	 *               i.e., the empty square moves by step 
+	 * @param tile   the sliding tile 
+	 * @return the index of the board after the move 
+	 */
+	public int next(int index, int step, int tile)
+	{
+		int n = horizontal.keys.length;
+		int v = index / n;
+		int h = index % n;
+		int dir = step > 0 ? 1 : 0;
+		if (step == width || step == -width)
+		{
+			v = vertical.next[(v * 2 + dir) * width + goal.goalRow(tile)];
+		}
+		else
+		{
+			h = horizontal.next[(h * 2 + dir) * width + goal.goalCol(tile)];
+		}
+		return v * n + h;
+	}
+	
+	
+	/**
+	 * @return the sizes of the vertical and horizontal tables 
+	 */
+	@Override
+	public String toString()
+	{
+		return "walking distance tables of " + vertical.keys.length + " and " + horizontal.keys.length + " matrices";
+	}
+}
@@ -0,0 +1,66 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * JMH benchmark of StateIndex.get() on a CLOSED list of 1000, 10000 or 100000 states, half of the 
+ * lookups missing. 
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ClosedBench
+{
+	@Param({"1000", "10000", "100000"})
+	public int size;
+	
+	private final StateIndex CLOSE = new StateIndex();
+	private final State[] probes = new State[1024];
+	private int next = 0;
+	
+	
+	@Setup
+	public void setup()
+	{
+		List<State> all = SolverBenchmark.allInstances();
+		Random rnd = new Random(Corpus.SEED);
+		int stride = all.size() / (2 * size);
+		for (int i = 0; i < 2 * size; i += 2)
+		{
+			CLOSE.put(all.get(i * stride));
+		}
+		for (int i = 0; i < probes.length; i++)
+		{
+			probes[i] = all.get(rnd.nextInt(2 * size) * stride);
+		}
+	}
+	
+	
+	@Benchmark
+	public State closed()
+	{
+		return CLOSE.get(probes[next++ & 1023]);
+	}
+}
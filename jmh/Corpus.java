@@ -0,0 +1,61 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * The fixed seed and the corpus of 8-puzzle instances shared by the JMH benchmarks, so that every 
+ * run measures the same states. 
+ */
+final class Corpus
+{
+	static final long SEED = 472;
+	
+	
+	private Corpus()
+	{
+	}
+	
+	
+	/**
+	 * Draw instances with a fixed seed, first a depth uniformly from the range and then an instance 
+	 * of that depth. 
+	 * 
+	 * @param all       all instances, with numMoves set to their optimal solution depth 
+	 * @param minDepth 
+	 * @param maxDepth 
+	 * @param count     number of instances 
+	 * @return the instances 
+	 */
+	static List<State> corpus(List<State> all, int minDepth, int maxDepth, int count)
+	{
+		List<List<State>> byDepth = new ArrayList<>();
+		for (State s : all)
+		{
+			while (byDepth.size() <= s.numMoves)
+			{
+				byDepth.add(new ArrayList<>());
+			}
+			byDepth.get(s.numMoves).add(s);
+		}
+		Random rnd = new Random(SEED + minDepth);
+		List<State> corpus = new ArrayList<>();
+		while (corpus.size() < count)
+		{
+			int depth = minDepth + rnd.nextInt(maxDepth - minDepth + 1);
+			if (depth < byDepth.size())
+			{
+				List<State> d = byDepth.get(depth);
+				corpus.add(d.get(rnd.nextInt(d.size())));
+			}
+		}
+		return corpus;
+	}
+}
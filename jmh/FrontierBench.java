@@ -0,0 +1,79 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * JMH benchmark of one addState() and one remove() on each FrontierType holding 1000, 10000 or 
+ * 100000 states, every removed state coming back with a larger cost as in the "hold" model. 
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FrontierBench
+{
+	@Param({"SortedList", "BinaryHeap", "BucketQueue"})
+	public FrontierType frontier;
+	
+	@Param({"1000", "10000", "100000"})
+	public int size;
+	
+	private Frontier OPEN;
+	private State spare;
+	private int next = 0;
+	
+	
+	@Setup
+	public void setup()
+	{
+		List<State> all = SolverBenchmark.allInstances();
+		SearchContext context = new SearchContext(Heuristic.ManhattanDist, Goal.EIGHT_PUZZLE);
+		OPEN = frontier.create(context);
+		Random rnd = new Random(Corpus.SEED);
+		for (int i = 0; i <= size; i++)
+		{
+			State s = (State) all.get(i * (all.size() / (size + 1))).clone();
+			s.numMoves = rnd.nextInt(32);
+			if (i < size)
+			{
+				OPEN.addState(s);
+			}
+			else
+			{
+				spare = s;
+			}
+		}
+	}
+	
+	
+	@Benchmark
+	public int open()
+	{
+		OPEN.addState(spare);
+		State s = OPEN.remove();
+		s.numMoves += 1 + (next++ & 7);
+		spare = s;
+		return s.numMoves;
+	}
+}
@@ -0,0 +1,69 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * JMH benchmark of the evaluation of each Heuristic from scratch on 1024 packed 8-puzzle boards 
+ * drawn with a fixed seed. 
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class HeuristicBench
+{
+	@Param({"TileMismatch", "ManhattanDist", "DoubleMoveHeuristic", "PatternDatabase", "LinearConflict", 
+			"WalkingDistance"})
+	public Heuristic heuristic;
+	
+	private final Goal goal = Goal.EIGHT_PUZZLE;
+	private SearchContext context;
+	private final long[] lo = new long[1024];
+	private final long[] hi = new long[1024];
+	private int next = 0;
+	
+	
+	@Setup
+	public void setup()
+	{
+		List<State> all = SolverBenchmark.allInstances();
+		Random rnd = new Random(Corpus.SEED);
+		for (int i = 0; i < lo.length; i++)
+		{
+			State s = all.get(rnd.nextInt(all.size()));
+			lo[i] = s.packedBoard();
+			hi[i] = s.packedBoardHigh();
+		}
+		context = new SearchContext(heuristic, goal);
+	}
+	
+	
+	@Benchmark
+	public int evaluate()
+	{
+		int k = next++ & 1023;
+		return heuristic == Heuristic.PatternDatabase ? context.patterns.distance(lo[k], hi[k]) 
+				: goal.heuristic(heuristic, lo[k], hi[k]);
+	}
+}
@@ -0,0 +1,58 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * JMH benchmark of EightPuzzle.solve8Puzzle() end to end on Corpus.corpus(): four instances drawn 
+ * with a fixed seed from each of four strata of optimal solution depth. 
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SolveBench
+{
+	@Param({"0-7", "8-15", "16-23", "24-31"})
+	public String depth;
+	
+	private State[] corpus;
+	private int next = 0;
+	
+	
+	@Setup
+	public void setup()
+	{
+		List<State> all = SolverBenchmark.allInstances();
+		int dash = depth.indexOf('-');
+		int min = Integer.parseInt(depth.substring(0, dash));
+		int max = Integer.parseInt(depth.substring(dash + 1));
+		corpus = Corpus.corpus(all, min, max, 4).toArray(new State[0]);
+	}
+	
+	
+	@Benchmark
+	public String solve()
+	{
+		return EightPuzzle.solve8Puzzle((State) corpus[next++ % corpus.length].clone());
+	}
+}
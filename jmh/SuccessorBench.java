@@ -0,0 +1,159 @@
+package edu.iastate.cs472.proj1;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 
+ * @author Owen Kim 
+ * 
+ */
+
+/**
+ * JMH benchmarks of successor generation on 8-puzzle states drawn with a fixed seed.  The JMH 
+ * annotation State is written out in full, since State here is the puzzle state. 
+ * 
+ *     successor           successorState() for each Move, on 1024 states where the move is legal 
+ *     expandTable         all successors of a state as a search generates them, from the moves of 
+ *                         its MoveTable 
+ *     expandValidating    the same, checking every move allowed with isLegalMove() before 
+ *                         successorState() 
+ * 
+ * The expand benchmarks run with single moves ("single") or single and double moves ("double"), and 
+ * each invocation expands states drawn until they have SUCCESSORS successors in all, so the score is 
+ * the time per successor. 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SuccessorBench
+{
+	static final int SUCCESSORS = 4096;     // successors generated per invocation of an expand benchmark
+	
+	
+	@org.openjdk.jmh.annotations.State(Scope.Thread)
+	public static class Successors
+	{
+		@Param({"LEFT", "RIGHT", "UP", "DOWN", "DBL_LEFT", "DBL_RIGHT", "DBL_UP", "DBL_DOWN"})
+		public Move move;
+		
+		private State[] states;
+		private int next = 0;
+		
+		
+		@Setup
+		public void setup()
+		{
+			List<State> all = SolverBenchmark.allInstances();
+			List<State> legal = new ArrayList<>();
+			Random rnd = new Random(Corpus.SEED);
+			while (legal.size() < 1024)
+			{
+				State s = (State) all.get(rnd.nextInt(all.size())).clone();
+				if (s.isLegalMove(move))
+				{
+					legal.add(s);
+				}
+			}
+			states = legal.toArray(new State[0]);
+		}
+	}
+	
+	
+	@org.openjdk.jmh.annotations.State(Scope.Thread)
+	public static class Expansions
+	{
+		@Param({"single", "double"})
+		public String moves;
+		
+		private SearchContext context;
+		private State[] states;
+		
+		
+		@Setup
+		public void setup()
+		{
+			Heuristic h = moves.equals("single") ? Heuristic.ManhattanDist : Heuristic.DoubleMoveHeuristic;
+			context = new SearchContext(h, Goal.EIGHT_PUZZLE);
+			List<State> all = SolverBenchmark.allInstances();
+			List<State> drawn = new ArrayList<>();
+			Random rnd = new Random(Corpus.SEED);
+			int successors = 0;
+			while (successors < SUCCESSORS)
+			{
+				State s = (State) all.get(rnd.nextInt(all.size())).clone();
+				int n = context.moveTable.moves(s.blankIndex()).length;
+				if (SUCCESSORS - successors - n == 1)
+				{
+					continue;      // every state has at least 2 successors, so none could make up the rest
+				}
+				if (successors + n <= SUCCESSORS)
+				{
+					s.context = context;
+					s.cost();      // the heuristic is known, as for a state on OPEN
+					drawn.add(s);
+					successors += n;
+				}
+			}
+			states = drawn.toArray(new State[0]);
+		}
+	}
+	
+	
+	@Benchmark
+	public State successor(Successors b)
+	{
+		return b.states[b.next++ & 1023].successorState(b.move);
+	}
+	
+	
+	@Benchmark
+	@OperationsPerInvocation(SUCCESSORS)
+	public long expandTable(Expansions b)
+	{
+		long sum = 0;
+		for (State s : b.states)
+		{
+			for (Move m : b.context.moveTable.moves(s.blankIndex()))
+			{
+				sum += s.successor(m).blankIndex();
+			}
+		}
+		return sum;
+	}
+	
+	
+	@Benchmark
+	@OperationsPerInvocation(SUCCESSORS)
+	public long expandValidating(Expansions b)
+	{
+		long sum = 0;
+		for (State s : b.states)
+		{
+			for (Move m : b.context.moves)
+			{
+				if (s.isLegalMove(m))
+				{
+					sum += s.successorState(m).blankIndex();
+				}
+			}
+		}
+		return sum;
+	}
+}